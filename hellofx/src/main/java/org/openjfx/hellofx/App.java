@@ -4,11 +4,17 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.Locale;
 import java.util.PropertyResourceBundle;
 import java.util.ResourceBundle;
 
+import org.openjfx.hellofx.dao.DaoFactory;
 import org.openjfx.hellofx.utils.AuthService;
+import org.openjfx.hellofx.utils.CheckInQueue;
+import org.openjfx.hellofx.utils.MembershipSweepScheduler;
+import org.openjfx.hellofx.utils.OccupancyTracker;
+import org.openjfx.hellofx.utils.VisitMaintenanceScheduler;
 
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -32,6 +38,10 @@ public class App extends Application {
             showInitError(e);
             return;
         }
+        startOccupancyRecovery();
+        startClientIndexLoad();
+        MembershipSweepScheduler.shared().start();
+        VisitMaintenanceScheduler.shared().start();
 
         scene = new Scene(loadFXML("login_view"), 640, 480);
         applyTheme(scene);
@@ -40,6 +50,14 @@ public class App extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        // flush check-ins that are still waiting for their group commit
+        CheckInQueue.shutdownShared();
+        MembershipSweepScheduler.shutdownShared();
+        VisitMaintenanceScheduler.shutdownShared();
+    }
+
     public static void setRoot(String fxml) throws IOException {
         currentView = fxml;
         scene.setRoot(loadFXML(fxml));
@@ -127,6 +145,34 @@ public class App extends Application {
 
   
 
+    // restores today's occupancy counters from the stored check-ins; the visit tables themselves are
+    // maintained at night by VisitMaintenanceScheduler
+    private static void startOccupancyRecovery() {
+        Thread recovery = new Thread(() -> {
+            try {
+                LocalDate today = LocalDate.now();
+                OccupancyTracker.shared().recover(today, DaoFactory.visits().countCheckInsByHour(today));
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, "occupancy-recovery");
+        recovery.setDaemon(true);
+        recovery.start();
+    }
+
+    // the typeahead fields search clients in memory; until this finishes they fall back to SQL
+    private static void startClientIndexLoad() {
+        Thread loader = new Thread(() -> {
+            try {
+                DaoFactory.clients().loadSearchIndex();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, "client-index");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
     private void showInitError(Exception e) {
         e.printStackTrace();
     }
@@ -122,7 +122,7 @@ public class AssignMembershipController implements Initializable {
                 basePrice = priceVal;
                 if (bestDiscount.isPresent()) {
                     appliedPercent = bestDiscount.get().getDiscountPercent();
-                    priceVal = priceVal * (100 - appliedPercent) / 100.0;
+                    priceVal = bestDiscount.get().applyTo(priceVal);
                 }
             }
         } catch (NumberFormatException e) {
@@ -135,25 +135,13 @@ public class AssignMembershipController implements Initializable {
             showAlert(get("assign.error.startPast"));
             return;
         }
-        LocalDate expires;
-        if (enumType == Membership.MembershipType.Ten) {
-            // default expiry window for 10 visits
-            expires = start.plusMonths(3);
-        } else {
-            switch (enumType) {
-                case Monthly -> expires = start.plusMonths(1);
-                case Yearly -> expires = start.plusYears(1);
-                case Weekly -> expires = start.plusWeeks(1);
-                default -> expires = start.plusMonths(1);
-            }
-        }
+        LocalDate expires = enumType.expiryFor(start);
 
       
-        int visits = enumType == Membership.MembershipType.Ten ? 10 : 0;
-        Membership membership = new Membership(null, start, expires, priceVal, enumType, clientId, visits);
+        Membership membership = new Membership(null, start, expires, priceVal, enumType, clientId, enumType.includedVisits());
        
         try {
-            dao.addMembership(membership);
+            dao.addMembership(membership, appliedPercent > 0 ? bestDiscount.get() : null);
             System.out.println("Assigned membership to client id " + clientId);
             if (appliedPercent > 0) {
                 showInfo(String.format(get("assign.discount.applied"), appliedPercent, visitCount, basePrice, priceVal));
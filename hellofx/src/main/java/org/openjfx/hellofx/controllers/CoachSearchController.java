@@ -4,6 +4,7 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.collections.ListChangeListener;
@@ -15,20 +16,28 @@ import org.openjfx.hellofx.dao.DaoFactory;
 import org.openjfx.hellofx.entities.Coach;
 
 import java.net.URL;
-import java.sql.SQLException;
 import java.util.List;
 import java.util.ResourceBundle;
 
 public class CoachSearchController implements Initializable {
 
+    // coaches per page of results; "load more" appends the next one
+    private static final int PAGE_SIZE = 50;
+
     @FXML private VBox resultsBox;
     @FXML private ListView<HBox> resultsList;
     @FXML private TextField searchField;
     @FXML private Label searchStatus;
+    @FXML private Button loadMoreButton;
 
     private final CoachDAO coachDAO = DaoFactory.coaches();
     private ResourceBundle resources;
 
+    // the search being paged and the last coach shown, the keyset cursor of the next page
+    private String searchQuery;
+    private Long lastCoachId;
+    private long estimatedMatches;
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         this.resources = resources;
@@ -42,31 +51,61 @@ public class CoachSearchController implements Initializable {
     void onSearchButton(ActionEvent event) {
         String query = searchField.getText().trim();
         resultsList.getItems().clear();
+        searchQuery = null;
+        lastCoachId = null;
+        showLoadMore(false);
         updateResultsVisibility();
 
         if (query.isEmpty()) {
             searchStatus.setText(get("coachSearch.status.enter"));
             return;
         }
+        searchQuery = query;
+        loadPage();
+    }
 
+    @FXML
+    void onLoadMore(ActionEvent event) {
+        if (searchQuery != null) loadPage();
+    }
+
+    // reads one more coach than a page only to learn whether another page follows
+    private void loadPage() {
         try {
-            List<Coach> found = coachDAO.searchCoaches(query);
-            if (found.isEmpty()) {
+            List<Coach> found = coachDAO.searchCoachesPage(searchQuery, lastCoachId, PAGE_SIZE + 1);
+            boolean hasMore = found.size() > PAGE_SIZE;
+            if (hasMore) found = found.subList(0, PAGE_SIZE);
+
+            if (found.isEmpty() && lastCoachId == null) {
                 searchStatus.setText(get("coachSearch.status.none"));
-            } else {
-                searchStatus.setText(String.format(get("coachSearch.status.found"), found.size()));
-                for (Coach coach : found) {
-                    HBox row = createCoachRow(coach);
-                    resultsList.getItems().add(row);
-                }
-                updateResultsVisibility();
+                return;
             }
-        } catch (SQLException e) {
+            if (lastCoachId == null) {
+                estimatedMatches = hasMore ? coachDAO.estimateCoachMatches(searchQuery) : found.size();
+            }
+            for (Coach coach : found) {
+                resultsList.getItems().add(createCoachRow(coach));
+            }
+            if (!found.isEmpty()) lastCoachId = found.get(found.size() - 1).id();
+
+            int shown = resultsList.getItems().size();
+            searchStatus.setText(hasMore
+                ? String.format(get("coachSearch.status.partial"), shown, Math.max(estimatedMatches, shown + 1))
+                : String.format(get("coachSearch.status.found"), shown));
+            showLoadMore(hasMore);
+            updateResultsVisibility();
+        } catch (Exception e) {
             e.printStackTrace();
             showAlert(Alert.AlertType.ERROR, get("coachSearch.error.fetch") + ": " + e.getMessage());
         }
     }
 
+    private void showLoadMore(boolean show) {
+        if (loadMoreButton == null) return;
+        loadMoreButton.setVisible(show);
+        loadMoreButton.setManaged(show);
+    }
+
     private HBox createCoachRow(Coach coach) {
         String email = coach.email() == null || coach.email().isBlank() ? get("coachSearch.noEmail") : coach.email();
         Label label = new Label(coach.name() + " | " + email + " | " + coach.phoneNumber());
@@ -4,6 +4,7 @@ import javafx.beans.property.SimpleIntegerProperty;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -14,6 +15,7 @@ import org.openjfx.hellofx.dao.DiscountRuleDAO;
 import org.openjfx.hellofx.entities.DiscountRule;
 
 import java.net.URL;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -24,6 +26,7 @@ public class DiscountRulesController implements Initializable {
 
     @FXML private TextField thresholdsField;
     @FXML private TextField discountsField;
+    @FXML private DatePicker activateOnPicker;
 
     @FXML private Label messageLabel;
 
@@ -106,6 +109,13 @@ public class DiscountRulesController implements Initializable {
     private void onSave() {
         try {
             List<DiscountRule> parsed = parseRules();
+            // a future date schedules the rules for the start of that day, the current rules stay until then
+            LocalDate activateOn = activateOnPicker != null ? activateOnPicker.getValue() : null;
+            if (activateOn != null && activateOn.isAfter(LocalDate.now())) {
+                discountRuleDAO.createRuleSet(parsed, activateOn.atStartOfDay());
+                setMessage(String.format(get("discount.message.scheduled"), parsed.size(), activateOn), "-fx-text-fill: green;");
+                return;
+            }
             discountRuleDAO.replaceAll(parsed);
             refreshFromDb();
             setMessage(String.format(get("discount.message.saved"), parsed.size()), "-fx-text-fill: green;");
@@ -1,23 +1,38 @@
 package org.openjfx.hellofx.controllers;
 
+import java.io.File;
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.net.URL;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletionException;
 
 import org.openjfx.hellofx.App;
 import org.openjfx.hellofx.dao.ClientDAO;
 import org.openjfx.hellofx.dao.DaoFactory;
 import org.openjfx.hellofx.dao.MembershipDAO;
 import org.openjfx.hellofx.dao.SpecializationDAO;
-import org.openjfx.hellofx.dao.VisitDAO;
 import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.model.CheckInResult;
+import org.openjfx.hellofx.model.ImportReport;
+import org.openjfx.hellofx.model.MembershipStatus;
+import org.openjfx.hellofx.model.MembershipTimelineEntry;
 import org.openjfx.hellofx.utils.AuthContext;
 import org.openjfx.hellofx.utils.AuthService;
-
+import org.openjfx.hellofx.utils.CheckInQueue;
+import org.openjfx.hellofx.utils.MembershipStatusCache;
+import org.openjfx.hellofx.utils.OccupancyTracker;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -38,12 +53,17 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import javafx.util.StringConverter;
 
 public class MembershipController implements Initializable {
 
+    // clients per page of search results; "load more" appends the next one
+    private static final int SEARCH_PAGE_SIZE = 50;
+
     @FXML
     private VBox resultsBox;
 
@@ -77,6 +97,24 @@ public class MembershipController implements Initializable {
     @FXML
     private Button discountButton;
 
+    @FXML
+    private Button renewalButton;
+
+    @FXML
+    private Button revenueButton;
+
+    @FXML
+    private Button importButton;
+
+    @FXML
+    private VBox timelineBox;
+
+    @FXML
+    private Label timelineTitle;
+
+    @FXML
+    private ListView<String> timelineList;
+
     @FXML
     private HBox searchContainer;
 
@@ -89,9 +127,18 @@ public class MembershipController implements Initializable {
     @FXML
     private Label searchStatus;
 
+    @FXML
+    private Button loadMoreButton;
+
     @FXML
     private Text titleText;
 
+    @FXML
+    private Label occupancyLabel;
+
+    @FXML
+    private Label cacheStatsLabel;
+
     @FXML
     private ComboBox<String> languageCombo;
     @FXML
@@ -102,7 +149,11 @@ public class MembershipController implements Initializable {
     private final ClientDAO clientDAO = DaoFactory.clients();
     private final MembershipDAO membershipDAO = DaoFactory.memberships();
     private final SpecializationDAO specializationDAO = DaoFactory.specializations();
-    private final VisitDAO visitDAO = DaoFactory.visits();
+
+    // the search being paged and the last client shown, the keyset cursor of the next page
+    private String searchQuery;
+    private Long lastClientId;
+    private long estimatedMatches;
 
     @Override
     public void initialize(URL location, ResourceBundle resources) {
@@ -123,6 +174,21 @@ public class MembershipController implements Initializable {
             discountButton.setVisible(AuthContext.isAdmin());
             discountButton.setManaged(AuthContext.isAdmin());
         }
+        if (renewalButton != null) {
+            renewalButton.setDisable(!AuthContext.isAdmin());
+            renewalButton.setVisible(AuthContext.isAdmin());
+            renewalButton.setManaged(AuthContext.isAdmin());
+        }
+        if (revenueButton != null) {
+            revenueButton.setDisable(!AuthContext.isAdmin());
+            revenueButton.setVisible(AuthContext.isAdmin());
+            revenueButton.setManaged(AuthContext.isAdmin());
+        }
+        if (importButton != null) {
+            importButton.setDisable(!AuthContext.isAdmin());
+            importButton.setVisible(AuthContext.isAdmin());
+            importButton.setManaged(AuthContext.isAdmin());
+        }
 
         boolean isCoach = AuthContext.isCoach();
         if (coachProfileButton != null) {
@@ -144,6 +210,8 @@ public class MembershipController implements Initializable {
             titleText.setText(get("membership.title.coach"));
         }
 
+        setupOccupancyWidget(isCoach);
+
         if (isCoach) {
             // hide membership-related UI
             if (searchContainer != null) { searchContainer.setVisible(false); searchContainer.setManaged(false); }
@@ -177,6 +245,38 @@ public class MembershipController implements Initializable {
         }
     }
 
+    // polls the in-memory occupancy tracker; the read is a few atomic loads, so a short period is fine.
+    // admins also see how well the membership status cache is doing, read the same way.
+    // the timeline stops once the view is replaced, so old views don't keep polling.
+    private void setupOccupancyWidget(boolean isCoach) {
+        if (occupancyLabel == null) return;
+        boolean showCache = cacheStatsLabel != null && AuthContext.isAdmin();
+        if (cacheStatsLabel != null) {
+            cacheStatsLabel.setVisible(showCache);
+            cacheStatsLabel.setManaged(showCache);
+        }
+        if (isCoach) {
+            occupancyLabel.setVisible(false);
+            occupancyLabel.setManaged(false);
+            return;
+        }
+        Runnable refresh = () -> {
+            occupancyLabel.setText(String.format(get("membership.occupancy"), OccupancyTracker.shared().current()));
+            if (showCache) {
+                MembershipStatusCache.Stats stats = MembershipStatusCache.shared().stats();
+                cacheStatsLabel.setText(String.format(get("membership.cacheStats"),
+                    stats.hitRate() * 100, stats.size(), stats.evictions()));
+            }
+        };
+        refresh.run();
+        Timeline poll = new Timeline(new KeyFrame(Duration.seconds(2), e -> refresh.run()));
+        poll.setCycleCount(Animation.INDEFINITE);
+        poll.play();
+        occupancyLabel.sceneProperty().addListener((obs, oldScene, newScene) -> {
+            if (newScene == null) poll.stop();
+        });
+    }
+
     private void showAlert(Alert.AlertType type, String message) {
         Alert alert = new Alert(type);
         alert.setContentText(message);
@@ -279,33 +379,67 @@ public class MembershipController implements Initializable {
     void onSearchButton(ActionEvent event) {
         String query = searchField.getText().trim();
         resultsList.getItems().clear();
+        searchQuery = null;
+        lastClientId = null;
+        showLoadMore(false);
         updateResultsVisibility();
 
         if (query.isEmpty()) {
             searchStatus.setText(get("membership.search.enter"));
             return;
         }
+        searchQuery = query;
+        loadClientPage();
+    }
+
+    @FXML
+    void onLoadMore(ActionEvent event) {
+        if (searchQuery != null) loadClientPage();
+    }
 
+    // reads one more row than a page only to learn whether another page follows
+    private void loadClientPage() {
         try {
-            List<Client> found = clientDAO.searchClients(query);
+            List<Client> found = clientDAO.searchClientsPage(searchQuery, lastClientId, SEARCH_PAGE_SIZE + 1);
+            boolean hasMore = found.size() > SEARCH_PAGE_SIZE;
+            if (hasMore) found = found.subList(0, SEARCH_PAGE_SIZE);
 
-            if (found.isEmpty()) {
+            if (found.isEmpty() && lastClientId == null) {
                 searchStatus.setText(get("membership.search.none"));
-            } else {
-                searchStatus.setText(String.format(get("membership.search.found"), found.size()));
-                for (Client c : found) {
-                    HBox row = createClientRow(c);
-                    resultsList.getItems().add(row);
-                }
-                updateResultsVisibility();
+                return;
             }
-
-        } catch (SQLException e) {
+            if (lastClientId == null) {
+                // the estimate is only worth its query when the results don't fit on one page
+                estimatedMatches = hasMore ? clientDAO.estimateClientMatches(searchQuery) : found.size();
+            }
+            // one query for the membership state of the whole page
+            Map<Long, MembershipStatus> statuses = membershipDAO.getStatusForClients(
+                found.stream().map(Client::id).toList());
+            List<HBox> rows = new ArrayList<>(found.size());
+            for (Client c : found) {
+                rows.add(createClientRow(c, statuses.getOrDefault(c.id(), MembershipStatus.NONE)));
+            }
+            if (!found.isEmpty()) lastClientId = found.get(found.size() - 1).id();
+            resultsList.getItems().addAll(rows);
+
+            int shown = resultsList.getItems().size();
+            searchStatus.setText(hasMore
+                ? String.format(get("membership.search.partial"), shown, Math.max(estimatedMatches, shown + 1))
+                : String.format(get("membership.search.found"), shown));
+            showLoadMore(hasMore);
+            updateResultsVisibility();
+        } catch (Exception e) {
             e.printStackTrace();
             showError(get("error.fetch.clients") + ": " + e.getMessage());
         }
     }
 
+    private void showLoadMore(boolean show) {
+        if (loadMoreButton == null) return;
+        loadMoreButton.setVisible(show);
+        loadMoreButton.setManaged(show);
+    }
+
     private boolean confirmDelete(String title, String msg) {
         Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, msg, ButtonType.OK, ButtonType.CANCEL);
         confirm.setTitle(title);
@@ -316,27 +450,15 @@ public class MembershipController implements Initializable {
     }
 
     // Creates one row in the results list: "Client Name  [Assign Button]"
-    private HBox createClientRow(Client client) {
+    private HBox createClientRow(Client client, MembershipStatus status) {
         String membershipLabelText = get("membership.type.none");
-        String currentType = null;
-        Integer remainingVisits = null;
-        try {
-            currentType = membershipDAO.getCurrentMembershipType(client.id());
-            if (currentType != null) {
-                membershipLabelText = switch (currentType) {
-                    case "Ten" -> get("membership.type.ten");
-                    case "Monthly" -> get("membership.type.monthly");
-                    case "Weekly" -> get("membership.type.weekly");
-                    case "Yearly" -> get("membership.type.yearly");
-                    default -> currentType;
-                };
-                remainingVisits = membershipDAO.getRemainingVisits(client.id());
-                if ("Ten".equalsIgnoreCase(currentType) && remainingVisits != null) {
-                    membershipLabelText = membershipLabelText + " " + String.format(get("membership.left"), remainingVisits);
-                }
+        String currentType = status.type();
+        Integer remainingVisits = status.visitsRemaining();
+        if (currentType != null) {
+            membershipLabelText = typeLabel(currentType);
+            if ("Ten".equalsIgnoreCase(currentType) && remainingVisits != null) {
+                membershipLabelText = membershipLabelText + " " + String.format(get("membership.left"), remainingVisits);
             }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
         }
 
         boolean isAdmin = AuthContext.isAdmin();
@@ -372,39 +494,92 @@ public class MembershipController implements Initializable {
         Button checkInButton = new Button(get("membership.checkin"));
         boolean isTenMembership = "Ten".equalsIgnoreCase(currentType);
         boolean tenExhausted = isTenMembership && remainingVisits != null && remainingVisits <= 0;
-        boolean hasActiveMembership = true;
-        try {
-            hasActiveMembership = membershipDAO.hasActiveMembership(client.id());
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            hasActiveMembership = false;
-        }
-        checkInButton.setDisable(!hasMembership || tenExhausted || !hasActiveMembership);
+        checkInButton.setDisable(!hasMembership || tenExhausted || !status.active());
         checkInButton.setOnAction(e -> {
-            try {
-                boolean checkedIn = visitDAO.checkInClient(client.id());
-                if (checkedIn) {
+            checkInButton.setDisable(true);
+            // queued check-ins are committed in groups off the FX thread
+            CheckInQueue.shared().submit(client.id()).whenComplete((result, ex) -> Platform.runLater(() -> {
+                if (ex != null) {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    cause.printStackTrace();
+                    checkInButton.setDisable(false);
+                    showAlert(Alert.AlertType.ERROR, get("membership.checkin.fail") + ": " + cause.getMessage());
+                } else if (result.accepted()) {
                     // Refresh the row to reflect updated remaining visits / status
-                    HBox refreshed = createClientRow(client);
-                    int idx = resultsList.getItems().indexOf(checkInButton.getParent());
-                    if (idx >= 0) {
-                        resultsList.getItems().set(idx, refreshed);
+                    try {
+                        MembershipStatus updated = membershipDAO.getStatusForClients(List.of(client.id()))
+                            .getOrDefault(client.id(), MembershipStatus.NONE);
+                        int idx = resultsList.getItems().indexOf(checkInButton.getParent());
+                        if (idx >= 0) {
+                            resultsList.getItems().set(idx, createClientRow(client, updated));
+                        }
+                    } catch (SQLException refreshEx) {
+                        refreshEx.printStackTrace();
                     }
                     showAlert(Alert.AlertType.INFORMATION, get("membership.checkin.ok"));
+                } else if (result.status() == CheckInResult.Status.EXHAUSTED) {
+                    showAlert(Alert.AlertType.WARNING, get("membership.checkin.exhausted"));
                 } else {
                     showAlert(Alert.AlertType.WARNING, get("membership.checkin.invalid"));
                 }
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-                showAlert(Alert.AlertType.ERROR, get("membership.checkin.fail") + ": " + ex.getMessage());
-            }
+            }));
         });
 
+        Button timelineButton = new Button(get("membership.timeline"));
+        timelineButton.setOnAction(e -> showTimeline(client));
+
         HBox row = new HBox(10);
-        row.getChildren().addAll(nameLabel, assignButton, deleteBtn, checkInButton);
+        row.getChildren().addAll(nameLabel, assignButton, deleteBtn, checkInButton, timelineButton);
         return row;
     }
 
+    // every membership the client had, newest first; one short index range read, so it is loaded on the FX thread
+    private void showTimeline(Client client) {
+        List<MembershipTimelineEntry> entries;
+        try {
+            entries = membershipDAO.findTimeline(client.id());
+        } catch (Exception e) {
+            e.printStackTrace();
+            showError(get("membership.timeline.error") + ": " + e.getMessage());
+            return;
+        }
+        List<String> rows = new ArrayList<>(entries.size());
+        for (MembershipTimelineEntry m : entries) {
+            String row = String.format(get("membership.timeline.row"), m.startDate(), m.expiresAt(),
+                typeLabel(m.type()), statusLabel(m.status()), m.price(), m.visits());
+            if (m.visitsRemaining() != null) {
+                row = row + " " + String.format(get("membership.left"), m.visitsRemaining());
+            }
+            rows.add(row);
+        }
+        if (rows.isEmpty()) rows.add(get("membership.timeline.empty"));
+        timelineTitle.setText(String.format(get("membership.timeline.title"), client.name()));
+        timelineList.getItems().setAll(rows);
+        timelineBox.setVisible(true);
+        timelineBox.setManaged(true);
+    }
+
+    @FXML
+    void onCloseTimeline() {
+        timelineList.getItems().clear();
+        timelineBox.setVisible(false);
+        timelineBox.setManaged(false);
+    }
+
+    private String typeLabel(String type) {
+        return switch (type) {
+            case "Ten" -> get("membership.type.ten");
+            case "Monthly" -> get("membership.type.monthly");
+            case "Weekly" -> get("membership.type.weekly");
+            case "Yearly" -> get("membership.type.yearly");
+            default -> type;
+        };
+    }
+
+    private String statusLabel(String status) {
+        return get("membership.status." + status.toLowerCase(Locale.ROOT));
+    }
+
     @FXML
     void onRegisterNewClient(ActionEvent event) {
         try {
@@ -578,6 +753,80 @@ public class MembershipController implements Initializable {
         
     }
 
+    @FXML
+    void onRenewMemberships(ActionEvent event) {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/org/openjfx/hellofx/renewal_view.fxml"), App.getBundle());
+            Parent root = loader.load();
+
+            Stage dialog = new Stage();
+            dialog.setTitle(get("window.renewal"));
+            dialog.initModality(Modality.APPLICATION_MODAL);
+            Scene scene = new Scene(root);
+            App.applyTheme(scene);
+            dialog.setScene(scene);
+            dialog.showAndWait();
+            // renewals that already started show up in the search results
+            onSearchButton(null);
+        } catch (IOException e) {
+            e.printStackTrace();
+            showAlert(Alert.AlertType.ERROR, get("membership.open.renewal.error") + ": " + e.getMessage());
+        }
+    }
+
+    @FXML
+    void onRevenue(ActionEvent event) {
+        try {
+            FXMLLoader loader = new FXMLLoader(getClass().getResource("/org/openjfx/hellofx/revenue_view.fxml"), App.getBundle());
+            Parent root = loader.load();
+
+            Stage dialog = new Stage();
+            dialog.setTitle(get("window.revenue"));
+            dialog.initModality(Modality.APPLICATION_MODAL);
+            Scene scene = new Scene(root);
+            App.applyTheme(scene);
+            dialog.setScene(scene);
+            dialog.showAndWait();
+        } catch (IOException e) {
+            e.printStackTrace();
+            showAlert(Alert.AlertType.ERROR, get("membership.open.revenue.error") + ": " + e.getMessage());
+        }
+    }
+
+    // bulk import of another gym's clients on its own thread; rejected rows go to <file>.rejects.csv next to it
+    @FXML
+    void onImportClients(ActionEvent event) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(get("import.title"));
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+        File file = chooser.showOpenDialog(importButton.getScene().getWindow());
+        if (file == null) return;
+        File rejects = new File(file.getParentFile(), file.getName().replaceFirst("\\.csv$", "") + ".rejects.csv");
+
+        Task<ImportReport> task = new Task<>() {
+            @Override
+            protected ImportReport call() throws Exception {
+                return DaoFactory.clientImport().importCsv(file.toPath(), rejects.toPath(), rows -> { });
+            }
+        };
+        task.setOnSucceeded(e -> {
+            importButton.setDisable(false);
+            ImportReport report = task.getValue();
+            showAlert(Alert.AlertType.INFORMATION, String.format(get("import.done"),
+                report.clients(), report.memberships(), report.rejected(), rejects.getName()));
+        });
+        task.setOnFailed(e -> {
+            importButton.setDisable(false);
+            Throwable ex = task.getException();
+            showAlert(Alert.AlertType.ERROR, get("import.error") + ": " + (ex != null ? ex.getMessage() : ""));
+        });
+
+        importButton.setDisable(true);
+        Thread t = new Thread(task, "client-import");
+        t.setDaemon(true);
+        t.start();
+    }
+
     private void openAssignMembershipWindow(Client client) {
         try {
             FXMLLoader loader = new FXMLLoader(App.class.getResource("/org/openjfx/hellofx/assign_view.fxml"), App.getBundle());
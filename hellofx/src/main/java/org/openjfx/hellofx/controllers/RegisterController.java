@@ -4,6 +4,7 @@ package org.openjfx.hellofx.controllers;
 
 import java.net.URL;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.ResourceBundle;
 
 import org.openjfx.hellofx.dao.ClientDAO;
@@ -58,6 +59,10 @@ public class RegisterController implements Initializable {
             showAlert(Alert.AlertType.INFORMATION, get("register.success"));
             clearFields();
         } catch (SQLException e) {  
+            if (e instanceof SQLIntegrityConstraintViolationException) {
+                showAlert(Alert.AlertType.WARNING, get("register.error.duplicateEmail"));
+                return;
+            }
             e.printStackTrace();
             showAlert(Alert.AlertType.ERROR, get("register.error.fail") + ": " + e.getMessage());
         }
@@ -0,0 +1,185 @@
+package org.openjfx.hellofx.controllers;
+
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleLongProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.stage.Stage;
+import javafx.util.StringConverter;
+import org.openjfx.hellofx.dao.DaoFactory;
+import org.openjfx.hellofx.dao.MembershipRenewalDAO;
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.MembershipRenewal;
+import org.openjfx.hellofx.model.RenewalReport;
+
+import java.net.URL;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ResourceBundle;
+import java.util.function.Consumer;
+
+// admin dialog for the month-end renewal: preview (dry run) first, then renew the same window
+public class RenewalController implements Initializable {
+
+    @FXML private DatePicker fromPicker;
+    @FXML private DatePicker toPicker;
+    @FXML private ChoiceBox<Membership.MembershipType> typeChoice;
+    @FXML private TextField priceField;
+
+    @FXML private TableView<MembershipRenewal> renewalTable;
+    @FXML private TableColumn<MembershipRenewal, Long> clientColumn;
+    @FXML private TableColumn<MembershipRenewal, Integer> visitsColumn;
+    @FXML private TableColumn<MembershipRenewal, LocalDate> startColumn;
+    @FXML private TableColumn<MembershipRenewal, LocalDate> expiresColumn;
+    @FXML private TableColumn<MembershipRenewal, Integer> discountColumn;
+    @FXML private TableColumn<MembershipRenewal, Double> priceColumn;
+
+    @FXML private Label reportLabel;
+    @FXML private ProgressIndicator progress;
+    @FXML private Button previewButton;
+    @FXML private Button renewButton;
+    @FXML private Button closeButton;
+
+    private final MembershipRenewalDAO renewalDAO = DaoFactory.membershipRenewals();
+    private ResourceBundle resources;
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        this.resources = resources;
+        // defaults to what runs out this month
+        LocalDate today = LocalDate.now();
+        fromPicker.setValue(today);
+        toPicker.setValue(today.with(TemporalAdjusters.lastDayOfMonth()));
+
+        typeChoice.getItems().addAll(Membership.MembershipType.values());
+        typeChoice.setValue(Membership.MembershipType.Monthly);
+        typeChoice.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Membership.MembershipType type) {
+                if (type == null) return "";
+                return switch (type) {
+                    case Ten -> get("membership.type.ten");
+                    case Monthly -> get("membership.type.monthly");
+                    case Weekly -> get("membership.type.weekly");
+                    case Yearly -> get("membership.type.yearly");
+                };
+            }
+
+            @Override
+            public Membership.MembershipType fromString(String string) {
+                return null;
+            }
+        });
+
+        clientColumn.setCellValueFactory(cell ->
+            new SimpleLongProperty(cell.getValue().membership().idOfHolder()).asObject());
+        visitsColumn.setCellValueFactory(cell ->
+            new SimpleIntegerProperty(cell.getValue().visitCount()).asObject());
+        startColumn.setCellValueFactory(cell ->
+            new SimpleObjectProperty<>(cell.getValue().membership().startDate()));
+        expiresColumn.setCellValueFactory(cell ->
+            new SimpleObjectProperty<>(cell.getValue().membership().expiresAt()));
+        discountColumn.setCellValueFactory(cell ->
+            new SimpleIntegerProperty(cell.getValue().discountPercent()).asObject());
+        priceColumn.setCellValueFactory(cell ->
+            new SimpleDoubleProperty(cell.getValue().membership().price()).asObject());
+    }
+
+    @FXML
+    private void onPreview() {
+        run(true);
+    }
+
+    @FXML
+    private void onRenew() {
+        // the confirmation shows the count from a fresh dry run, not from an older preview
+        run(true, report -> {
+            if (report.count() == 0) return;
+            Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
+                String.format(get("renewal.confirm"), report.count()), ButtonType.OK, ButtonType.CANCEL);
+            confirm.setHeaderText(null);
+            if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK) {
+                run(false);
+            }
+        });
+    }
+
+    @FXML
+    private void onClose() {
+        ((Stage) closeButton.getScene().getWindow()).close();
+    }
+
+    private void run(boolean dryRun) {
+        run(dryRun, report -> { });
+    }
+
+    private void run(boolean dryRun, Consumer<RenewalReport> then) {
+        LocalDate from = fromPicker.getValue();
+        LocalDate to = toPicker.getValue();
+        Membership.MembershipType type = typeChoice.getValue();
+        if (from == null || to == null || from.isAfter(to) || type == null) {
+            reportLabel.setText(get("renewal.error.window"));
+            return;
+        }
+        double basePrice;
+        try {
+            basePrice = Double.parseDouble(priceField.getText() == null ? "" : priceField.getText().trim());
+        } catch (NumberFormatException e) {
+            reportLabel.setText(get("renewal.error.price"));
+            return;
+        }
+        if (basePrice < 0) {
+            reportLabel.setText(get("renewal.error.price"));
+            return;
+        }
+
+        Task<RenewalReport> task = new Task<>() {
+            @Override
+            protected RenewalReport call() throws Exception {
+                return renewalDAO.renew(from, to, type, basePrice, dryRun);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            setBusy(false);
+            RenewalReport report = task.getValue();
+            renewalTable.setItems(FXCollections.observableArrayList(report.renewals()));
+            reportLabel.setText(String.format(get(dryRun ? "renewal.report.preview" : "renewal.report.done"),
+                report.count(), report.discountedCount(), report.totalPrice()));
+            then.accept(report);
+        });
+        task.setOnFailed(e -> {
+            setBusy(false);
+            Throwable ex = task.getException();
+            reportLabel.setText(get("renewal.error.failed") + ": " + (ex != null ? ex.getMessage() : ""));
+        });
+
+        setBusy(true);
+        Thread t = new Thread(task, "membership-renewal");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void setBusy(boolean busy) {
+        progress.setVisible(busy);
+        previewButton.setDisable(busy);
+        renewButton.setDisable(busy);
+    }
+
+    private String get(String key) {
+        return (resources != null && resources.containsKey(key)) ? resources.getString(key) : key;
+    }
+}
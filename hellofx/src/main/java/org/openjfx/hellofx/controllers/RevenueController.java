@@ -0,0 +1,160 @@
+package org.openjfx.hellofx.controllers;
+
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.stage.Stage;
+import javafx.util.StringConverter;
+import org.openjfx.hellofx.dao.DaoFactory;
+import org.openjfx.hellofx.dao.RevenueRollupDAO;
+import org.openjfx.hellofx.model.RevenueRow;
+
+import java.net.URL;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.ResourceBundle;
+
+// admin revenue report, read from the daily and monthly rollups so it never scans memberships
+public class RevenueController implements Initializable {
+
+    private enum Granularity { DAILY, MONTHLY }
+
+    @FXML private DatePicker fromPicker;
+    @FXML private DatePicker toPicker;
+    @FXML private ChoiceBox<Granularity> granularityChoice;
+
+    @FXML private TableView<RevenueRow> revenueTable;
+    @FXML private TableColumn<RevenueRow, LocalDate> periodColumn;
+    @FXML private TableColumn<RevenueRow, String> typeColumn;
+    @FXML private TableColumn<RevenueRow, Integer> discountColumn;
+    @FXML private TableColumn<RevenueRow, Integer> countColumn;
+    @FXML private TableColumn<RevenueRow, Double> revenueColumn;
+
+    @FXML private Label totalLabel;
+    @FXML private ProgressIndicator progress;
+    @FXML private Button showButton;
+    @FXML private Button rebuildButton;
+    @FXML private Button closeButton;
+
+    private final RevenueRollupDAO revenueDAO = DaoFactory.revenueRollups();
+    private ResourceBundle resources;
+
+    @Override
+    public void initialize(URL location, ResourceBundle resources) {
+        this.resources = resources;
+        // defaults to the last twelve months
+        LocalDate today = LocalDate.now();
+        fromPicker.setValue(today.minusMonths(11).withDayOfMonth(1));
+        toPicker.setValue(today);
+
+        granularityChoice.getItems().addAll(Granularity.values());
+        granularityChoice.setValue(Granularity.MONTHLY);
+        granularityChoice.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Granularity granularity) {
+                if (granularity == null) return "";
+                return switch (granularity) {
+                    case DAILY -> get("revenue.daily");
+                    case MONTHLY -> get("revenue.monthly");
+                };
+            }
+
+            @Override
+            public Granularity fromString(String string) {
+                return null;
+            }
+        });
+
+        periodColumn.setCellValueFactory(cell -> new SimpleObjectProperty<>(cell.getValue().period()));
+        typeColumn.setCellValueFactory(cell -> new SimpleStringProperty(cell.getValue().type()));
+        discountColumn.setCellValueFactory(cell ->
+            new SimpleIntegerProperty(cell.getValue().discountPercent()).asObject());
+        countColumn.setCellValueFactory(cell ->
+            new SimpleIntegerProperty(cell.getValue().memberships()).asObject());
+        revenueColumn.setCellValueFactory(cell ->
+            new SimpleDoubleProperty(cell.getValue().revenue()).asObject());
+
+        onShow();
+    }
+
+    // the rollups are small, so the report is read on the FX thread
+    @FXML
+    private void onShow() {
+        LocalDate from = fromPicker.getValue();
+        LocalDate to = toPicker.getValue();
+        if (from == null || to == null || from.isAfter(to)) {
+            totalLabel.setText(get("revenue.error.window"));
+            return;
+        }
+        try {
+            List<RevenueRow> rows = granularityChoice.getValue() == Granularity.DAILY
+                ? revenueDAO.findDaily(from, to)
+                : revenueDAO.findMonthly(from, to);
+            revenueTable.setItems(FXCollections.observableArrayList(rows));
+            int count = rows.stream().mapToInt(RevenueRow::memberships).sum();
+            double total = rows.stream().mapToDouble(RevenueRow::revenue).sum();
+            totalLabel.setText(String.format(get("revenue.total"), count, total));
+        } catch (Exception e) {
+            totalLabel.setText(get("revenue.error.load") + ": " + e.getMessage());
+        }
+    }
+
+    // the rebuild reads every membership, so it runs in the background
+    @FXML
+    private void onRebuild() {
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, get("revenue.rebuild.confirm"),
+            ButtonType.OK, ButtonType.CANCEL);
+        confirm.setHeaderText(null);
+        if (confirm.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) return;
+
+        Task<Integer> task = new Task<>() {
+            @Override
+            protected Integer call() throws Exception {
+                return revenueDAO.rebuild();
+            }
+        };
+        task.setOnSucceeded(e -> {
+            setBusy(false);
+            onShow();
+        });
+        task.setOnFailed(e -> {
+            setBusy(false);
+            Throwable ex = task.getException();
+            totalLabel.setText(get("revenue.error.rebuild") + ": " + (ex != null ? ex.getMessage() : ""));
+        });
+
+        setBusy(true);
+        Thread t = new Thread(task, "revenue-rebuild");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @FXML
+    private void onClose() {
+        ((Stage) closeButton.getScene().getWindow()).close();
+    }
+
+    private void setBusy(boolean busy) {
+        progress.setVisible(busy);
+        showButton.setDisable(busy);
+        rebuildButton.setDisable(busy);
+    }
+
+    private String get(String key) {
+        return (resources != null && resources.containsKey(key)) ? resources.getString(key) : key;
+    }
+}
@@ -2,6 +2,7 @@ package org.openjfx.hellofx.controllers;
 
 import java.net.URL;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -17,7 +18,9 @@ import org.openjfx.hellofx.dao.TimetableDAO;
 import org.openjfx.hellofx.entities.Client;
 import org.openjfx.hellofx.entities.Coach;
 import org.openjfx.hellofx.model.AvailabilitySlot;
+import org.openjfx.hellofx.utils.Typeahead;
 
+import javafx.application.Platform;
 import javafx.collections.ListChangeListener;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -34,6 +37,9 @@ import javafx.stage.Stage;
 
 public class TrainingSessionBookingController implements Initializable {
 
+    private static final int CLIENT_SUGGESTIONS = 10;
+    private static final Duration SUGGESTION_DEBOUNCE = Duration.ofMillis(150);
+
     @FXML private TextField titleField;
     @FXML private TextField clientNameField;
     @FXML private TextField coachNameField;
@@ -50,6 +56,16 @@ public class TrainingSessionBookingController implements Initializable {
     private final CoachDAO coachDAO = DaoFactory.coaches();
     private final TimetableDAO timetableDAO = DaoFactory.timetable();
     private final CoachAvailabilityDAO availabilityDAO = DaoFactory.coachAvailability();
+    private final Typeahead<List<String>> clientTypeahead = new Typeahead<>(SUGGESTION_DEBOUNCE,
+        this::findClientNames, this::showClientSuggestions, e -> {
+            e.printStackTrace();
+            hideClientSuggestions();
+        }, Platform::runLater);
+    private final Typeahead<List<String>> coachTypeahead = new Typeahead<>(SUGGESTION_DEBOUNCE,
+        this::findCoachLabels, this::showCoachSuggestions, e -> {
+            e.printStackTrace();
+            hideCoachSuggestions();
+        }, Platform::runLater);
     private ResourceBundle resources;
 
     @FXML
@@ -170,6 +186,8 @@ public class TrainingSessionBookingController implements Initializable {
     }
 
     private void closeWindow() {
+        clientTypeahead.close();
+        coachTypeahead.close();
         Stage stage = (Stage) saveButton.getScene().getWindow();
         stage.close();
     }
@@ -216,6 +234,8 @@ public class TrainingSessionBookingController implements Initializable {
             String sel = clientSuggestions.getSelectionModel().getSelectedItem();
             if (sel != null) {
                 clientNameField.setText(sel);
+                // the picked name is a text change too; nothing needs to be suggested for it
+                clientTypeahead.cancel();
                 hideClientSuggestions();
             }
         });
@@ -224,6 +244,7 @@ public class TrainingSessionBookingController implements Initializable {
             if (sel != null) {
                 int idx = sel.indexOf(" (");
                 coachNameField.setText(idx > 0 ? sel.substring(0, idx) : sel);
+                coachTypeahead.cancel();
                 hideCoachSuggestions();
             }
         });
@@ -268,55 +289,63 @@ public class TrainingSessionBookingController implements Initializable {
         return matches.get(0).id();
     }
 
+    // runs on every keystroke: the lookups go through the typeaheads, off the FX thread
     private void updateClientSuggestions(String query) {
         if (query == null || query.trim().isEmpty()) {
+            clientTypeahead.cancel();
             hideClientSuggestions();
             return;
         }
-        try {
-            List<String> names = clientDAO.searchClients(query.trim()).stream()
-                .map(Client::name)
-                .distinct()
-                .collect(Collectors.toList());
-            if (names.isEmpty()) {
-                hideClientSuggestions();
-            } else {
-                clientSuggestions.getItems().setAll(names);
-                clientSuggestions.setVisible(true);
-                clientSuggestions.setManaged(true);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            hideClientSuggestions();
-        }
+        clientTypeahead.submit(query.trim());
     }
 
     private void updateCoachSuggestions(String query) {
         if (query == null || query.trim().isEmpty()) {
+            coachTypeahead.cancel();
             hideCoachSuggestions();
             return;
         }
-        try {
-            List<Coach> matches = coachDAO.searchCoaches(query.trim());
-            List<String> labels = matches.stream()
-                .map(c -> {
-                    String specs = (c.specializations() != null && !c.specializations().isEmpty())
-                        ? " (" + c.specializations().stream().map(s -> s.name()).collect(Collectors.joining(", ")) + ")"
-                        : "";
-                    return c.name() + specs;
-                })
-                .distinct()
-                .collect(Collectors.toList());
-            if (labels.isEmpty()) {
-                hideCoachSuggestions();
-            } else {
-                coachSuggestions.getItems().setAll(labels);
-                coachSuggestions.setVisible(true);
-                coachSuggestions.setManaged(true);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+        coachTypeahead.submit(query.trim());
+    }
+
+    // worker thread
+    private List<String> findClientNames(String query) {
+        return clientDAO.suggestClients(query, CLIENT_SUGGESTIONS).stream()
+            .map(Client::name)
+            .distinct()
+            .collect(Collectors.toList());
+    }
+
+    // worker thread
+    private List<String> findCoachLabels(String query) throws SQLException {
+        return coachDAO.searchCoaches(query).stream()
+            .map(c -> {
+                String specs = (c.specializations() != null && !c.specializations().isEmpty())
+                    ? " (" + c.specializations().stream().map(s -> s.name()).collect(Collectors.joining(", ")) + ")"
+                    : "";
+                return c.name() + specs;
+            })
+            .distinct()
+            .collect(Collectors.toList());
+    }
+
+    private void showClientSuggestions(List<String> names) {
+        if (names.isEmpty()) {
+            hideClientSuggestions();
+        } else {
+            clientSuggestions.getItems().setAll(names);
+            clientSuggestions.setVisible(true);
+            clientSuggestions.setManaged(true);
+        }
+    }
+
+    private void showCoachSuggestions(List<String> labels) {
+        if (labels.isEmpty()) {
             hideCoachSuggestions();
+        } else {
+            coachSuggestions.getItems().setAll(labels);
+            coachSuggestions.setVisible(true);
+            coachSuggestions.setManaged(true);
         }
     }
 
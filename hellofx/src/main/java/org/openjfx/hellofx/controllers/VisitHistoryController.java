@@ -1,37 +1,68 @@
 package org.openjfx.hellofx.controllers;
 
+import java.io.File;
 import java.net.URL;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.openjfx.hellofx.dao.DaoFactory;
 import org.openjfx.hellofx.dao.VisitDAO;
+import org.openjfx.hellofx.model.VisitCursor;
 import org.openjfx.hellofx.model.VisitRow;
 
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
+import javafx.stage.FileChooser;
 
 public class VisitHistoryController implements Initializable {
 
+    private static final int PAGE_SIZE = 100;
+
+    // one shared loader thread, so page requests from all history windows run in order
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "visit-history-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
     @FXML private TableView<VisitRow> table;
     @FXML private TableColumn<VisitRow, String> clientCol;
     @FXML private TableColumn<VisitRow, String> emailCol;
     @FXML private TableColumn<VisitRow, String> membershipCol;
     @FXML private TableColumn<VisitRow, LocalDateTime> checkInCol;
     @FXML private TextField searchField;
+    @FXML private Button newerButton;
+    @FXML private Button olderButton;
+    @FXML private Label pageLabel;
+    @FXML private Button exportButton;
+    @FXML private ProgressBar exportProgress;
 
     private final VisitDAO visitDAO = DaoFactory.visits();
     private ResourceBundle resources;
 
+    // only the current page is held in memory; going back re-reads a page from its cursor
+    private final List<VisitCursor> previousCursors = new ArrayList<>();
+    private VisitCursor currentCursor;
+    private boolean hasOlder;
+    private String filter;
+    private Task<List<VisitRow>> pending;
+    private Task<Long> export;
+
     @Override
     public void initialize(URL location, ResourceBundle resources) {
         this.resources = resources;
@@ -44,37 +75,118 @@ public class VisitHistoryController implements Initializable {
             new SimpleStringProperty(cell.getValue().membershipType()));
         checkInCol.setCellValueFactory(cell ->
             new SimpleObjectProperty<>(cell.getValue().checkIn()));
-        loadVisits(null);
-        
+        loadPage(null, () -> {});
     }
 
-    private void loadVisits(String filter) {
-        // we use observable list to make the table content reactive to the changes (so no refresh needed)
-        ObservableList<VisitRow> rows = FXCollections.observableArrayList();
-        try {
-            List<VisitRow> result = (filter == null || filter.isBlank())
-                ? visitDAO.getRecentVisits(200)
-                : visitDAO.getRecentVisitsForClient(filter.trim(), 200);
-            for (VisitRow v : result) {
-                rows.add(new VisitRow(
-                    v.id(),
-                    v.clientName(),
-                    v.clientEmail(),
-                    v.membershipType(),
-                    v.checkIn()
-                ));
+    // fetches PAGE_SIZE + 1 rows in the background; the extra row only tells us whether an older page exists.
+    // onLoaded updates previousCursors, and only runs once the page is shown, so a failed load keeps the history
+    private void loadPage(VisitCursor cursor, Runnable onLoaded) {
+        if (pending != null) {
+            pending.cancel();
+        }
+        String pageFilter = filter;
+        Task<List<VisitRow>> task = new Task<>() {
+            @Override
+            protected List<VisitRow> call() {
+                return visitDAO.getVisitsPage(pageFilter, cursor, PAGE_SIZE + 1);
             }
-            table.setItems(rows);
-        } catch (Exception e) {
-            Alert alert = new Alert(Alert.AlertType.ERROR, get("visit.error.load") + ": " + e.getMessage());
+        };
+        task.setOnSucceeded(e -> {
+            if (task != pending) return;
+            onLoaded.run();
+            List<VisitRow> rows = task.getValue();
+            hasOlder = rows.size() > PAGE_SIZE;
+            currentCursor = cursor;
+            table.setItems(FXCollections.observableArrayList(hasOlder ? rows.subList(0, PAGE_SIZE) : rows));
+            table.scrollTo(0);
+            olderButton.setDisable(!hasOlder);
+            newerButton.setDisable(previousCursors.isEmpty());
+            pageLabel.setText(String.format(get("visit.page"), previousCursors.size() + 1));
+        });
+        task.setOnFailed(e -> {
+            if (task != pending) return;
+            Throwable ex = task.getException();
+            // the current page is still shown, so both directions stay usable
+            olderButton.setDisable(!hasOlder);
+            newerButton.setDisable(previousCursors.isEmpty());
+            Alert alert = new Alert(Alert.AlertType.ERROR, get("visit.error.load") + ": " + (ex != null ? ex.getMessage() : ""));
             alert.showAndWait();
-        }
+        });
+        pending = task;
+        olderButton.setDisable(true);
+        newerButton.setDisable(true);
+        LOADER.submit(task);
     }
 
     @FXML
     void onSearch() {
-        String filter = searchField != null ? searchField.getText() : null;
-        loadVisits(filter);
+        filter = searchField != null ? searchField.getText() : null;
+        loadPage(null, previousCursors::clear);
+    }
+
+    @FXML
+    void onOlder() {
+        List<VisitRow> items = table.getItems();
+        if (items.isEmpty()) return;
+        VisitCursor shown = currentCursor;
+        loadPage(VisitCursor.after(items.get(items.size() - 1)), () -> previousCursors.add(shown));
+    }
+
+    @FXML
+    void onNewer() {
+        if (previousCursors.isEmpty()) return;
+        int last = previousCursors.size() - 1;
+        loadPage(previousCursors.get(last), () -> previousCursors.remove(last));
+    }
+
+    // full CSV export on its own thread, so paging stays usable; a second click cancels it
+    @FXML
+    void onExport() {
+        if (export != null && export.isRunning()) {
+            export.cancel();
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(get("visit.export.title"));
+        chooser.setInitialFileName("visits.csv");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV", "*.csv"));
+        File file = chooser.showSaveDialog(table.getScene().getWindow());
+        if (file == null) return;
+
+        Task<Long> task = new Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                // the estimate only drives the progress bar, so it may be slightly off
+                long total = Math.max(1, visitDAO.estimateVisitCount());
+                return visitDAO.exportVisitsCsv(file.toPath(),
+                    rows -> updateProgress(Math.min(rows, total), total),
+                    this::isCancelled);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            finishExport();
+            new Alert(Alert.AlertType.INFORMATION, String.format(get("visit.export.done"), task.getValue())).showAndWait();
+        });
+        task.setOnFailed(e -> {
+            finishExport();
+            Throwable ex = task.getException();
+            new Alert(Alert.AlertType.ERROR, get("visit.export.error") + ": " + (ex != null ? ex.getMessage() : "")).showAndWait();
+        });
+        task.setOnCancelled(e -> finishExport());
+
+        export = task;
+        exportProgress.progressProperty().bind(task.progressProperty());
+        exportProgress.setVisible(true);
+        exportButton.setText(get("visit.export.cancel"));
+        Thread t = new Thread(task, "visit-export");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void finishExport() {
+        exportProgress.progressProperty().unbind();
+        exportProgress.setVisible(false);
+        exportButton.setText(get("visit.export"));
     }
 
     private String get(String key) {
@@ -1,11 +1,17 @@
 package org.openjfx.hellofx.dao;
 
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.utils.ClientSearchIndex;
 import org.openjfx.hellofx.utils.Database;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 
 public class ClientDAO {
 
@@ -16,17 +22,119 @@ public class ClientDAO {
         rs.getString("phone_number")
     );
 
+    private final ClientSearchIndex searchIndex = ClientSearchIndex.shared();
+    // the shared index is forgotten when the data source is swapped; registered when the first client goes
+    // in, since there is nothing to forget before it
+    private static final AtomicBoolean indexResetRegistered = new AtomicBoolean();
+
+    static void registerIndexReset() {
+        if (indexResetRegistered.compareAndSet(false, true)) {
+            Database.onDataSourceSwap(ClientSearchIndex.shared()::clear);
+        }
+    }
+
+    // the new client goes into the typeahead index too
     public void addClient(Client client) throws SQLException {
         String sql = "INSERT INTO clients (name, email, phone_number) VALUES (?, ?, ?)";
-        Database.jdbc().update(sql, client.name(), client.email(), client.phoneNumber());
+        KeyHolder kh = new GeneratedKeyHolder();
+        try {
+            Database.jdbc().update(con -> {
+                var ps = con.prepareStatement(sql, new String[] {"id"});
+                ps.setString(1, client.name());
+                ps.setString(2, client.email());
+                ps.setString(3, client.phoneNumber());
+                return ps;
+            }, kh);
+        } catch (DuplicateKeyException e) {
+            // the email is taken (unique index), reported with mysql's own error code
+            throw new SQLIntegrityConstraintViolationException("email already registered", "23000", 1062, e);
+        }
+        if (kh.getKey() != null) {
+            registerIndexReset();
+            searchIndex.add(new Client(kh.getKey().longValue(), client.name(), client.email(), client.phoneNumber()));
+        }
     }
 
     public List<Client> searchClients(String query) throws SQLException {
-        String sql = "SELECT * FROM clients WHERE LOWER(name) LIKE ? OR LOWER(email) LIKE ?";
+        String sql = "SELECT id, name, email, phone_number FROM clients WHERE LOWER(name) LIKE ? OR LOWER(email) LIKE ?";
         String pattern = "%" + query.toLowerCase() + "%";
         return Database.jdbc().query(sql, ps -> {
             ps.setString(1, pattern);
             ps.setString(2, pattern);
         }, mapper);
     }
+
+    // keyset paging over id: at most limit clients whose name or email contains the query, with ids above
+    // afterId (null for the first page). the scan walks the primary key and stops once it has limit rows,
+    // so a broad query like "a" is answered from the first few hundred rows instead of the whole table.
+    public List<Client> searchClientsPage(String query, Long afterId, int limit) {
+        String sql = """
+            SELECT id, name, email, phone_number
+            FROM clients
+            WHERE id > ? AND (LOWER(name) LIKE ? OR LOWER(email) LIKE ?)
+            ORDER BY id
+            LIMIT ?
+        """;
+        String pattern = "%" + query.trim().toLowerCase() + "%";
+        return Database.jdbc().query(sql, ps -> {
+            ps.setLong(1, afterId == null ? 0 : afterId);
+            ps.setString(2, pattern);
+            ps.setString(3, pattern);
+            ps.setInt(4, limit);
+        }, mapper);
+    }
+
+    // roughly how many clients searchClientsPage would page through, see MatchEstimate
+    public long estimateClientMatches(String query) {
+        return MatchEstimate.of("clients", "%" + query.trim().toLowerCase() + "%");
+    }
+
+    // typeahead lookup: the best limit clients whose name or email contains the query.
+    // answered from the in-memory index once it is loaded, before that from SQL in id order
+    public List<Client> suggestClients(String query, int limit) {
+        if (query == null || query.isBlank()) return List.of();
+        if (searchIndex.isLoaded()) return searchIndex.search(query, limit);
+        String sql = """
+            SELECT id, name, email, phone_number
+            FROM clients
+            WHERE LOWER(name) LIKE ? OR LOWER(email) LIKE ?
+            ORDER BY id
+            LIMIT ?
+        """;
+        String pattern = "%" + query.trim().toLowerCase() + "%";
+        return Database.jdbc().query(sql, ps -> {
+            ps.setString(1, pattern);
+            ps.setString(2, pattern);
+            ps.setInt(3, limit);
+        }, mapper);
+    }
+
+    // fills the typeahead index with every client; run once at startup, off the FX thread
+    public int loadSearchIndex() {
+        registerIndexReset();
+        searchIndex.load(() -> Database.jdbc().query(
+            "SELECT id, name, email, phone_number FROM clients ORDER BY id", mapper));
+        return searchIndex.size();
+    }
+
+    // resolves ids of clients whose name or email contains the query through the ngram full-text index.
+    // queries shorter than an ngram (2 chars) can't use the index and return null so callers can fall back to a scan.
+    public List<Long> findClientIdsMatching(String query, int limit) {
+        String q = query == null ? "" : query.trim().toLowerCase().replace("\"", "");
+        if (q.length() < 2) return null;
+        String sql = """
+            SELECT id
+            FROM clients
+            WHERE MATCH(name, email) AGAINST (? IN BOOLEAN MODE)
+              AND (LOWER(name) LIKE ? OR LOWER(email) LIKE ?)
+            LIMIT ?
+        """;
+        String pattern = "%" + q + "%";
+        return Database.jdbc().query(sql, ps -> {
+            ps.setString(1, "\"" + q + "\"");
+            ps.setString(2, pattern);
+            ps.setString(3, pattern);
+            ps.setInt(4, limit);
+        }, (rs, i) -> rs.getLong("id"));
+    }
 }
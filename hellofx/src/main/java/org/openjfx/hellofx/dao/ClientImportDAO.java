@@ -0,0 +1,325 @@
+package org.openjfx.hellofx.dao;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.ImportReport;
+import org.openjfx.hellofx.utils.ClientSearchIndex;
+import org.openjfx.hellofx.utils.Csv;
+import org.openjfx.hellofx.utils.Database;
+
+// bulk import of clients, each with an optional membership, from a CSV file, for onboarding another gym.
+// rows stream through parse -> validate -> dedup on email -> batched insert, CHUNK rows at a time, so memory
+// holds one chunk plus the emails seen so far. each chunk is one transaction of batched INSERTs that
+// connector/j rewrites into multi-row statements (rewriteBatchedStatements in the connection url).
+// rejected rows go to the rejects file with their line number and reason. when a chunk fails the earlier
+// chunks stay committed; importing the same file again rejects those rows as already registered.
+// the unique index on clients.email settles races with clients registered while the import runs.
+public class ClientImportDAO {
+
+    static final int CHUNK = 5000;
+
+    public static final List<String> COLUMNS = List.of(
+        "name", "email", "phone_number", "membership_type", "start_date", "expires_at", "price", "visits_remaining");
+    private static final int NAME = 0, EMAIL = 1, PHONE = 2, TYPE = 3, START = 4, EXPIRES = 5, PRICE = 6, VISITS = 7;
+
+    // mysql's duplicate-key error, raised by the unique index on clients.email
+    private static final int ER_DUP_ENTRY = 1062;
+
+    private static final String INSERT_CLIENT = "INSERT INTO clients (name, email, phone_number) VALUES (?, ?, ?)";
+
+    private static final String INSERT_MEMBERSHIP = """
+        INSERT INTO memberships (startDate, expiresAt, price, type, idOfHolder, visits_remaining, status)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    // a validated row, the membership without its holder until the client has an id.
+    // emailKey is the lower-cased email the deduplication compares
+    private record Row(long line, String[] fields, String name, String email, String emailKey, String phone,
+                       Membership membership) {}
+
+    // imports every data row of source (a header row naming the COLUMNS first, name, email and phone_number
+    // required, the membership columns optional). rejects (may be null) receives the rejected rows.
+    // progress receives the number of rows handled so far.
+    public ImportReport importCsv(Path source, Path rejects, LongConsumer progress) throws IOException, SQLException {
+        long started = System.currentTimeMillis();
+        long rows = 0, clients = 0, memberships = 0, rejected = 0;
+        try (Csv.Reader reader = new Csv.Reader(Files.newBufferedReader(source, StandardCharsets.UTF_8));
+             BufferedWriter rejectOut = rejects == null ? null : Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            String[] header = reader.next();
+            if (header == null) throw new IOException("empty import file");
+            int[] columns = mapColumns(header);
+            StringBuilder rejectBuf = new StringBuilder();
+            rejectBuf.append("line,reason");
+            for (String h : header) {
+                rejectBuf.append(',');
+                Csv.appendField(rejectBuf, h);
+            }
+            rejectBuf.append('\n');
+
+            LocalDate today = LocalDate.now();
+            Set<String> seen = new HashSet<>();
+            List<Row> chunk = new ArrayList<>(CHUNK);
+            try {
+                String[] record;
+                while ((record = reader.next()) != null) {
+                    rows++;
+                    String[] fields = pick(record, columns);
+                    String reason = validate(fields);
+                    Row row = null;
+                    if (reason == null) {
+                        row = toRow(reader.lineNumber(), record, fields);
+                        if (!seen.add(row.emailKey())) reason = "duplicate email in file";
+                    }
+                    if (reason != null) {
+                        rejected++;
+                        reject(rejectBuf, reader.lineNumber(), reason, record);
+                    } else {
+                        chunk.add(row);
+                    }
+                    if (chunk.size() == CHUNK) {
+                        long[] done = flush(chunk, today, rejectBuf);
+                        clients += done[0];
+                        memberships += done[1];
+                        rejected += chunk.size() - done[0];
+                        chunk.clear();
+                        progress.accept(rows);
+                    }
+                    if (rejectBuf.length() >= 64 * 1024) drain(rejectOut, rejectBuf);
+                }
+                if (!chunk.isEmpty()) {
+                    long[] done = flush(chunk, today, rejectBuf);
+                    clients += done[0];
+                    memberships += done[1];
+                    rejected += chunk.size() - done[0];
+                }
+            } finally {
+                // rows rejected before a failed chunk or an unreadable line still reach the rejects file
+                drain(rejectOut, rejectBuf);
+            }
+        }
+        progress.accept(rows);
+        return new ImportReport(rows, clients, memberships, rejected, System.currentTimeMillis() - started);
+    }
+
+    private static void drain(BufferedWriter out, StringBuilder buf) throws IOException {
+        if (out != null) out.append(buf);
+        buf.setLength(0);
+    }
+
+    // index of every COLUMNS entry in the header, -1 when the file doesn't have it
+    private int[] mapColumns(String[] header) throws IOException {
+        Map<String, Integer> byName = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            byName.putIfAbsent(header[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        int[] columns = new int[COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = byName.getOrDefault(COLUMNS.get(i), -1);
+        }
+        for (int required : new int[] {NAME, EMAIL, PHONE}) {
+            if (columns[required] < 0) throw new IOException("import file has no " + COLUMNS.get(required) + " column");
+        }
+        return columns;
+    }
+
+    // the record's fields in COLUMNS order, trimmed, "" for missing ones
+    private static String[] pick(String[] record, int[] columns) {
+        String[] fields = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            int c = columns[i];
+            fields[i] = c >= 0 && c < record.length ? record[c].trim() : "";
+        }
+        return fields;
+    }
+
+    // null when the row can be imported, the reason otherwise
+    private static String validate(String[] f) {
+        if (f[NAME].isEmpty()) return "missing name";
+        if (f[NAME].length() > 100) return "name longer than 100 characters";
+        if (f[EMAIL].isEmpty()) return "missing email";
+        if (f[EMAIL].length() > 100) return "email longer than 100 characters";
+        int at = f[EMAIL].indexOf('@');
+        if (at <= 0 || at == f[EMAIL].length() - 1 || f[EMAIL].indexOf(' ') >= 0) return "invalid email";
+        if (f[PHONE].isEmpty()) return "missing phone number";
+        if (f[PHONE].length() > 20) return "phone number longer than 20 characters";
+
+        boolean anyMembership = !f[TYPE].isEmpty() || !f[START].isEmpty() || !f[EXPIRES].isEmpty()
+            || !f[PRICE].isEmpty() || !f[VISITS].isEmpty();
+        if (!anyMembership) return null;
+        if (type(f[TYPE]) == null) return "unknown membership type";
+        LocalDate start, expires;
+        try {
+            if (f[START].isEmpty()) return "missing start date";
+            start = LocalDate.parse(f[START]);
+            expires = f[EXPIRES].isEmpty() ? null : LocalDate.parse(f[EXPIRES]);
+        } catch (DateTimeParseException e) {
+            return "invalid date (expected yyyy-mm-dd)";
+        }
+        if (expires != null && expires.isBefore(start)) return "membership expires before it starts";
+        try {
+            if (f[PRICE].isEmpty()) return "missing price";
+            double price = Double.parseDouble(f[PRICE]);
+            if (!(price >= 0) || Double.isInfinite(price)) return "invalid price";
+            if (!f[VISITS].isEmpty() && Integer.parseInt(f[VISITS]) < 0) return "invalid visits_remaining";
+        } catch (NumberFormatException e) {
+            return "invalid number";
+        }
+        return null;
+    }
+
+    private static Membership.MembershipType type(String name) {
+        for (Membership.MembershipType t : Membership.MembershipType.values()) {
+            if (t.name().equalsIgnoreCase(name)) return t;
+        }
+        return null;
+    }
+
+    private static Row toRow(long line, String[] record, String[] f) {
+        Membership membership = null;
+        Membership.MembershipType type = type(f[TYPE]);
+        if (type != null) {
+            LocalDate start = LocalDate.parse(f[START]);
+            LocalDate expires = f[EXPIRES].isEmpty() ? type.expiryFor(start) : LocalDate.parse(f[EXPIRES]);
+            int visits = type != Membership.MembershipType.Ten ? 0
+                : f[VISITS].isEmpty() ? type.includedVisits() : Integer.parseInt(f[VISITS]);
+            membership = new Membership(null, start, expires, Double.parseDouble(f[PRICE]), type, null, visits);
+        }
+        return new Row(line, record, f[NAME], f[EMAIL], f[EMAIL].toLowerCase(Locale.ROOT), f[PHONE], membership);
+    }
+
+    private static void reject(StringBuilder buf, long line, String reason, String[] record) {
+        buf.append(line).append(',');
+        Csv.appendField(buf, reason);
+        for (String field : record) {
+            buf.append(',');
+            Csv.appendField(buf, field);
+        }
+        buf.append('\n');
+    }
+
+    // inserts the chunk's new clients and their memberships in one transaction; rows whose email is
+    // already registered are rejected. returns {clients inserted, memberships inserted}
+    private long[] flush(List<Row> chunk, LocalDate today, StringBuilder rejectBuf) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            Set<String> registered = registeredEmails(chunk);
+            List<Row> fresh = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                if (!registered.contains(row.emailKey())) fresh.add(row);
+            }
+            long[] done;
+            try {
+                done = fresh.isEmpty() ? new long[] {0, 0} : insert(fresh, today);
+            } catch (SQLException e) {
+                // someone registered one of the emails between the lookup and the insert and the unique index
+                // refused it: look again and retry once. a second clash fails the chunk like any other error
+                if (e.getErrorCode() != ER_DUP_ENTRY || attempt > 1) throw e;
+                continue;
+            }
+            for (Row row : chunk) {
+                if (registered.contains(row.emailKey())) {
+                    reject(rejectBuf, row.line(), "email already registered", row.fields());
+                }
+            }
+            return done;
+        }
+    }
+
+    private long[] insert(List<Row> fresh, LocalDate today) throws SQLException {
+        List<Membership> sold = new ArrayList<>();
+        List<Client> added = new ArrayList<>(fresh.size());
+        try (Connection conn = Database.getDataSource().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement(INSERT_CLIENT, Statement.RETURN_GENERATED_KEYS)) {
+                    for (Row row : fresh) {
+                        ps.setString(1, row.name());
+                        ps.setString(2, row.email());
+                        ps.setString(3, row.phone());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    // keys come back in batch order
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (Row row : fresh) {
+                            if (!keys.next()) throw new SQLException("missing generated key for line " + row.line());
+                            added.add(new Client(keys.getLong(1), row.name(), row.email(), row.phone()));
+                            Membership m = row.membership();
+                            if (m != null) {
+                                sold.add(new Membership(null, m.startDate(), m.expiresAt(), m.price(), m.type(),
+                                    keys.getLong(1), m.visitsRemaining()));
+                            }
+                        }
+                    }
+                }
+                if (!sold.isEmpty()) {
+                    // rollups first, the order the revenue rebuild locks in
+                    DaoFactory.revenueRollups().addSales(conn, sold, new int[sold.size()]);
+                    try (PreparedStatement ps = conn.prepareStatement(INSERT_MEMBERSHIP)) {
+                        for (Membership m : sold) {
+                            ps.setDate(1, java.sql.Date.valueOf(m.startDate()));
+                            ps.setDate(2, java.sql.Date.valueOf(m.expiresAt()));
+                            ps.setDouble(3, m.price());
+                            ps.setString(4, m.type().name());
+                            ps.setLong(5, m.idOfHolder());
+                            if (m.type() == Membership.MembershipType.Ten) {
+                                ps.setInt(6, m.visitsRemaining());
+                            } else {
+                                ps.setNull(6, Types.INTEGER);
+                            }
+                            ps.setString(7, m.statusOn(today).name());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        ClientDAO.registerIndexReset();
+        ClientSearchIndex.shared().addAll(added);
+        // new clients have no cached status, so the status cache needs no invalidation
+        return new long[] {fresh.size(), sold.size()};
+    }
+
+    // the chunk's emails that some client already has, lower-cased. the column's collation is case-insensitive
+    private Set<String> registeredEmails(List<Row> chunk) {
+        Set<String> registered = new HashSet<>();
+        String sql = "SELECT email FROM clients WHERE email IN (%s)"
+            .formatted(String.join(", ", Collections.nCopies(chunk.size(), "?")));
+        Database.jdbc().query(sql, ps -> {
+            int i = 1;
+            for (Row row : chunk) {
+                ps.setString(i++, row.email());
+            }
+        }, rs -> {
+            registered.add(rs.getString("email").toLowerCase(Locale.ROOT));
+        });
+        return registered;
+    }
+}
@@ -2,26 +2,18 @@ package org.openjfx.hellofx.dao;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import org.openjfx.hellofx.entities.Coach;
 import org.openjfx.hellofx.entities.Specialization;
 import org.openjfx.hellofx.utils.Database;
-import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 
 public class CoachDAO {
 
-    private final RowMapper<Coach> mapper = (rs, i) -> new Coach(
-        rs.getLong("id"),
-        rs.getString("name"),
-        rs.getString("email"),
-        rs.getString("phone_number"),
-        null
-    );
-
     public Long addCoach(Coach coach) throws SQLException {
         String sql = "INSERT INTO coaches (name, email, phone_number) VALUES (?, ?, ?)";
         KeyHolder kh = new GeneratedKeyHolder();
@@ -38,27 +30,56 @@ public class CoachDAO {
         return null;
     }
 
-     private List<Coach> attachSpecializations(List<Coach> coaches) throws SQLException {
-        if (coaches == null || coaches.isEmpty()) return coaches;
-        var specDao = DaoFactory.specializations();
-        return coaches.stream().map(c -> {
-            try {
-                Set<Specialization> specs = specDao.getSpecializationsForCoach(c.id());
-                return new Coach(c.id(), c.name(), c.email(), c.phoneNumber(), specs);
-            } catch (SQLException e) {
-                return c;
-            }
-        }).toList();
+    public List<Coach> searchCoaches(String query) throws SQLException {
+        return searchCoachesPage(query, null, Integer.MAX_VALUE);
     }
 
-    public List<Coach> searchCoaches(String query) throws SQLException {
-        String sql = "SELECT * FROM coaches WHERE LOWER(name) LIKE ? OR LOWER(email) LIKE ?";
-        String pattern = "%" + query.toLowerCase() + "%";
-        List<Coach> base = Database.jdbc().query(sql, ps -> {
-            ps.setString(1, pattern);
+    // keyset paging over id: at most limit coaches with ids above afterId (null for the first page), with
+    // their specializations, in one statement. the page of coaches is cut in a derived table first, so the
+    // limit counts coaches rather than coach-specialization rows; a coach appears once per specialization
+    // (once with NULLs when it has none), and rows of one coach arrive together thanks to the ORDER BY
+    public List<Coach> searchCoachesPage(String query, Long afterId, int limit) throws SQLException {
+        String sql = """
+            SELECT c.id, c.name, c.email, c.phone_number, s.id AS spec_id, s.name AS spec_name
+            FROM (
+                SELECT id, name, email, phone_number
+                FROM coaches
+                WHERE id > ? AND (LOWER(name) LIKE ? OR LOWER(email) LIKE ?)
+                ORDER BY id
+                LIMIT ?
+            ) c
+            LEFT JOIN coach_specializations cs ON cs.coach_id = c.id
+            LEFT JOIN specializations s ON s.id = cs.specialization_id
+            ORDER BY c.id
+        """;
+        String pattern = "%" + query.trim().toLowerCase() + "%";
+        return Database.jdbc().query(sql, ps -> {
+            ps.setLong(1, afterId == null ? 0 : afterId);
             ps.setString(2, pattern);
-        }, mapper);
-        return attachSpecializations(base);
+            ps.setString(3, pattern);
+            ps.setInt(4, limit);
+        }, rs -> {
+            List<Coach> coaches = new ArrayList<>();
+            Coach current = null;
+            while (rs.next()) {
+                long id = rs.getLong("id");
+                if (current == null || current.id() != id) {
+                    current = new Coach(id, rs.getString("name"), rs.getString("email"),
+                        rs.getString("phone_number"), new HashSet<>());
+                    coaches.add(current);
+                }
+                long specId = rs.getLong("spec_id");
+                if (!rs.wasNull()) {
+                    current.specializations().add(new Specialization(specId, rs.getString("spec_name")));
+                }
+            }
+            return coaches;
+        });
+    }
+
+    // roughly how many coaches searchCoachesPage would page through, see MatchEstimate
+    public long estimateCoachMatches(String query) {
+        return MatchEstimate.of("coaches", "%" + query.trim().toLowerCase() + "%");
     }
 
     // keep user entity linked to the coach entity
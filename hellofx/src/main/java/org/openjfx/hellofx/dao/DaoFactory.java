@@ -4,12 +4,18 @@ package org.openjfx.hellofx.dao;
 public final class DaoFactory {
     private static final UserDAO USER_DAO = new UserDAO();
     private static final ClientDAO CLIENT_DAO = new ClientDAO();
+    private static final ClientImportDAO CLIENT_IMPORT_DAO = new ClientImportDAO();
     private static final CoachDAO COACH_DAO = new CoachDAO();
     private static final MembershipDAO MEMBERSHIP_DAO = new MembershipDAO();
+    private static final MembershipRenewalDAO MEMBERSHIP_RENEWAL_DAO = new MembershipRenewalDAO();
     private static final VisitDAO VISIT_DAO = new VisitDAO();
+    private static final VisitStatsDAO VISIT_STATS_DAO = new VisitStatsDAO();
+    private static final VisitPartitionDAO VISIT_PARTITION_DAO = new VisitPartitionDAO();
+    private static final VisitArchiveDAO VISIT_ARCHIVE_DAO = new VisitArchiveDAO();
     private static final TimetableDAO TIMETABLE_DAO = new TimetableDAO();
     private static final CoachAvailabilityDAO COACH_AVAILABILITY_DAO = new CoachAvailabilityDAO();
     private static final DiscountRuleDAO DISCOUNT_RULE_DAO = new DiscountRuleDAO();
+    private static final RevenueRollupDAO REVENUE_ROLLUP_DAO = new RevenueRollupDAO();
     private static final SpecializationDAO SPECIALIZATION_DAO = new SpecializationDAO();
 
     private DaoFactory() {
@@ -17,11 +23,17 @@ public final class DaoFactory {
 
     public static UserDAO users() { return USER_DAO; }
     public static ClientDAO clients() { return CLIENT_DAO; }
+    public static ClientImportDAO clientImport() { return CLIENT_IMPORT_DAO; }
     public static CoachDAO coaches() { return COACH_DAO; }
     public static MembershipDAO memberships() { return MEMBERSHIP_DAO; }
+    public static MembershipRenewalDAO membershipRenewals() { return MEMBERSHIP_RENEWAL_DAO; }
     public static VisitDAO visits() { return VISIT_DAO; }
+    public static VisitStatsDAO visitStats() { return VISIT_STATS_DAO; }
+    public static VisitPartitionDAO visitPartitions() { return VISIT_PARTITION_DAO; }
+    public static VisitArchiveDAO visitArchive() { return VISIT_ARCHIVE_DAO; }
     public static TimetableDAO timetable() { return TIMETABLE_DAO; }
     public static CoachAvailabilityDAO coachAvailability() { return COACH_AVAILABILITY_DAO; }
     public static DiscountRuleDAO discountRules() { return DISCOUNT_RULE_DAO; }
+    public static RevenueRollupDAO revenueRollups() { return REVENUE_ROLLUP_DAO; }
     public static SpecializationDAO specializations() { return SPECIALIZATION_DAO; }
 }
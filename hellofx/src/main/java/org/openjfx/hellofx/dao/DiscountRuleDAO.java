@@ -1,12 +1,29 @@
 package org.openjfx.hellofx.dao;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.openjfx.hellofx.entities.DiscountRule;
+import org.openjfx.hellofx.model.DiscountRuleSet;
+import org.openjfx.hellofx.model.DiscountTiers;
 import org.openjfx.hellofx.utils.Database;
 import org.springframework.jdbc.core.RowMapper;
 
+// discount rules are saved as immutable rule sets. the single discount_active_rule_set row names the set
+// sales use, and switching sets is one update of that row, so nobody ever sees a half-saved rule set.
+// a rule set can be scheduled: it takes over on the first lookup at or after its activation time.
 public class DiscountRuleDAO {
 
     private final RowMapper<DiscountRule> mapper = (rs, rowNum) -> new DiscountRule(
@@ -15,38 +32,266 @@ public class DiscountRuleDAO {
         rs.getInt("discount_percent")
     );
 
+    private final RowMapper<DiscountRuleSet> setMapper = (rs, rowNum) -> new DiscountRuleSet(
+        rs.getLong("id"),
+        rs.getTimestamp("created_at").toLocalDateTime(),
+        rs.getTimestamp("activates_at").toLocalDateTime(),
+        rs.getBoolean("active")
+    );
+
+    // the tiers of the active rule set, when the next scheduled rule set is due (Long.MAX_VALUE for never),
+    // the newest rule set id at load time, and when the snapshot was last compared with the database
+    private record Snapshot(DiscountTiers tiers, long refreshAtMillis, long latestRuleSetId, long checkedAtMillis) {
+
+        Snapshot checkedAt(long millis) {
+            return new Snapshot(tiers, refreshAtMillis, latestRuleSetId, millis);
+        }
+    }
+
+    // other desktop clients save rules too: a snapshot older than this is compared with the active row's
+    // version and the newest rule set id before it is used again
+    static final long RECHECK_MILLIS = 2_000;
+
+    // sales read the rules from memory. loaded on first use, swapped as a whole after a save, when a
+    // scheduled rule set comes due, or when a recheck finds a save from another client.
+    // shared by all instances, like the table itself.
+    private static final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private static final Object switchLock = new Object();
+    // the snapshot is forgotten when the data source is swapped; registered with the first load,
+    // since there is nothing to forget before it
+    private static final AtomicBoolean resetRegistered = new AtomicBoolean();
+
+    // rules of the active rule set, by ascending threshold
     public List<DiscountRule> findAllOrdered() {
-        return Database.jdbc().query(
-            "SELECT id, visits_threshold, discount_percent FROM discount_rules ORDER BY visits_threshold ASC",
-            mapper
-        );
-    }
-
-    public void replaceAll(List<DiscountRule> rules) {
-        Database.jdbc().update("TRUNCATE TABLE discount_rules");
-        if (rules.isEmpty()) {
-            return;
-        }
-        Database.jdbc().batchUpdate(
-            "INSERT INTO discount_rules (visits_threshold, discount_percent) VALUES (?, ?)",
-            rules,
-            rules.size(),
-            (ps, rule) -> {
-                ps.setInt(1, rule.visitsThreshold());
-                ps.setInt(2, rule.discountPercent());
+        return tiers().rules();
+    }
+
+    // saves the rules as a new rule set and makes it the active one
+    public long replaceAll(List<DiscountRule> rules) throws SQLException {
+        return createRuleSet(rules, null);
+    }
+
+    // saves the rules as a new rule set that takes effect at activatesAt (null for now).
+    // the rules and, for an immediate set, the switch commit together.
+    public long createRuleSet(List<DiscountRule> rules, LocalDateTime activatesAt) throws SQLException {
+        synchronized (switchLock) {
+            return insertRuleSet(rules, activatesAt);
+        }
+    }
+
+    private long insertRuleSet(List<DiscountRule> rules, LocalDateTime activatesAt) throws SQLException {
+        // activates_at is a whole-second DATETIME: a fractional now could round up on insert and then
+        // fail the activates_at <= now check of the activation below
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        boolean immediate = activatesAt == null || !activatesAt.isAfter(now);
+        long ruleSetId;
+        try (Connection conn = Database.getDataSource().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO discount_rule_sets (activates_at) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+                    ps.setTimestamp(1, Timestamp.valueOf(immediate ? now : activatesAt));
+                    ps.executeUpdate();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        keys.next();
+                        ruleSetId = keys.getLong(1);
+                    }
+                }
+                try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO discount_rules (rule_set_id, visits_threshold, discount_percent) VALUES (?, ?, ?)")) {
+                    for (DiscountRule rule : rules) {
+                        ps.setLong(1, ruleSetId);
+                        ps.setInt(2, rule.visitsThreshold());
+                        ps.setInt(3, rule.discountPercent());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                if (immediate) {
+                    activateDue(conn, now);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
-        );
+        }
+        // dropped before the reload, so a failed reload leaves every instance to load afresh instead of
+        // serving the rules from before the save
+        snapshot.set(null);
+        reloadTiers();
+        return ruleSetId;
+    }
+
+    // current snapshot of the rules; readers keep using the one they got while a save swaps in the next.
+    // between switches this is one volatile read and a clock read, plus a primary key lookup every
+    // RECHECK_MILLIS.
+    public DiscountTiers tiers() {
+        Snapshot current = snapshot.get();
+        long now = System.currentTimeMillis();
+        if (current == null || now >= current.refreshAtMillis()) {
+            current = refresh();
+        } else if (now - current.checkedAtMillis() >= RECHECK_MILLIS) {
+            current = recheck(current, now);
+        }
+        return current.tiers();
+    }
+
+    // rereads the rules, for when the tables were changed outside this DAO
+    public DiscountTiers reloadTiers() {
+        return load().tiers();
+    }
+
+    // forgets the loaded rules, for when the database itself was swapped
+    public static void resetTiers() {
+        snapshot.set(null);
     }
 
     // get highest avaliable discount for visit count
     public Optional<DiscountRule> bestRuleForVisits(int visitCount) {
-        List<DiscountRule> match = Database.jdbc().query(
-            "SELECT id, visits_threshold, discount_percent FROM discount_rules " +
-                "WHERE visits_threshold <= ? ORDER BY visits_threshold DESC LIMIT 1",
-            ps -> ps.setInt(1, visitCount),
-            mapper
-        );
-        return match.stream().findFirst();
+        return tiers().ruleFor(visitCount);
     }
 
+    // every saved rule set, newest first
+    public List<DiscountRuleSet> findRuleSets() {
+        return Database.jdbc().query("""
+            SELECT s.id, s.created_at, s.activates_at, s.id = a.rule_set_id AS active
+            FROM discount_rule_sets s
+            JOIN discount_active_rule_set a ON a.id = 1
+            ORDER BY s.id DESC
+        """, setMapper);
+    }
+
+    public List<DiscountRule> findRules(long ruleSetId) {
+        return Database.jdbc().query(
+            "SELECT id, visits_threshold, discount_percent FROM discount_rules WHERE rule_set_id = ? ORDER BY visits_threshold",
+            mapper, ruleSetId);
+    }
+
+    // the rule set whose rule priced the membership, empty when it was sold without a discount
+    public Optional<DiscountRuleSet> findRuleSetForMembership(long membershipId) {
+        return Database.jdbc().query("""
+            SELECT s.id, s.created_at, s.activates_at, s.id = a.rule_set_id AS active
+            FROM memberships m
+            JOIN discount_rules r ON r.id = m.discount_rule_id
+            JOIN discount_rule_sets s ON s.id = r.rule_set_id
+            JOIN discount_active_rule_set a ON a.id = 1
+            WHERE m.id = ?
+        """, setMapper, membershipId).stream().findFirst();
+    }
+
+    // a switch made elsewhere bumps the active row's version, a rule set scheduled elsewhere raises the
+    // newest id. either one means a reload; otherwise the snapshot is good for another RECHECK_MILLIS
+    private Snapshot recheck(Snapshot current, long now) {
+        long[] db = Database.jdbc().queryForObject("""
+            SELECT a.version, (SELECT MAX(id) FROM discount_rule_sets) AS latest
+            FROM discount_active_rule_set a
+            WHERE a.id = 1
+        """, (rs, i) -> new long[] {rs.getLong("version"), rs.getLong("latest")});
+        if (db[0] == current.tiers().version() && db[1] == current.latestRuleSetId()) {
+            Snapshot checked = current.checkedAt(now);
+            snapshot.compareAndSet(current, checked);
+            return checked;
+        }
+        synchronized (switchLock) {
+            return load();
+        }
+    }
+
+    // one caller at a time switches and reloads, the others wait and take its snapshot
+    private Snapshot refresh() {
+        synchronized (switchLock) {
+            Snapshot current = snapshot.get();
+            if (current != null && System.currentTimeMillis() < current.refreshAtMillis()) {
+                return current;
+            }
+            try (Connection conn = Database.getDataSource().getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    activateDue(conn, LocalDateTime.now());
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to activate scheduled discount rules", e);
+            }
+            return load();
+        }
+    }
+
+    // points the active row at the latest rule set that is due, if that is a newer one than the active set.
+    // the active row is locked first, so concurrent switches queue up behind each other.
+    private void activateDue(Connection conn, LocalDateTime now) throws SQLException {
+        long activeId;
+        Timestamp activeSince;
+        try (PreparedStatement ps = conn.prepareStatement("""
+            SELECT s.id, s.activates_at
+            FROM discount_active_rule_set a
+            JOIN discount_rule_sets s ON s.id = a.rule_set_id
+            WHERE a.id = 1
+            FOR UPDATE
+        """); ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) throw new SQLException("discount_active_rule_set has no row");
+            activeId = rs.getLong("id");
+            activeSince = rs.getTimestamp("activates_at");
+        }
+        try (PreparedStatement ps = conn.prepareStatement("""
+            SELECT id, activates_at
+            FROM discount_rule_sets
+            WHERE activates_at <= ? AND (activates_at, id) > (?, ?)
+            ORDER BY activates_at DESC, id DESC
+            LIMIT 1
+        """)) {
+            ps.setTimestamp(1, Timestamp.valueOf(now));
+            ps.setTimestamp(2, activeSince);
+            ps.setLong(3, activeId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return;
+                try (PreparedStatement up = conn.prepareStatement(
+                    "UPDATE discount_active_rule_set SET rule_set_id = ?, version = version + 1, activated_at = ? WHERE id = 1")) {
+                    up.setLong(1, rs.getLong("id"));
+                    up.setTimestamp(2, rs.getTimestamp("activates_at"));
+                    up.executeUpdate();
+                }
+            }
+        }
+    }
+
+    // the active rule set's rules, the next activation and the newest id come from one statement, so they match
+    private Snapshot load() {
+        if (resetRegistered.compareAndSet(false, true)) {
+            Database.onDataSourceSwap(DiscountRuleDAO::resetTiers);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long[] version = {0};
+        long[] latest = {0};
+        Timestamp[] next = {null};
+        List<DiscountRule> rules = new ArrayList<>();
+        Database.jdbc().query("""
+            SELECT a.version, r.id, r.visits_threshold, r.discount_percent,
+                   (SELECT MIN(s.activates_at) FROM discount_rule_sets s WHERE s.activates_at > ?) AS next_activation,
+                   (SELECT MAX(s.id) FROM discount_rule_sets s) AS latest_rule_set
+            FROM discount_active_rule_set a
+            LEFT JOIN discount_rules r ON r.rule_set_id = a.rule_set_id
+            WHERE a.id = 1
+            ORDER BY r.visits_threshold
+        """, ps -> ps.setTimestamp(1, now), rs -> {
+            version[0] = rs.getLong("version");
+            next[0] = rs.getTimestamp("next_activation");
+            latest[0] = rs.getLong("latest_rule_set");
+            if (rs.getObject("id") != null) {
+                rules.add(mapper.mapRow(rs, rules.size()));
+            }
+        });
+        long refreshAt = next[0] == null
+            ? Long.MAX_VALUE
+            : next[0].toLocalDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Snapshot loaded = new Snapshot(DiscountTiers.of(version[0], rules), refreshAt, latest[0],
+            System.currentTimeMillis());
+        // a slower reload must not replace a newer snapshot
+        return snapshot.accumulateAndGet(loaded, (cur, fresh) ->
+            cur != null && cur.tiers().version() > fresh.tiers().version() ? cur : fresh);
+    }
 }
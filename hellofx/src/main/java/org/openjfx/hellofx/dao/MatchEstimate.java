@@ -0,0 +1,34 @@
+package org.openjfx.hellofx.dao;
+
+import java.util.Map;
+
+import org.openjfx.hellofx.utils.Database;
+
+// approximate number of rows whose name or email contains a pattern, for "about N results" labels.
+// an exact COUNT(*) with a leading-wildcard LIKE reads the whole table; instead the newest SAMPLE rows
+// are matched and the share is scaled to the id range, which reads at most SAMPLE rows of the primary key.
+// small tables fit in the sample and get an exact count.
+final class MatchEstimate {
+
+    static final int SAMPLE = 10_000;
+
+    private MatchEstimate() {}
+
+    // table is one of our own table names, never user input
+    static long of(String table, String pattern) {
+        Map<String, Object> row = Database.jdbc().queryForMap("""
+            SELECT COUNT(*) AS sampled,
+                   COALESCE(SUM(LOWER(name) LIKE ? OR LOWER(email) LIKE ?), 0) AS matched,
+                   MIN(id) AS lowest
+            FROM (SELECT id, name, email FROM %s ORDER BY id DESC LIMIT %d) sample
+        """.formatted(table, SAMPLE), pattern, pattern);
+        long sampled = ((Number) row.get("sampled")).longValue();
+        long matched = ((Number) row.get("matched")).longValue();
+        if (sampled < SAMPLE || matched == 0) return matched;
+        // ids may have gaps from deletes, so the id range only approximates the row count
+        Long first = Database.jdbc().queryForObject("SELECT MIN(id) FROM " + table, Long.class);
+        long lowest = ((Number) row.get("lowest")).longValue();
+        long older = first == null ? 0 : Math.max(0, lowest - first);
+        return matched + Math.round((double) matched / sampled * older);
+    }
+}
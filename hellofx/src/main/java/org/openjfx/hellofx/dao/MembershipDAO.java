@@ -1,119 +1,262 @@
 package org.openjfx.hellofx.dao;
 
-import java.sql.ResultSet;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.openjfx.hellofx.entities.DiscountRule;
 import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.MembershipStatus;
+import org.openjfx.hellofx.model.MembershipTimelineEntry;
 import org.openjfx.hellofx.utils.Database;
+import org.openjfx.hellofx.utils.MembershipStatusCache;
 
 public class MembershipDAO {
 
+    private static final int SWEEP_CHUNK = 5000;
+
+    // status of a membership on the day bound to both parameters, Membership.statusOn in SQL
+    private static final String STATUS_ON_DAY = """
+        CASE
+            WHEN expiresAt < ? THEN 'EXPIRED'
+            WHEN type = 'Ten' AND visits_remaining <= 0 THEN 'EXHAUSTED'
+            WHEN startDate > ? THEN 'PENDING'
+            ELSE 'ACTIVE'
+        END""";
+
+    private final MembershipStatusCache statusCache = MembershipStatusCache.shared();
+    // the shared status cache is forgotten when the data source is swapped; registered with the first load,
+    // since there is nothing to forget before it
+    private static final AtomicBoolean cacheResetRegistered = new AtomicBoolean();
+
+    // visits no longer cascade from memberships (the partitioned visits table has no foreign keys),
+    // so the holder's visits are removed in the same transaction as the memberships, and so is their revenue
     public int removeByHolderId(long holderId) throws SQLException {
-        String sql = "DELETE FROM memberships WHERE idOfHolder = ?";
-        return Database.jdbc().update(sql, holderId);
+        int removed;
+        try (var conn = Database.getDataSource().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (var ps = conn.prepareStatement(
+                    "DELETE v FROM visits v JOIN memberships m ON m.id = v.membership_id WHERE m.idOfHolder = ?")) {
+                    ps.setLong(1, holderId);
+                    ps.executeUpdate();
+                }
+                DaoFactory.revenueRollups().removeHolder(conn, holderId);
+                try (var ps = conn.prepareStatement("DELETE FROM memberships WHERE idOfHolder = ?")) {
+                    ps.setLong(1, holderId);
+                    removed = ps.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        statusCache.invalidate(holderId);
+        // the client's visit counter has to be recounted after the visits are gone
+        DaoFactory.visitStats().repairClient(holderId);
+        return removed;
     }
 
     public void addMembership(Membership membership) throws SQLException {
-        String sql = "INSERT INTO memberships (startDate, expiresAt, price, type, idOfHolder, visits_remaining) VALUES (?, ?, ?, ?, ?, ?)";
+        addMembership(membership, null);
+    }
 
-        Database.jdbc().update(sql, ps -> {
-            if (membership.startDate() != null) {
-                ps.setDate(1, java.sql.Date.valueOf(membership.startDate()));
-            } else {
-                ps.setNull(1, Types.DATE);
-            }
+    // the price is already discounted by the caller, the rule is recorded for the audit trail (null for none).
+    // the sale goes into the revenue rollups in the same transaction.
+    public void addMembership(Membership membership, DiscountRule discount) throws SQLException {
+        String sql = "INSERT INTO memberships (startDate, expiresAt, price, type, idOfHolder, visits_remaining, status, "
+            + "discount_percent_applied, discount_threshold_used, discount_rule_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
-            if (membership.expiresAt() != null) {
-                ps.setDate(2, java.sql.Date.valueOf(membership.expiresAt()));
-            } else {
-                ps.setNull(2, Types.DATE);
+        try (var conn = Database.getDataSource().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                DaoFactory.revenueRollups().addSale(conn, membership, discount != null ? discount.discountPercent() : 0);
+                try (var ps = conn.prepareStatement(sql)) {
+                    bindMembership(ps, membership, discount);
+                    ps.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
+        }
+        if (membership.idOfHolder() != null) {
+            statusCache.invalidate(membership.idOfHolder());
+        }
+    }
 
-            ps.setDouble(3, membership.price());
-            ps.setString(4, membership.type().name());
-            if (membership.idOfHolder() != null) {
-                ps.setLong(5, membership.idOfHolder());
-            } else {
-                ps.setNull(5, Types.BIGINT);
-            }
+    private void bindMembership(PreparedStatement ps, Membership membership, DiscountRule discount) throws SQLException {
+        if (membership.startDate() != null) {
+            ps.setDate(1, java.sql.Date.valueOf(membership.startDate()));
+        } else {
+            ps.setNull(1, Types.DATE);
+        }
 
-            if (membership.type() == Membership.MembershipType.Ten) {
-                ps.setInt(6, membership.visitsRemaining());
-            } else {
-                ps.setNull(6, Types.INTEGER);
-            }
-        });
+        if (membership.expiresAt() != null) {
+            ps.setDate(2, java.sql.Date.valueOf(membership.expiresAt()));
+        } else {
+            ps.setNull(2, Types.DATE);
+        }
+
+        ps.setDouble(3, membership.price());
+        ps.setString(4, membership.type().name());
+        if (membership.idOfHolder() != null) {
+            ps.setLong(5, membership.idOfHolder());
+        } else {
+            ps.setNull(5, Types.BIGINT);
+        }
+
+        if (membership.type() == Membership.MembershipType.Ten) {
+            ps.setInt(6, membership.visitsRemaining());
+        } else {
+            ps.setNull(6, Types.INTEGER);
+        }
+        ps.setString(7, membership.statusOn(LocalDate.now()).name());
+        if (discount != null) {
+            ps.setInt(8, discount.discountPercent());
+            ps.setInt(9, discount.visitsThreshold());
+            ps.setLong(10, discount.id());
+        } else {
+            ps.setInt(8, 0);
+            ps.setNull(9, Types.INTEGER);
+            ps.setNull(10, Types.INTEGER);
+        }
     }
 
     public String getCurrentMembershipType(Long clientId) throws SQLException {
         if (clientId == null) return null;
-        String sql = """
-            SELECT type, expiresAt, visits_remaining
-            FROM memberships
-            WHERE idOfHolder = ?
-              AND (expiresAt IS NULL OR expiresAt >= ?)
-              AND (type <> 'Ten' OR visits_remaining IS NULL OR visits_remaining > 0)
-              AND startDate <= ?
-            ORDER BY startDate DESC
-            LIMIT 1
-        """;
-
-        java.sql.Date today = java.sql.Date.valueOf(java.time.LocalDate.now());
-
-        List<String> res = Database.jdbc().query(sql, ps -> {
-            ps.setLong(1, clientId);
-            ps.setDate(2, today);
-            ps.setDate(3, today);
-        }, (rs, i) -> rs.getString("type"));
-        return res.isEmpty() ? null : res.get(0);
+        return getStatus(clientId).type();
     }
 
     public Integer getRemainingVisits(Long clientId) throws SQLException {
         if (clientId == null) return null;
-        String sql = """
-            SELECT visits_remaining
-            FROM memberships
-            WHERE idOfHolder = ?
-              AND (expiresAt IS NULL OR expiresAt >= ?)
-              AND (type <> 'Ten' OR visits_remaining IS NULL OR visits_remaining > 0)
-              AND startDate <= ?
-            ORDER BY startDate DESC
-            LIMIT 1
-        """;
-
-        java.sql.Date today = java.sql.Date.valueOf(java.time.LocalDate.now());
-
-        List<Integer> res = Database.jdbc().query(sql, ps -> {
-                ps.setLong(1, clientId);
-                ps.setDate(2, today);
-                ps.setDate(3, today);
-            },
-            (ResultSet rs, int rowNum) -> rs.getObject("visits_remaining", Integer.class));
-        return res.isEmpty() ? null : res.get(0);
+        return getStatus(clientId).visitsRemaining();
     }
 
     public boolean hasActiveMembership(Long clientId) throws SQLException {
         if (clientId == null) return false;
+        return getStatus(clientId).active();
+    }
+
+    public MembershipStatus getStatus(Long clientId) throws SQLException {
+        return getStatusForClients(List.of(clientId)).get(clientId);
+    }
+
+    // getCurrentMembershipType, getRemainingVisits and hasActiveMembership for many clients in one query.
+    // the current membership is the newest ACTIVE one per holder, and a holder with one is active.
+    // every requested id is in the result, NONE when nothing matched.
+    // statuses come from the shared status cache where possible; only the misses are queried.
+    public Map<Long, MembershipStatus> getStatusForClients(Collection<Long> clientIds) throws SQLException {
+        Map<Long, MembershipStatus> result = new LinkedHashMap<>();
+        if (clientIds == null || clientIds.isEmpty()) return result;
+        List<Long> missing = new ArrayList<>();
+        for (Long id : clientIds) {
+            if (id == null || result.containsKey(id)) continue;
+            MembershipStatus cached = statusCache.get(id);
+            result.put(id, cached);
+            if (cached == null) missing.add(id);
+        }
+        if (missing.isEmpty()) return result;
+
+        if (cacheResetRegistered.compareAndSet(false, true)) {
+            Database.onDataSourceSwap(MembershipStatusCache.shared()::clear);
+        }
+        long generation = statusCache.generation();
+        Map<Long, MembershipStatus> loaded = loadStatuses(missing);
+        statusCache.putAll(loaded, generation);
+        result.putAll(loaded);
+        return result;
+    }
+
+    private Map<Long, MembershipStatus> loadStatuses(List<Long> ids) {
         String sql = """
-            SELECT id
+            SELECT idOfHolder, type, visits_remaining
+            FROM (
+                SELECT idOfHolder,
+                       type,
+                       visits_remaining,
+                       ROW_NUMBER() OVER (PARTITION BY idOfHolder ORDER BY startDate DESC, id DESC) AS rn
+                FROM memberships
+                WHERE idOfHolder IN (%s)
+                  AND status = 'ACTIVE'
+            ) m
+            WHERE rn = 1
+        """.formatted(String.join(", ", Collections.nCopies(ids.size(), "?")));
+
+        Map<Long, MembershipStatus> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            result.put(id, MembershipStatus.NONE);
+        }
+        Database.jdbc().query(sql, ps -> {
+            int i = 1;
+            for (Long id : ids) {
+                ps.setLong(i++, id);
+            }
+        }, rs -> {
+            result.put(rs.getLong("idOfHolder"), new MembershipStatus(
+                rs.getString("type"),
+                rs.getObject("visits_remaining", Integer.class),
+                true
+            ));
+        });
+        return result;
+    }
+
+    // every membership the client ever had, newest first, with its visit count.
+    // a backward range read of idx_memberships_holder_timeline gives the order, the columns come from the
+    // rows by primary key. the visit count is the counter the check-ins keep on the membership, so no visits
+    // are read
+    public List<MembershipTimelineEntry> findTimeline(Long clientId) {
+        if (clientId == null) return List.of();
+        return Database.jdbc().query("""
+            SELECT id, startDate, expiresAt, type, status, price, visits_remaining, visit_count
             FROM memberships
             WHERE idOfHolder = ?
-              AND startDate <= ?
-              AND expiresAt >= ?
-              AND (type <> 'Ten' OR visits_remaining IS NULL OR visits_remaining > 0)
-            ORDER BY expiresAt DESC
-            LIMIT 1
-        """;
-        java.sql.Date today = java.sql.Date.valueOf(java.time.LocalDate.now());
-
-        List<Long> res = Database.jdbc().query(sql, ps -> {
-                ps.setLong(1, clientId);
-                ps.setDate(2, today);
-                ps.setDate(3, today);
-            },
-            (ResultSet rs, int rowNum) -> rs.getLong("id"));
-        return !res.isEmpty();
+            ORDER BY startDate DESC, id DESC
+        """, ps -> ps.setLong(1, clientId), (rs, i) -> new MembershipTimelineEntry(
+            rs.getLong("id"),
+            rs.getDate("startDate").toLocalDate(),
+            rs.getDate("expiresAt").toLocalDate(),
+            rs.getString("type"),
+            rs.getString("status"),
+            rs.getDouble("price"),
+            rs.getObject("visits_remaining", Integer.class),
+            rs.getInt("visit_count")
+        ));
+    }
+
+    // recomputes the status column of every membership for the given day and returns how many changed.
+    // walks the primary key in ranges of SWEEP_CHUNK ids, each range its own autocommit update,
+    // so no row is locked for longer than one short statement and check-ins keep going during the sweep.
+    public int sweepStatuses(LocalDate day) {
+        Long minId = Database.jdbc().queryForObject("SELECT MIN(id) FROM memberships", Long.class);
+        Long maxId = Database.jdbc().queryForObject("SELECT MAX(id) FROM memberships", Long.class);
+        if (minId == null || maxId == null) return 0;
+        String sql = """
+            UPDATE memberships
+            SET status = %1$s
+            WHERE id > ? AND id <= ?
+              AND status <> %1$s
+        """.formatted(STATUS_ON_DAY);
+        java.sql.Date date = java.sql.Date.valueOf(day);
+        int changed = 0;
+        for (long from = minId - 1; from < maxId; from += SWEEP_CHUNK) {
+            changed += Database.jdbc().update(sql, date, date, from, from + SWEEP_CHUNK, date, date);
+        }
+        if (changed > 0) {
+            // the sweep touches holders in bulk, cheaper to drop everything than to collect them
+            statusCache.clear();
+        }
+        return changed;
     }
 }
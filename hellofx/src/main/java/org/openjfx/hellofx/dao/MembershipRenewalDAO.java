@@ -0,0 +1,209 @@
+package org.openjfx.hellofx.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.openjfx.hellofx.entities.DiscountRule;
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.DiscountTiers;
+import org.openjfx.hellofx.model.MembershipRenewal;
+import org.openjfx.hellofx.model.RenewalReport;
+import org.openjfx.hellofx.utils.Database;
+import org.openjfx.hellofx.utils.MembershipStatusCache;
+
+// month-end renewal of many memberships at once, instead of one AssignMembershipController round per client.
+// the renewals are planned in memory from one query (visit counters included) and the in-memory discount
+// tiers, then inserted with batched INSERTs, CHUNK rows per transaction together with their revenue rollups.
+// the plan is rechecked inside every chunk transaction: the holders' memberships are read FOR UPDATE, so a
+// holder renewed since planning (a manual assign, an overlapping run) is dropped, and nobody can renew the
+// remaining holders until the chunk commits.
+public class MembershipRenewalDAO {
+
+    private static final int CHUNK = 1000;
+
+    private static final String LOCK_HOLDERS = """
+        SELECT id, idOfHolder, expiresAt FROM memberships WHERE idOfHolder IN (%s) FOR UPDATE
+    """;
+
+    // memberships of the type that run out inside the window and are the holder's last one,
+    // so holders that were already renewed (by hand or by an earlier run) are skipped.
+    // the last one is the latest by (expiresAt, id), so a holder with two memberships ending the same day
+    // is renewed once
+    private static final String SELECT_DUE = """
+        SELECT m.id, m.idOfHolder, m.expiresAt, COALESCE(s.visit_count, 0) AS visit_count
+        FROM memberships m
+        LEFT JOIN client_visit_stats s ON s.client_id = m.idOfHolder
+        WHERE m.type = ?
+          AND m.expiresAt BETWEEN ? AND ?
+          AND NOT EXISTS (
+              SELECT 1 FROM memberships later
+              WHERE later.idOfHolder = m.idOfHolder
+                AND (later.expiresAt > m.expiresAt OR (later.expiresAt = m.expiresAt AND later.id > m.id))
+          )
+        ORDER BY m.expiresAt, m.idOfHolder
+    """;
+
+    private static final String INSERT = """
+        INSERT INTO memberships (startDate, expiresAt, price, type, idOfHolder, visits_remaining, status,
+                                 discount_percent_applied, discount_threshold_used, discount_rule_id)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    // renews every membership of the type expiring between from and to (inclusive) at the base price,
+    // minus the discount the holder's visit count earns. the new membership starts the day after the old
+    // one ends. a dry run only reports what would be inserted, a real run what was inserted.
+    // when a chunk fails the earlier chunks stay committed; running again renews only the rest.
+    public RenewalReport renew(LocalDate from, LocalDate to, Membership.MembershipType type, double basePrice,
+                               boolean dryRun) throws SQLException {
+        List<MembershipRenewal> plan = plan(from, to, type, basePrice);
+        if (dryRun || plan.isEmpty()) return new RenewalReport(dryRun, plan);
+        return new RenewalReport(false, apply(plan));
+    }
+
+    // inserts the planned renewals that are still due, returns those
+    List<MembershipRenewal> apply(List<MembershipRenewal> plan) throws SQLException {
+        List<MembershipRenewal> renewed = new ArrayList<>(plan.size());
+        try {
+            for (int i = 0; i < plan.size(); i += CHUNK) {
+                renewed.addAll(insertChunk(plan.subList(i, Math.min(i + CHUNK, plan.size()))));
+            }
+        } finally {
+            // renewals that start in the past change the holder's current membership;
+            // one clear is cheaper than invalidating thousands of holders one by one
+            MembershipStatusCache.shared().clear();
+        }
+        return renewed;
+    }
+
+    List<MembershipRenewal> plan(LocalDate from, LocalDate to, Membership.MembershipType type, double basePrice) {
+        DiscountTiers tiers = DaoFactory.discountRules().tiers();
+        List<MembershipRenewal> plan = new ArrayList<>();
+        Database.jdbc().query(SELECT_DUE, ps -> {
+            ps.setString(1, type.name());
+            ps.setDate(2, java.sql.Date.valueOf(from));
+            ps.setDate(3, java.sql.Date.valueOf(to));
+        }, rs -> {
+            int visits = rs.getInt("visit_count");
+            Optional<DiscountRule> rule = tiers.ruleFor(visits);
+            LocalDate start = rs.getDate("expiresAt").toLocalDate().plusDays(1);
+            double price = rule.map(r -> r.applyTo(basePrice)).orElse(basePrice);
+            Membership next = new Membership(null, start, type.expiryFor(start), price, type,
+                rs.getLong("idOfHolder"), type.includedVisits());
+            plan.add(new MembershipRenewal(rs.getLong("id"), next, visits, rule.orElse(null)));
+        });
+        return plan;
+    }
+
+    // a chunk whose holders were partly renewed since planning rolls back (rollups included) and goes
+    // again without them, so the rollups are still written before the memberships, as everywhere else
+    private List<MembershipRenewal> insertChunk(List<MembershipRenewal> chunk) throws SQLException {
+        List<MembershipRenewal> pending = chunk;
+        while (!pending.isEmpty()) {
+            List<MembershipRenewal> stillDue = tryInsertChunk(pending);
+            if (stillDue.size() == pending.size()) return pending;
+            pending = stillDue;
+        }
+        return pending;
+    }
+
+    // inserts the chunk if every holder is still due and returns it; otherwise rolls back and returns
+    // the renewals that are still due
+    private List<MembershipRenewal> tryInsertChunk(List<MembershipRenewal> chunk) throws SQLException {
+        LocalDate day = LocalDate.now();
+        try (Connection conn = Database.getDataSource().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(INSERT)) {
+                List<Membership> sold = new ArrayList<>(chunk.size());
+                int[] percents = new int[chunk.size()];
+                for (MembershipRenewal r : chunk) {
+                    percents[sold.size()] = r.discountPercent();
+                    sold.add(r.membership());
+                }
+                DaoFactory.revenueRollups().addSales(conn, sold, percents);
+                List<MembershipRenewal> stillDue = lockStillDue(conn, chunk);
+                if (stillDue.size() < chunk.size()) {
+                    conn.rollback();
+                    return stillDue;
+                }
+                for (MembershipRenewal r : chunk) {
+                    Membership m = r.membership();
+                    ps.setDate(1, java.sql.Date.valueOf(m.startDate()));
+                    ps.setDate(2, java.sql.Date.valueOf(m.expiresAt()));
+                    ps.setDouble(3, m.price());
+                    ps.setString(4, m.type().name());
+                    ps.setLong(5, m.idOfHolder());
+                    if (m.type() == Membership.MembershipType.Ten) {
+                        ps.setInt(6, m.visitsRemaining());
+                    } else {
+                        ps.setNull(6, Types.INTEGER);
+                    }
+                    ps.setString(7, m.statusOn(day).name());
+                    ps.setInt(8, r.discountPercent());
+                    if (r.discount() != null) {
+                        ps.setInt(9, r.discount().visitsThreshold());
+                        ps.setLong(10, r.discount().id());
+                    } else {
+                        ps.setNull(9, Types.INTEGER);
+                        ps.setNull(10, Types.INTEGER);
+                    }
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+                return chunk;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    // a holder's latest membership, by the same (expiresAt, id) order SELECT_DUE uses
+    private record Latest(long id, LocalDate expiresAt) {
+
+        Latest later(Latest other) {
+            int c = expiresAt.compareTo(other.expiresAt);
+            return c > 0 || (c == 0 && id > other.id) ? this : other;
+        }
+    }
+
+    // locks the holders' memberships (and the index gap after them, which blocks new ones) and keeps
+    // the renewals whose previous membership is still the holder's latest, one per holder
+    private List<MembershipRenewal> lockStillDue(Connection conn, List<MembershipRenewal> chunk) throws SQLException {
+        Map<Long, Latest> latest = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(
+                LOCK_HOLDERS.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?"))))) {
+            int i = 1;
+            for (MembershipRenewal r : chunk) {
+                ps.setLong(i++, r.membership().idOfHolder());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    Latest row = new Latest(rs.getLong("id"), rs.getDate("expiresAt").toLocalDate());
+                    latest.merge(rs.getLong("idOfHolder"), row, Latest::later);
+                }
+            }
+        }
+        List<MembershipRenewal> stillDue = new ArrayList<>(chunk.size());
+        Set<Long> holders = new HashSet<>();
+        for (MembershipRenewal r : chunk) {
+            Latest holderLatest = latest.get(r.membership().idOfHolder());
+            if (holderLatest != null && holderLatest.id() == r.previousId() && holders.add(r.membership().idOfHolder())) {
+                stillDue.add(r);
+            }
+        }
+        return stillDue;
+    }
+}
@@ -0,0 +1,188 @@
+package org.openjfx.hellofx.dao;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.entities.Membership.MembershipType;
+import org.openjfx.hellofx.model.RevenueRow;
+import org.openjfx.hellofx.utils.Database;
+import org.springframework.jdbc.core.RowMapper;
+
+// revenue_daily and revenue_monthly sum membership prices by start day (month), type and applied
+// discount percent, so the revenue report never scans memberships.
+// the membership writes update them on their own connection, in the same transaction; the rollup rows
+// are written before the membership rows, which is the order rebuild locks them in, so the two can't deadlock.
+// prices are converted to DECIMAL(14,2) row by row on both paths, so a rebuild gives the same totals.
+public class RevenueRollupDAO {
+
+    // parameters only in VALUES, so connector/j can rewrite a batch into multi-row inserts
+    private static final String ADD_SALES = """
+        INSERT INTO %s (%s, type, discount_percent, membership_count, revenue)
+        VALUES (?, ?, ?, ?, ?) AS new
+        ON DUPLICATE KEY UPDATE membership_count = membership_count + new.membership_count,
+                                revenue = revenue + new.revenue
+    """;
+
+    // one rollup row: the primary key of revenue_daily / revenue_monthly, in its order
+    // (MembershipType is declared in the order of the type ENUM)
+    private record Key(LocalDate period, MembershipType type, int percent) implements Comparable<Key> {
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::period)
+            .thenComparing(Key::type).thenComparingInt(Key::percent);
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Totals {
+        int count;
+        BigDecimal revenue = BigDecimal.ZERO;
+    }
+
+    private static final String REMOVE_HOLDER = """
+        INSERT INTO %s (%s, type, discount_percent, membership_count, revenue)
+        SELECT * FROM (
+            SELECT %s AS period, type, discount_percent_applied, -COUNT(*) AS cnt, -SUM(CAST(price AS DECIMAL(14, 2))) AS total
+            FROM memberships
+            WHERE idOfHolder = ?
+            GROUP BY period, type, discount_percent_applied
+        ) AS src
+        ON DUPLICATE KEY UPDATE membership_count = membership_count + src.cnt, revenue = revenue + src.total
+    """;
+
+    private static final String FIRST_OF_MONTH = "startDate - INTERVAL (DAYOFMONTH(startDate) - 1) DAY";
+
+    private final RowMapper<RevenueRow> mapper = (rs, rowNum) -> new RevenueRow(
+        rs.getDate("period").toLocalDate(),
+        rs.getString("type"),
+        rs.getInt("discount_percent"),
+        rs.getInt("membership_count"),
+        rs.getDouble("revenue")
+    );
+
+    // adds one sold membership to both rollups, inside the caller's transaction
+    void addSale(Connection conn, Membership membership, int discountPercent) throws SQLException {
+        addSales(conn, List.of(membership), new int[] {discountPercent});
+    }
+
+    // adds sold memberships to both rollups, inside the caller's transaction. percents[i] belongs to memberships[i].
+    // a bulk chunk is summed per rollup row first and every row is upserted once, in key order: the chunk locks
+    // each hot row once, and two bulk jobs (or a bulk job and a sale at the desk) lock shared rows in the same order.
+    void addSales(Connection conn, List<Membership> memberships, int[] percents) throws SQLException {
+        Map<Key, Totals> daily = new TreeMap<>();
+        Map<Key, Totals> monthly = new TreeMap<>();
+        for (int i = 0; i < memberships.size(); i++) {
+            Membership m = memberships.get(i);
+            // no start date, no sale: the membership insert itself rejects it
+            if (m.startDate() == null) continue;
+            // rounded per membership like the CAST in rebuild, so both give the same totals
+            BigDecimal price = BigDecimal.valueOf(m.price()).setScale(2, RoundingMode.HALF_UP);
+            add(daily, new Key(m.startDate(), m.type(), percents[i]), price);
+            add(monthly, new Key(m.startDate().withDayOfMonth(1), m.type(), percents[i]), price);
+        }
+        upsert(conn, ADD_SALES.formatted("revenue_daily", "day"), daily);
+        upsert(conn, ADD_SALES.formatted("revenue_monthly", "month"), monthly);
+    }
+
+    private static void add(Map<Key, Totals> rows, Key key, BigDecimal price) {
+        Totals totals = rows.computeIfAbsent(key, k -> new Totals());
+        totals.count++;
+        totals.revenue = totals.revenue.add(price);
+    }
+
+    private static void upsert(Connection conn, String sql, Map<Key, Totals> rows) throws SQLException {
+        if (rows.isEmpty()) return;
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (Map.Entry<Key, Totals> row : rows.entrySet()) {
+                ps.setDate(1, java.sql.Date.valueOf(row.getKey().period()));
+                ps.setString(2, row.getKey().type().name());
+                ps.setInt(3, row.getKey().percent());
+                ps.setInt(4, row.getValue().count);
+                ps.setBigDecimal(5, row.getValue().revenue);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    // takes the holder's memberships out of both rollups, inside the caller's transaction and before they are deleted
+    void removeHolder(Connection conn, long holderId) throws SQLException {
+        for (String sql : List.of(
+            REMOVE_HOLDER.formatted("revenue_daily", "day", "startDate"),
+            REMOVE_HOLDER.formatted("revenue_monthly", "month", FIRST_OF_MONTH))) {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setLong(1, holderId);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    public List<RevenueRow> findDaily(LocalDate from, LocalDate to) {
+        return Database.jdbc().query("""
+            SELECT day AS period, type, discount_percent, membership_count, revenue
+            FROM revenue_daily
+            WHERE day BETWEEN ? AND ? AND membership_count <> 0
+            ORDER BY day, type, discount_percent
+        """, mapper, java.sql.Date.valueOf(from), java.sql.Date.valueOf(to));
+    }
+
+    // months whose first day falls between the first days of from's and to's months
+    public List<RevenueRow> findMonthly(LocalDate from, LocalDate to) {
+        return Database.jdbc().query("""
+            SELECT month AS period, type, discount_percent, membership_count, revenue
+            FROM revenue_monthly
+            WHERE month BETWEEN ? AND ? AND membership_count <> 0
+            ORDER BY month, type, discount_percent
+        """, mapper, java.sql.Date.valueOf(from.withDayOfMonth(1)), java.sql.Date.valueOf(to.withDayOfMonth(1)));
+    }
+
+    // recomputes both rollups from memberships in one transaction, for a database that predates them or drifted.
+    // readers keep seeing the old rollups until the commit, membership writes wait for it.
+    // returns the number of daily rows.
+    public int rebuild() throws SQLException {
+        int days;
+        try (Connection conn = Database.getDataSource().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM revenue_daily")) {
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM revenue_monthly")) {
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement("""
+                    INSERT INTO revenue_daily (day, type, discount_percent, membership_count, revenue)
+                    SELECT startDate, type, discount_percent_applied, COUNT(*), SUM(CAST(price AS DECIMAL(14, 2)))
+                    FROM memberships
+                    GROUP BY startDate, type, discount_percent_applied
+                """)) {
+                    days = ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement("""
+                    INSERT INTO revenue_monthly (month, type, discount_percent, membership_count, revenue)
+                    SELECT day - INTERVAL (DAYOFMONTH(day) - 1) DAY AS month, type, discount_percent,
+                           SUM(membership_count), SUM(revenue)
+                    FROM revenue_daily
+                    GROUP BY month, type, discount_percent
+                """)) {
+                    ps.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        return days;
+    }
+}
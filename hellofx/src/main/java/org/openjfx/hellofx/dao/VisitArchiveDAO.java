@@ -0,0 +1,100 @@
+package org.openjfx.hellofx.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjfx.hellofx.utils.Database;
+
+// moves old visits from the hot visits table into the compressed visits_archive table.
+// reads that page past the hot table continue in the archive (see VisitDAO.getVisitsPage),
+// and the visit counters cover both tables, so archiving changes nothing a user can see.
+public class VisitArchiveDAO {
+
+    private static final int CHUNK = 5000;
+
+    // archive horizon in months, VISIT_ARCHIVE_MONTHS in .env
+    public static int horizonMonths() {
+        return Integer.parseInt(Database.setting("VISIT_ARCHIVE_MONTHS", "12"));
+    }
+
+    // archives every visit from before the first day of the month horizonMonths back
+    public int archiveOlderThan(int months) throws SQLException {
+        return archiveBefore(LocalDate.now().minusMonths(months).withDayOfMonth(1).atStartOfDay());
+    }
+
+    // moves the visits that checked in before the cutoff, oldest first, CHUNK rows per transaction.
+    // returns how many visits were moved.
+    public int archiveBefore(LocalDateTime cutoff) throws SQLException {
+        int moved = 0;
+        while (true) {
+            int n = archiveChunk(Timestamp.valueOf(cutoff));
+            moved += n;
+            if (n < CHUNK) return moved;
+        }
+    }
+
+    // copy and delete happen in one transaction, so a visit is always in exactly one of the two tables.
+    // the rows are locked up front, so a concurrent delete can't remove a visit between copy and delete.
+    private int archiveChunk(Timestamp cutoff) throws SQLException {
+        try (Connection conn = Database.getDataSource().getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Long> ids = new ArrayList<>();
+                try (PreparedStatement ps = conn.prepareStatement(
+                    "SELECT id FROM visits WHERE check_in < ? ORDER BY check_in, id LIMIT ? FOR UPDATE")) {
+                    ps.setTimestamp(1, cutoff);
+                    ps.setInt(2, CHUNK);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getLong("id"));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                // check_in < ? keeps both statements on the partitions being archived
+                String in = String.join(", ", Collections.nCopies(ids.size(), "?"));
+                try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO visits_archive (id, client_id, membership_id, check_in) "
+                        + "SELECT id, client_id, membership_id, check_in FROM visits WHERE check_in < ? AND id IN (" + in + ")")) {
+                    bind(ps, cutoff, ids);
+                    ps.executeUpdate();
+                }
+                try (PreparedStatement ps = conn.prepareStatement(
+                    "DELETE FROM visits WHERE check_in < ? AND id IN (" + in + ")")) {
+                    bind(ps, cutoff, ids);
+                    ps.executeUpdate();
+                }
+                conn.commit();
+                return ids.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    public int countArchived() {
+        Integer n = Database.jdbc().queryForObject("SELECT COUNT(*) FROM visits_archive", Integer.class);
+        return n == null ? 0 : n;
+    }
+
+    private static void bind(PreparedStatement ps, Timestamp cutoff, List<Long> ids) throws SQLException {
+        int i = 1;
+        ps.setTimestamp(i++, cutoff);
+        for (Long id : ids) {
+            ps.setLong(i++, id);
+        }
+    }
+}
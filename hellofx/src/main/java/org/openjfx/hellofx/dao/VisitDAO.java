@@ -1,17 +1,59 @@
 package org.openjfx.hellofx.dao;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
 
+import org.openjfx.hellofx.model.CheckInResult;
+import org.openjfx.hellofx.model.VisitCursor;
 import org.openjfx.hellofx.model.VisitRow;
+import org.openjfx.hellofx.utils.Csv;
 import org.openjfx.hellofx.utils.Database;
+import org.openjfx.hellofx.utils.MembershipStatusCache;
+import org.openjfx.hellofx.utils.OccupancyTracker;
 import org.springframework.jdbc.core.RowMapper;
 
 public class VisitDAO {
-    
+
+    // above this many matching clients the filter is broad enough that scanning recent visits is cheaper
+    private static final int MAX_FILTER_CLIENTS = 1000;
+    // check_in windows (months back from the cursor's month) a page is read through; -1 = unbounded
+    private static final int[] LOOKBACK_MONTHS = {0, 3, 12, -1};
+    // the export writes to the file whenever this many characters are buffered
+    private static final int EXPORT_FLUSH_CHARS = 64 * 1024;
+    private static final int EXPORT_PROGRESS_EVERY = 10_000;
+    // tries of a single check-in that conflicts with concurrent ones before giving up
+    private static final int MAX_CHECK_IN_ATTEMPTS = 8;
 
     private final RowMapper<VisitRow> historyMapper = (rs, rowNum) -> new VisitRow(
         rs.getLong("id"),
@@ -22,123 +64,434 @@ public class VisitDAO {
     );
 
     public boolean checkInClient(Long clientId) throws SQLException {
+        return checkIn(clientId).accepted();
+    }
+
+    // resolves the membership, logs the visit and consumes a Ten pass in one round trip
+    // (see the check_in_client procedure in init.sql). nothing is locked while the membership is looked up,
+    // the Ten pass decrement is conditional and its row count decides. a check-in that lost the pass's last
+    // visits to a concurrent one between the read and the decrement (CONFLICT), or hit a deadlock or lock
+    // wait timeout, is retried with a fresh read.
+    public CheckInResult checkIn(Long clientId) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                CheckInResult result = callCheckIn(clientId);
+                if (result != null) return result;
+                if (attempt >= MAX_CHECK_IN_ATTEMPTS) {
+                    throw new SQLException("check-in of client " + clientId + " kept conflicting");
+                }
+            } catch (SQLException e) {
+                if (!retryable(e) || attempt >= MAX_CHECK_IN_ATTEMPTS) throw e;
+            }
+            backOff(attempt);
+        }
+    }
+
+    // null when the procedure reported a conflict
+    private CheckInResult callCheckIn(Long clientId) throws SQLException {
+        try (Connection conn = Database.getDataSource().getConnection();
+             CallableStatement cs = conn.prepareCall("{call check_in_client(?, ?)}")) {
+            LocalDateTime now = LocalDateTime.now();
+            cs.setLong(1, clientId);
+            cs.setTimestamp(2, Timestamp.valueOf(now));
+            try (ResultSet rs = cs.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("check_in_client returned no result");
+                }
+                String status = rs.getString("status");
+                if ("CONFLICT".equals(status)) return null;
+                CheckInResult result = new CheckInResult(
+                    CheckInResult.Status.valueOf(status),
+                    rs.getObject("membership_id", Long.class),
+                    rs.getObject("visits_remaining", Integer.class)
+                );
+                if (result.accepted()) {
+                    OccupancyTracker.shared().recordCheckIn(now);
+                    // a Ten pass just lost a visit
+                    if (result.visitsRemaining() != null) MembershipStatusCache.shared().invalidate(clientId);
+                }
+                return result;
+            }
+        }
+    }
+
+    // deadlock (1213) and lock wait timeout (1205) roll the transaction back, so it can simply run again
+    private static boolean retryable(SQLException e) {
+        return e.getErrorCode() == 1213 || e.getErrorCode() == 1205 || "40001".equals(e.getSQLState());
+    }
+
+    // a few milliseconds, growing and jittered so the retrying check-ins don't collide again
+    private static void backOff(int attempt) throws SQLException {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(1, 1 + (2 << Math.min(attempt, 6))));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("check-in interrupted", e);
+        }
+    }
+
+    // checks in a buffered batch of turnstile scans in one transaction:
+    // memberships are resolved with one plain (non-locking) query, Ten passes are decremented with one
+    // conditional update each, visits are inserted with the original scan time and visit counters are bumped
+    // in bulk. a pass whose decrement matched no row lost its last visit to a concurrent check-in and is
+    // reported EXHAUSTED. repeated ids in the batch count as one scan.
+    // a deadlock or lock wait timeout rolls the whole batch back, and it is run again.
+    public Map<Long, CheckInResult> checkInBatch(Collection<Long> clientIds, Instant scannedAt) throws SQLException {
+        if (clientIds == null || clientIds.isEmpty()) return new LinkedHashMap<>();
+        Set<Long> ids = new LinkedHashSet<>(clientIds);
+        ids.remove(null);
+        if (ids.isEmpty()) return new LinkedHashMap<>();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return checkInBatchOnce(ids, scannedAt);
+            } catch (SQLException e) {
+                if (!retryable(e) || attempt >= MAX_CHECK_IN_ATTEMPTS) throw e;
+            }
+            backOff(attempt);
+        }
+    }
+
+    private Map<Long, CheckInResult> checkInBatchOnce(Set<Long> ids, Instant scannedAt) throws SQLException {
+        Map<Long, CheckInResult> results = new LinkedHashMap<>();
+
+        java.sql.Date scanDate = java.sql.Date.valueOf(LocalDate.ofInstant(scannedAt, ZoneId.systemDefault()));
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
         String selectSql = """
-            SELECT id, type, visits_remaining
+            SELECT id, idOfHolder, type, visits_remaining
             FROM memberships
-            WHERE idOfHolder = ?
+            WHERE idOfHolder IN (%s)
               AND startDate <= ?
               AND expiresAt >= ?
-            ORDER BY expiresAt DESC
-            LIMIT 1
-            FOR UPDATE
+            ORDER BY idOfHolder, expiresAt DESC
+        """.formatted(placeholders);
+        String insertSql = "INSERT INTO visits (client_id, membership_id, check_in) VALUES (?, ?, ?)";
+        String statsSql = """
+            INSERT INTO client_visit_stats (client_id, visit_count) VALUES (?, 1)
+            ON DUPLICATE KEY UPDATE visit_count = visit_count + 1
         """;
-        String insertSql = "INSERT INTO visits (client_id, membership_id, check_in) VALUES (?, ?, NOW())";
-        String decSql = "UPDATE memberships SET visits_remaining = visits_remaining - 1 WHERE id = ?";
 
-        java.sql.Date today = java.sql.Date.valueOf(java.time.LocalDate.now());
         try (Connection conn = Database.getDataSource().getConnection()) {
             conn.setAutoCommit(false);
+            try {
+                // first row per holder is the membership a single check-in would pick
+                Map<Long, CheckInResult> resolved = new HashMap<>();
+                Map<Long, String> types = new HashMap<>();
+                try (PreparedStatement ps = conn.prepareStatement(selectSql)) {
+                    int i = 1;
+                    for (Long id : ids) {
+                        ps.setLong(i++, id);
+                    }
+                    ps.setDate(i++, scanDate);
+                    ps.setDate(i, scanDate);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            Long holder = rs.getLong("idOfHolder");
+                            if (resolved.containsKey(holder)) continue;
+                            resolved.put(holder, new CheckInResult(
+                                CheckInResult.Status.ACCEPTED,
+                                rs.getLong("id"),
+                                rs.getObject("visits_remaining", Integer.class)
+                            ));
+                            types.put(holder, rs.getString("type"));
+                        }
+                    }
+                }
 
-            Long membershipId = null;
-            String type = null;
-            Integer remaining = null;
-
-            try (PreparedStatement ps = conn.prepareStatement(selectSql)) {
-                ps.setLong(1, clientId);
-                ps.setDate(2, today);
-                ps.setDate(3, today);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        membershipId = rs.getLong("id");
-                        type = rs.getString("type");
-                        remaining = rs.getObject("visits_remaining", Integer.class);
+                // Ten pass to decrement -> its holder, ordered by pass id
+                Map<Long, Long> tenPasses = new TreeMap<>();
+                for (Long id : ids) {
+                    CheckInResult m = resolved.get(id);
+                    if (m == null) {
+                        results.put(id, new CheckInResult(CheckInResult.Status.NO_MEMBERSHIP, null, null));
+                        continue;
                     }
+                    boolean isTen = "Ten".equalsIgnoreCase(types.get(id));
+                    if (isTen && (m.visitsRemaining() == null || m.visitsRemaining() <= 0)) {
+                        results.put(id, new CheckInResult(CheckInResult.Status.EXHAUSTED, m.membershipId(), m.visitsRemaining()));
+                        continue;
+                    }
+                    CheckInResult ok = isTen
+                        ? new CheckInResult(CheckInResult.Status.ACCEPTED, m.membershipId(), m.visitsRemaining() - 1)
+                        : m;
+                    results.put(id, ok);
+                    if (isTen) tenPasses.put(m.membershipId(), id);
                 }
-            }
 
-            if (membershipId == null) {
-                conn.rollback();
-                return false;
-            }
+                if (!tenPasses.isEmpty()) {
+                    // multi-column SET sees the decremented count, so the last visit marks the pass exhausted.
+                    // passes are decremented in id order so concurrent batches lock them in the same order
+                    String decSql = "UPDATE memberships SET visits_remaining = visits_remaining - 1, "
+                        + "status = IF(visits_remaining <= 0, 'EXHAUSTED', status), visit_count = visit_count + 1 "
+                        + "WHERE id = ? AND visits_remaining > 0";
+                    List<Long> passes = new ArrayList<>(tenPasses.keySet());
+                    try (PreparedStatement ps = conn.prepareStatement(decSql)) {
+                        for (Long pass : passes) {
+                            ps.setLong(1, pass);
+                            ps.addBatch();
+                        }
+                        int[] counts = ps.executeBatch();
+                        for (int i = 0; i < counts.length; i++) {
+                            if (counts[i] == 0) {
+                                Long pass = passes.get(i);
+                                results.put(tenPasses.get(pass), new CheckInResult(CheckInResult.Status.EXHAUSTED, pass, 0));
+                            }
+                        }
+                    }
+                }
 
-            boolean isTen = "Ten".equalsIgnoreCase(type);
-            if (isTen && (remaining == null || remaining <= 0)) {
+                Timestamp checkIn = Timestamp.from(scannedAt);
+                try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
+                    for (Map.Entry<Long, CheckInResult> e : results.entrySet()) {
+                        if (!e.getValue().accepted()) continue;
+                        ps.setLong(1, e.getKey());
+                        ps.setLong(2, e.getValue().membershipId());
+                        ps.setTimestamp(3, checkIn);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                // the other memberships count their visits here (Ten passes did with the decrement),
+                // in membership id order like the passes
+                Set<Long> counted = new TreeSet<>();
+                for (Map.Entry<Long, CheckInResult> e : results.entrySet()) {
+                    if (e.getValue().accepted() && !"Ten".equalsIgnoreCase(types.get(e.getKey()))) {
+                        counted.add(e.getValue().membershipId());
+                    }
+                }
+                if (!counted.isEmpty()) {
+                    try (PreparedStatement ps = conn.prepareStatement(
+                        "UPDATE memberships SET visit_count = visit_count + 1 WHERE id = ?")) {
+                        for (Long membershipId : counted) {
+                            ps.setLong(1, membershipId);
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                // counters are bumped in client id order so concurrent batches lock them in the same order
+                try (PreparedStatement ps = conn.prepareStatement(statsSql)) {
+                    for (Long id : new TreeSet<>(results.keySet())) {
+                        if (!results.get(id).accepted()) continue;
+                        ps.setLong(1, id);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+                conn.commit();
+                LocalDateTime scanTime = LocalDateTime.ofInstant(scannedAt, ZoneId.systemDefault());
+                for (Map.Entry<Long, CheckInResult> e : results.entrySet()) {
+                    if (!e.getValue().accepted()) continue;
+                    OccupancyTracker.shared().recordCheckIn(scanTime);
+                    if (e.getValue().visitsRemaining() != null) MembershipStatusCache.shared().invalidate(e.getKey());
+                }
+                return results;
+            } catch (SQLException e) {
                 conn.rollback();
-                return false;
+                throw e;
             }
+        }
+    }
 
-            try (PreparedStatement ps = conn.prepareStatement(insertSql)) {
-                ps.setLong(1, clientId);
-                ps.setLong(2, membershipId);
-                ps.executeUpdate();
-            }
+    public List<VisitRow> getRecentVisits(int limit) {
+        return getVisitsPage(null, null, limit);
+    }
 
-            if (isTen) {
-                try (PreparedStatement ps = conn.prepareStatement(decSql)) {
-                    ps.setLong(1, membershipId);
-                    ps.executeUpdate();
-                }
-            }
+    public List<VisitRow> getRecentVisitsForClient(String filter, int limit) {
+        return getVisitsPage(filter, null, limit);
+    }
 
-            conn.commit();
-            return true;
-        } catch (SQLException e) {
-            try {
-                // attempt rollback on the same connection if still open
-                // note: conn is auto-closed by try-with-resources
-            } catch (Exception ignore) {
-                // ignore
-            }
-            throw e;
+    // keyset paging over (check_in, id): returns the page of visits older than the cursor,
+    // newest first. a null cursor starts from the newest visit.
+    // a client filter is first resolved to client ids through the full-text index, so the visits come
+    // straight from idx_visits_client_check_in; only very short or very broad filters fall back to
+    // walking the newest visits and matching the client name on the way.
+    // visits are partitioned by month, so the page is read through growing check_in windows
+    // (this month, then the last 3 and 12 months, then everything): a recent page only touches the
+    // newest partitions instead of merging the index of every month ever recorded. once the hot table
+    // runs out, paging carries on into the archive (see VisitArchiveDAO).
+    public List<VisitRow> getVisitsPage(String filter, VisitCursor before, int limit) {
+        boolean filtered = filter != null && !filter.isBlank();
+        List<Long> clientIds = null;
+        if (filtered) {
+            clientIds = DaoFactory.clients().findClientIdsMatching(filter, MAX_FILTER_CLIENTS + 1);
+            if (clientIds != null && clientIds.isEmpty()) return List.of();
+            if (clientIds != null && clientIds.size() > MAX_FILTER_CLIENTS) clientIds = null;
         }
+        String pattern = filtered && clientIds == null ? "%" + filter.trim().toLowerCase() + "%" : null;
+
+        LocalDate anchor = (before != null ? before.checkIn().toLocalDate() : LocalDate.now()).withDayOfMonth(1);
+        List<VisitRow> page = new ArrayList<>();
+        VisitCursor cursor = before;
+        for (int months : LOOKBACK_MONTHS) {
+            LocalDateTime from = months < 0 ? null : anchor.minusMonths(months).atStartOfDay();
+            page.addAll(queryWindow("visits", clientIds, pattern, cursor, from, limit - page.size()));
+            if (page.size() >= limit) return page;
+            if (!page.isEmpty()) cursor = VisitCursor.after(page.get(page.size() - 1));
+        }
+        // archived visits are all older than the hot ones, so past the oldest hot visit the history
+        // simply continues in visits_archive
+        page.addAll(queryWindow("visits_archive", clientIds, pattern, cursor, null, limit - page.size()));
+        return page;
     }
 
-    public List<VisitRow> getRecentVisits(int limit) {
-        String sql = """
+    private List<VisitRow> queryWindow(String table, List<Long> clientIds, String pattern, VisitCursor before,
+                                       LocalDateTime from, int limit) {
+        StringBuilder sql = new StringBuilder("""
             SELECT v.id,
                    c.name AS client_name,
                    c.email AS client_email,
                    m.type AS membership_type,
                    v.check_in
-            FROM visits v
+            FROM %s v
             JOIN clients c ON c.id = v.client_id
             LEFT JOIN memberships m ON m.id = v.membership_id
-            ORDER BY v.check_in DESC
-            LIMIT ?
-        """;
-        return Database.jdbc().query(sql, ps -> ps.setInt(1, limit), historyMapper);
+            WHERE 1 = 1
+        """.formatted(table));
+        if (clientIds != null) {
+            sql.append(" AND v.client_id IN (").append(String.join(", ", Collections.nCopies(clientIds.size(), "?"))).append(")");
+        }
+        if (pattern != null) {
+            sql.append(" AND (LOWER(c.name) LIKE ? OR LOWER(c.email) LIKE ?)");
+        }
+        if (before != null) {
+            sql.append(" AND v.check_in <= ? AND (v.check_in < ? OR v.id < ?)");
+        }
+        if (from != null) {
+            sql.append(" AND v.check_in >= ?");
+        }
+        sql.append(" ORDER BY v.check_in DESC, v.id DESC LIMIT ?");
+
+        return Database.jdbc().query(
+            sql.toString(),
+            ps -> {
+                int i = 1;
+                if (clientIds != null) {
+                    for (Long id : clientIds) {
+                        ps.setLong(i++, id);
+                    }
+                }
+                if (pattern != null) {
+                    ps.setString(i++, pattern);
+                    ps.setString(i++, pattern);
+                }
+                if (before != null) {
+                    Timestamp ts = Timestamp.valueOf(before.checkIn());
+                    ps.setTimestamp(i++, ts);
+                    ps.setTimestamp(i++, ts);
+                    ps.setLong(i++, before.id());
+                }
+                if (from != null) {
+                    ps.setTimestamp(i++, Timestamp.valueOf(from));
+                }
+                ps.setInt(i, limit);
+            },
+            historyMapper
+        );
     }
 
-    public List<VisitRow> getRecentVisitsForClient(String filter, int limit) {
+    // check-ins of one day per hour of the day, for rebuilding the occupancy tracker after a restart
+    public long[] countCheckInsByHour(LocalDate day) {
+        long[] perHour = new long[24];
+        Database.jdbc().query(
+            "SELECT HOUR(check_in) AS h, COUNT(*) AS cnt FROM visits WHERE check_in >= ? AND check_in < ? GROUP BY h",
+            ps -> {
+                ps.setTimestamp(1, Timestamp.valueOf(day.atStartOfDay()));
+                ps.setTimestamp(2, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+            },
+            rs -> {
+                perHour[rs.getInt("h")] = rs.getLong("cnt");
+            }
+        );
+        return perHour;
+    }
+
+    // the visit counters add up to the number of visits, without touching the visit tables
+    public long estimateVisitCount() {
+        Long n = Database.jdbc().queryForObject("SELECT COALESCE(SUM(visit_count), 0) FROM client_visit_stats", Long.class);
+        return n == null ? 0 : n;
+    }
+
+    // writes every visit (the archive first, then the hot table, oldest first) into a CSV file.
+    // connector/j only streams row by row for a forward-only, read-only statement with fetch size
+    // Integer.MIN_VALUE; any other fetch size loads the whole result set into memory first.
+    // rows go to the file through a FileChannel in 64K chunks, so heap use doesn't grow with the export.
+    // progress receives the number of rows written so far. on cancellation the partial file is deleted
+    // and a CancellationException is thrown.
+    public long exportVisitsCsv(Path target, LongConsumer progress, BooleanSupplier cancelled) throws SQLException, IOException {
+        long written = 0;
+        boolean complete = false;
+        try (FileChannel out = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            StringBuilder buf = new StringBuilder(EXPORT_FLUSH_CHARS + 1024);
+            buf.append("id,client_id,client_name,client_email,membership_type,check_in\n");
+            for (String table : List.of("visits_archive", "visits")) {
+                written = exportTable(table, out, buf, written, progress, cancelled);
+            }
+            flush(out, buf);
+            complete = true;
+        } finally {
+            if (!complete) Files.deleteIfExists(target);
+        }
+        progress.accept(written);
+        return written;
+    }
+
+    private long exportTable(String table, FileChannel out, StringBuilder buf, long written,
+                             LongConsumer progress, BooleanSupplier cancelled) throws SQLException, IOException {
         String sql = """
             SELECT v.id,
+                   v.client_id,
                    c.name AS client_name,
                    c.email AS client_email,
                    m.type AS membership_type,
                    v.check_in
-            FROM visits v
+            FROM %s v
             JOIN clients c ON c.id = v.client_id
             LEFT JOIN memberships m ON m.id = v.membership_id
-            WHERE LOWER(c.name) LIKE ? OR LOWER(c.email) LIKE ?
-            ORDER BY v.check_in DESC
-            LIMIT ?
-        """;
-        String pattern = "%" + filter.toLowerCase() + "%";
-        return Database.jdbc().query(
-            sql,
-            ps -> {
-                ps.setString(1, pattern);
-                ps.setString(2, pattern);
-                ps.setInt(3, limit);
-            },
-            historyMapper
-        );
+            ORDER BY v.check_in, v.id
+        """.formatted(table);
+
+        try (Connection conn = Database.getDataSource().getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (cancelled.getAsBoolean()) {
+                        // closing a streaming result set reads whatever is left of it, so stop the query first
+                        ps.cancel();
+                        throw new CancellationException("visit export cancelled");
+                    }
+                    buf.append(rs.getLong("id")).append(',')
+                        .append(rs.getLong("client_id")).append(',');
+                    Csv.appendField(buf, rs.getString("client_name"));
+                    buf.append(',');
+                    Csv.appendField(buf, rs.getString("client_email"));
+                    buf.append(',');
+                    Csv.appendField(buf, rs.getString("membership_type"));
+                    buf.append(',')
+                        .append(rs.getTimestamp("check_in").toLocalDateTime())
+                        .append('\n');
+
+                    written++;
+                    if (buf.length() >= EXPORT_FLUSH_CHARS) flush(out, buf);
+                    if (written % EXPORT_PROGRESS_EVERY == 0) progress.accept(written);
+                }
+            }
+        }
+        return written;
+    }
+
+    private static void flush(FileChannel out, StringBuilder buf) throws IOException {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(buf));
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        buf.setLength(0);
     }
 
+    // reads the maintained counter instead of counting the client's visits
     public int countVisitsForClient(Long clientId) {
-        String sql = "SELECT COUNT(*) FROM visits WHERE client_id = ?";
-        Integer count = Database.jdbc().queryForObject(sql, Integer.class, clientId);
-        return count != null ? count : 0;
+        return DaoFactory.visitStats().getVisitCount(clientId);
     }
 
 }
@@ -0,0 +1,91 @@
+package org.openjfx.hellofx.dao;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjfx.hellofx.utils.Database;
+
+// maintenance of the monthly range partitions of the visits table.
+// each month lives in its own partition pYYYYMM; p_future (MAXVALUE) catches anything past the last month.
+public class VisitPartitionDAO {
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private record Partition(String name, LocalDate upperBound) {}
+
+    // splits p_future so that every month up to monthsAhead from now has its own partition.
+    // returns the number of partitions created (0 when the table isn't partitioned).
+    public int ensureFuturePartitions(int monthsAhead) {
+        List<Partition> partitions = listPartitions();
+        LocalDate lastBound = null;
+        for (Partition p : partitions) {
+            if (p.upperBound() != null) lastBound = p.upperBound();
+        }
+        if (lastBound == null) return 0;
+
+        LocalDate target = YearMonth.now().plusMonths(monthsAhead + 1L).atDay(1);
+        // a table created long ago only gets monthly partitions from the current month on
+        LocalDate from = lastBound.isBefore(YearMonth.now().atDay(1)) ? YearMonth.now().atDay(1) : lastBound;
+
+        List<String> defs = new ArrayList<>();
+        if (from.isAfter(lastBound)) {
+            defs.add("PARTITION p_until_" + from.format(DateTimeFormatter.BASIC_ISO_DATE)
+                + " VALUES LESS THAN ('" + from + "')");
+        }
+        for (LocalDate start = from; start.isBefore(target); start = start.plusMonths(1)) {
+            defs.add("PARTITION " + start.format(NAME_FORMAT) + " VALUES LESS THAN ('" + start.plusMonths(1) + "')");
+        }
+        if (defs.isEmpty()) return 0;
+        defs.add("PARTITION p_future VALUES LESS THAN (MAXVALUE)");
+        Database.jdbc().execute("ALTER TABLE visits REORGANIZE PARTITION p_future INTO (" + String.join(", ", defs) + ")");
+        return defs.size() - 1;
+    }
+
+    // retention after archiving: drops every partition that only covers months before cutoff and no longer
+    // holds any visit, so the partition list doesn't grow forever. dropping a partition is a metadata
+    // operation. a partition that still holds visits is kept: they haven't reached visits_archive yet and the
+    // visit counters still count them, so dropping it would lose visits.
+    public List<String> dropMonthsBefore(YearMonth cutoff) {
+        LocalDate cutoffDate = cutoff.atDay(1);
+        List<String> dropped = new ArrayList<>();
+        for (Partition p : listPartitions()) {
+            if (p.upperBound() != null && !p.upperBound().isAfter(cutoffDate) && isEmpty(p.name())) {
+                dropped.add(p.name());
+            }
+        }
+        if (dropped.isEmpty()) return dropped;
+        Database.jdbc().execute("ALTER TABLE visits DROP PARTITION " + String.join(", ", dropped));
+        return dropped;
+    }
+
+    private boolean isEmpty(String partition) {
+        Boolean any = Database.jdbc().queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM visits PARTITION (" + partition + "))", Boolean.class);
+        return !Boolean.TRUE.equals(any);
+    }
+
+    public List<String> partitionNames() {
+        return listPartitions().stream().map(Partition::name).toList();
+    }
+
+    private List<Partition> listPartitions() {
+        String sql = """
+            SELECT PARTITION_NAME, PARTITION_DESCRIPTION
+            FROM information_schema.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE()
+              AND TABLE_NAME = 'visits'
+              AND PARTITION_NAME IS NOT NULL
+            ORDER BY PARTITION_ORDINAL_POSITION
+        """;
+        return Database.jdbc().query(sql, (rs, i) -> {
+            String desc = rs.getString("PARTITION_DESCRIPTION");
+            LocalDate bound = (desc == null || desc.equalsIgnoreCase("MAXVALUE"))
+                ? null
+                : LocalDate.parse(desc.replace("'", "").trim().substring(0, 10));
+            return new Partition(rs.getString("PARTITION_NAME"), bound);
+        });
+    }
+}
@@ -0,0 +1,171 @@
+package org.openjfx.hellofx.dao;
+
+import java.util.List;
+
+import org.openjfx.hellofx.utils.Database;
+
+// client_visit_stats keeps a visit counter per client so discount lookups don't COUNT(*) the visits table.
+// the counter is bumped by the check-in paths; this DAO reads it and repairs it from the raw visits.
+// a full recount (verify) reads every visit, so it runs from VisitMaintenanceScheduler at night, not at startup.
+// archived visits still count, so every recount covers both visits and visits_archive.
+// memberships carry the same kind of counter (visit_count), bumped by the same check-in paths and
+// backfilled and verified here alongside the client counters.
+public class VisitStatsDAO {
+
+    private static final int VERIFY_CHUNK = 1000;
+    // the maintenance_runs row recording that memberships.visit_count was backfilled
+    private static final String MEMBERSHIP_BACKFILL = "membership_visit_backfill";
+
+    public int getVisitCount(Long clientId) {
+        if (clientId == null) return 0;
+        List<Long> res = Database.jdbc().query(
+            "SELECT visit_count FROM client_visit_stats WHERE client_id = ?",
+            ps -> ps.setLong(1, clientId),
+            (rs, i) -> rs.getLong("visit_count")
+        );
+        return res.isEmpty() ? 0 : res.get(0).intValue();
+    }
+
+    // recounts one client from the visit tables.
+    // INSERT ... SELECT locks the counted rows, so a concurrent check-in can't slip between count and write.
+    public void repairClient(Long clientId) {
+        if (clientId == null) return;
+        Database.jdbc().update("""
+            INSERT INTO client_visit_stats (client_id, visit_count)
+            SELECT * FROM (
+                SELECT ? AS client_id,
+                       (SELECT COUNT(*) FROM visits WHERE client_id = ?)
+                     + (SELECT COUNT(*) FROM visits_archive WHERE client_id = ?) AS cnt
+            ) AS src
+            ON DUPLICATE KEY UPDATE visit_count = src.cnt
+        """, clientId, clientId, clientId);
+    }
+
+    // one-shot backfill for an existing database: counts every client's visits in a single pass
+    public int backfill() {
+        return Database.jdbc().update("""
+            INSERT INTO client_visit_stats (client_id, visit_count)
+            SELECT * FROM (
+                SELECT client_id, COUNT(*) AS cnt
+                FROM (SELECT client_id FROM visits UNION ALL SELECT client_id FROM visits_archive) AS v
+                GROUP BY client_id
+            ) AS src
+            ON DUPLICATE KEY UPDATE visit_count = src.cnt
+        """);
+    }
+
+    // the backfills, for a database that predates the counters: the client counters only when their table
+    // is still empty while visits exist, the membership counters once, remembered in maintenance_runs.
+    // otherwise it costs a few index probes, so it can run on every start
+    public int backfillIfMissing() {
+        Boolean missing = Database.jdbc().queryForObject("""
+            SELECT NOT EXISTS (SELECT 1 FROM client_visit_stats)
+               AND (EXISTS (SELECT 1 FROM visits) OR EXISTS (SELECT 1 FROM visits_archive))
+        """, Boolean.class);
+        int clients = Boolean.TRUE.equals(missing) ? backfill() : 0;
+
+        Integer done = Database.jdbc().queryForObject(
+            "SELECT COUNT(*) FROM maintenance_runs WHERE job = ?", Integer.class, MEMBERSHIP_BACKFILL);
+        if (done != null && done > 0) return clients;
+        int memberships = backfillMemberships();
+        Database.jdbc().update("""
+            INSERT INTO maintenance_runs (job, last_run_at) VALUES (?, NOW()) AS new
+            ON DUPLICATE KEY UPDATE last_run_at = new.last_run_at
+        """, MEMBERSHIP_BACKFILL);
+        return clients + memberships;
+    }
+
+    // the same backfill for the per-membership counters (memberships.visit_count) the timeline reads
+    public int backfillMemberships() {
+        return Database.jdbc().update("""
+            UPDATE memberships m
+            JOIN (
+                SELECT membership_id, COUNT(*) AS cnt
+                FROM (SELECT membership_id FROM visits UNION ALL SELECT membership_id FROM visits_archive) AS v
+                WHERE membership_id IS NOT NULL
+                GROUP BY membership_id
+            ) AS src ON src.membership_id = m.id
+            SET m.visit_count = src.cnt
+        """);
+    }
+
+    // recounts one membership's visit_count from the visit tables
+    public void repairMembership(Long membershipId) {
+        if (membershipId == null) return;
+        Database.jdbc().update("""
+            UPDATE memberships
+            SET visit_count = (SELECT COUNT(*) FROM visits WHERE membership_id = ?)
+                            + (SELECT COUNT(*) FROM visits_archive WHERE membership_id = ?)
+            WHERE id = ?
+        """, membershipId, membershipId, membershipId);
+    }
+
+    // walks all clients and then all memberships in id order, compares the stored counters with the raw
+    // visit counts and (optionally) repairs the ones that drifted. returns how many counters were off.
+    public int verify(boolean repair) {
+        return verifyClients(repair) + verifyMemberships(repair);
+    }
+
+    private int verifyClients(boolean repair) {
+        String sql = """
+            SELECT c.id,
+                   COALESCE(s.visit_count, 0) AS stored,
+                   (SELECT COUNT(*) FROM visits v WHERE v.client_id = c.id)
+                 + (SELECT COUNT(*) FROM visits_archive a WHERE a.client_id = c.id) AS actual
+            FROM clients c
+            LEFT JOIN client_visit_stats s ON s.client_id = c.id
+            WHERE c.id > ?
+            ORDER BY c.id
+            LIMIT ?
+        """;
+        int mismatched = 0;
+        long lastId = 0;
+        while (true) {
+            long after = lastId;
+            List<long[]> chunk = Database.jdbc().query(sql, ps -> {
+                ps.setLong(1, after);
+                ps.setInt(2, VERIFY_CHUNK);
+            }, (rs, i) -> new long[] {rs.getLong("id"), rs.getLong("stored"), rs.getLong("actual")});
+            if (chunk.isEmpty()) break;
+            for (long[] row : chunk) {
+                if (row[1] != row[2]) {
+                    mismatched++;
+                    if (repair) repairClient(row[0]);
+                }
+            }
+            lastId = chunk.get(chunk.size() - 1)[0];
+        }
+        return mismatched;
+    }
+
+    private int verifyMemberships(boolean repair) {
+        String sql = """
+            SELECT m.id,
+                   m.visit_count AS stored,
+                   (SELECT COUNT(*) FROM visits v WHERE v.membership_id = m.id)
+                 + (SELECT COUNT(*) FROM visits_archive a WHERE a.membership_id = m.id) AS actual
+            FROM memberships m
+            WHERE m.id > ?
+            ORDER BY m.id
+            LIMIT ?
+        """;
+        int mismatched = 0;
+        long lastId = 0;
+        while (true) {
+            long after = lastId;
+            List<long[]> chunk = Database.jdbc().query(sql, ps -> {
+                ps.setLong(1, after);
+                ps.setInt(2, VERIFY_CHUNK);
+            }, (rs, i) -> new long[] {rs.getLong("id"), rs.getLong("stored"), rs.getLong("actual")});
+            if (chunk.isEmpty()) break;
+            for (long[] row : chunk) {
+                if (row[1] != row[2]) {
+                    mismatched++;
+                    if (repair) repairMembership(row[0]);
+                }
+            }
+            lastId = chunk.get(chunk.size() - 1)[0];
+        }
+        return mismatched;
+    }
+}
@@ -13,5 +13,9 @@ public record DiscountRule(
     public int getDiscountPercent() {
         return discountPercent;
     }
+
+    public double applyTo(double price) {
+        return price * (100 - discountPercent) / 100.0;
+    }
 }
     
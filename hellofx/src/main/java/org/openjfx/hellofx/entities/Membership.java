@@ -7,6 +7,34 @@ import java.time.LocalDate;
 public record Membership(Long id, LocalDate startDate, LocalDate expiresAt, double price, MembershipType type, Long idOfHolder, int visitsRemaining ){
 
     public enum MembershipType{
-        Monthly, Yearly, Weekly, Ten
+        Monthly, Yearly, Weekly, Ten;
+
+        // last day of a membership of this type that starts on the given day
+        public LocalDate expiryFor(LocalDate start) {
+            return switch (this) {
+                case Monthly -> start.plusMonths(1);
+                case Yearly -> start.plusYears(1);
+                case Weekly -> start.plusWeeks(1);
+                // default expiry window for 10 visits
+                case Ten -> start.plusMonths(3);
+            };
+        }
+
+        public int includedVisits() {
+            return this == Ten ? 10 : 0;
+        }
+    }
+
+    // the memberships.status column
+    public enum Status {
+        PENDING, ACTIVE, EXPIRED, EXHAUSTED
+    }
+
+    // status on the given day, by the same rules the status sweep applies in SQL
+    public Status statusOn(LocalDate day) {
+        if (expiresAt != null && expiresAt.isBefore(day)) return Status.EXPIRED;
+        if (type == MembershipType.Ten && visitsRemaining <= 0) return Status.EXHAUSTED;
+        if (startDate != null && startDate.isAfter(day)) return Status.PENDING;
+        return Status.ACTIVE;
     }
 }
@@ -0,0 +1,18 @@
+package org.openjfx.hellofx.model;
+
+/**
+ * Outcome of a single check-in attempt, as reported by the check_in_client procedure.
+ */
+public record CheckInResult(
+    Status status,
+    Long membershipId,
+    Integer visitsRemaining
+) {
+    public enum Status {
+        ACCEPTED, NO_MEMBERSHIP, EXHAUSTED
+    }
+
+    public boolean accepted() {
+        return status == Status.ACCEPTED;
+    }
+}
@@ -0,0 +1,14 @@
+package org.openjfx.hellofx.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One saved version of the discount rules. Rule sets are never changed after they are saved,
+ * so a membership's discount can always be traced back to the rules that priced it.
+ */
+public record DiscountRuleSet(
+    long id,
+    LocalDateTime createdAt,
+    LocalDateTime activatesAt,
+    boolean active
+) {}
@@ -0,0 +1,86 @@
+package org.openjfx.hellofx.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.openjfx.hellofx.entities.DiscountRule;
+
+/**
+ * Immutable snapshot of the discount rules, sorted by visit threshold, for lookups without the database.
+ * Thresholds sit in a primitive array for a binary search, and every tier's Optional is built up front,
+ * so a lookup allocates nothing. A new rule set means a new snapshot with a higher version.
+ */
+public final class DiscountTiers {
+
+    public static final DiscountTiers EMPTY = new DiscountTiers(0, new DiscountRule[0]);
+
+    private final long version;
+    private final DiscountRule[] sorted;
+    private final int[] thresholds;
+    private final int[] percents;
+    private final Optional<DiscountRule>[] rules;
+
+    @SuppressWarnings("unchecked")
+    private DiscountTiers(long version, DiscountRule[] sorted) {
+        this.version = version;
+        this.sorted = sorted;
+        this.thresholds = new int[sorted.length];
+        this.percents = new int[sorted.length];
+        this.rules = new Optional[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            thresholds[i] = sorted[i].visitsThreshold();
+            percents[i] = sorted[i].discountPercent();
+            rules[i] = Optional.of(sorted[i]);
+        }
+    }
+
+    // rules with the same threshold keep the larger discount, like a customer would expect
+    public static DiscountTiers of(long version, Collection<DiscountRule> rules) {
+        DiscountRule[] sorted = rules.stream()
+            .sorted(Comparator.comparingInt(DiscountRule::visitsThreshold)
+                .thenComparingInt(DiscountRule::discountPercent))
+            .toArray(DiscountRule[]::new);
+        int n = 0;
+        for (DiscountRule rule : sorted) {
+            if (n > 0 && sorted[n - 1].visitsThreshold() == rule.visitsThreshold()) {
+                sorted[n - 1] = rule;
+            } else {
+                sorted[n++] = rule;
+            }
+        }
+        return new DiscountTiers(version, Arrays.copyOf(sorted, n));
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return thresholds.length;
+    }
+
+    // the rules by ascending threshold
+    public List<DiscountRule> rules() {
+        return List.of(sorted);
+    }
+
+    // the rule with the highest threshold the visit count reaches
+    public Optional<DiscountRule> ruleFor(int visitCount) {
+        int i = floorIndex(visitCount);
+        return i < 0 ? Optional.empty() : rules[i];
+    }
+
+    // 0 when no rule applies
+    public int percentFor(int visitCount) {
+        int i = floorIndex(visitCount);
+        return i < 0 ? 0 : percents[i];
+    }
+
+    private int floorIndex(int visitCount) {
+        int i = Arrays.binarySearch(thresholds, visitCount);
+        return i >= 0 ? i : -i - 2;
+    }
+}
@@ -0,0 +1,17 @@
+package org.openjfx.hellofx.model;
+
+/**
+ * Result of a bulk client import. Every data row of the file is either imported or rejected;
+ * rejected rows are listed in the rejects file with their line number and reason.
+ */
+public record ImportReport(
+    long rows,
+    long clients,
+    long memberships,
+    long rejected,
+    long millis
+) {
+    public double rowsPerSecond() {
+        return millis == 0 ? rows : rows * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,27 @@
+package org.openjfx.hellofx.model;
+
+import org.openjfx.hellofx.entities.DiscountRule;
+import org.openjfx.hellofx.entities.Membership;
+
+/**
+ * One planned renewal: the membership that runs out, the membership that follows it
+ * and the discount rule that priced it (null when none matched).
+ */
+public record MembershipRenewal(
+    long previousId,
+    Membership membership,
+    int visitCount,
+    DiscountRule discount
+) {
+    public boolean discounted() {
+        return discountPercent() > 0;
+    }
+
+    public int discountPercent() {
+        return discount != null ? discount.discountPercent() : 0;
+    }
+
+    public Integer discountThreshold() {
+        return discount != null ? discount.visitsThreshold() : null;
+    }
+}
@@ -0,0 +1,18 @@
+package org.openjfx.hellofx.model;
+
+/**
+ * Membership state of one client as shown in the search results:
+ * the current membership type (null when there is none), its remaining visits and
+ * whether the client has a dated membership valid today.
+ */
+public record MembershipStatus(
+    String type,
+    Integer visitsRemaining,
+    boolean active
+) {
+    public static final MembershipStatus NONE = new MembershipStatus(null, null, false);
+
+    public boolean hasMembership() {
+        return type != null;
+    }
+}
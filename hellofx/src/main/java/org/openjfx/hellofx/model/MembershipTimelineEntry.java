@@ -0,0 +1,18 @@
+package org.openjfx.hellofx.model;
+
+import java.time.LocalDate;
+
+/**
+ * One membership in a client's timeline, with the number of visits checked in on it.
+ * visitsRemaining is only set for Ten passes.
+ */
+public record MembershipTimelineEntry(
+    Long membershipId,
+    LocalDate startDate,
+    LocalDate expiresAt,
+    String type,
+    String status,
+    double price,
+    Integer visitsRemaining,
+    int visits
+) { }
@@ -0,0 +1,24 @@
+package org.openjfx.hellofx.model;
+
+import java.util.List;
+
+/**
+ * Result of a bulk renewal run. A dry run holds the same renewals a real run would insert,
+ * without writing any of them.
+ */
+public record RenewalReport(
+    boolean dryRun,
+    List<MembershipRenewal> renewals
+) {
+    public int count() {
+        return renewals.size();
+    }
+
+    public int discountedCount() {
+        return (int) renewals.stream().filter(MembershipRenewal::discounted).count();
+    }
+
+    public double totalPrice() {
+        return renewals.stream().mapToDouble(r -> r.membership().price()).sum();
+    }
+}
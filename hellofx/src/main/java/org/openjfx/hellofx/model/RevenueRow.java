@@ -0,0 +1,15 @@
+package org.openjfx.hellofx.model;
+
+import java.time.LocalDate;
+
+/**
+ * One rollup row of the revenue report: memberships of one type and discount percent
+ * starting in the period (a day, or a month starting on that date).
+ */
+public record RevenueRow(
+    LocalDate period,
+    String type,
+    int discountPercent,
+    int memberships,
+    double revenue
+) { }
@@ -0,0 +1,13 @@
+package org.openjfx.hellofx.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position in the visit history: the last row of the previous page.
+ */
+public record VisitCursor(LocalDateTime checkIn, Long id) {
+
+    public static VisitCursor after(VisitRow row) {
+        return new VisitCursor(row.checkIn(), row.id());
+    }
+}
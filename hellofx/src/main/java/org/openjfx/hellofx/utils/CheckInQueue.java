@@ -0,0 +1,159 @@
+package org.openjfx.hellofx.utils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjfx.hellofx.dao.DaoFactory;
+import org.openjfx.hellofx.dao.VisitDAO;
+import org.openjfx.hellofx.model.CheckInResult;
+
+// asynchronous check-in pipeline (group commit).
+// callers get a future right away; a single writer thread collects whatever arrives within
+// a short window and commits it as one VisitDAO.checkInBatch transaction.
+public class CheckInQueue implements AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 10_000;
+    private static final long DEFAULT_WINDOW_MILLIS = 5;
+    private static final int DEFAULT_MAX_BATCH = 500;
+
+    private static CheckInQueue shared;
+
+    private record Request(Long clientId, Instant submittedAt, CompletableFuture<CheckInResult> future) {}
+
+    private final VisitDAO visitDAO;
+    private final BlockingQueue<Request> queue;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final Thread writer;
+    private final AtomicLong commits = new AtomicLong();
+    // guards closed together with the enqueue, so nothing is queued after the writer has stopped looking
+    private final Object enqueueLock = new Object();
+    private volatile boolean closed;
+
+    public CheckInQueue(VisitDAO visitDAO, int capacity, long windowMillis, int maxBatch) {
+        this.visitDAO = visitDAO;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatch = maxBatch;
+        this.writer = new Thread(this::drainLoop, "check-in-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public static synchronized CheckInQueue shared() {
+        if (shared == null) {
+            shared = new CheckInQueue(DaoFactory.visits(), DEFAULT_CAPACITY, DEFAULT_WINDOW_MILLIS, DEFAULT_MAX_BATCH);
+        }
+        return shared;
+    }
+
+    public static synchronized void shutdownShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    // never blocks: when the queue is full or closed the future fails with RejectedExecutionException
+    public CompletableFuture<CheckInResult> submit(Long clientId) {
+        CompletableFuture<CheckInResult> future = new CompletableFuture<>();
+        if (clientId == null) {
+            future.completeExceptionally(new IllegalArgumentException("clientId is required"));
+            return future;
+        }
+        synchronized (enqueueLock) {
+            if (closed) {
+                future.completeExceptionally(new RejectedExecutionException("check-in queue is closed"));
+            } else if (!queue.offer(new Request(clientId, Instant.now(), future))) {
+                future.completeExceptionally(new RejectedExecutionException("check-in queue is full"));
+            }
+        }
+        return future;
+    }
+
+    public long commitCount() {
+        return commits.get();
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    // stops accepting new check-ins and waits for the writer to commit what is already queued
+    @Override
+    public void close() {
+        synchronized (enqueueLock) {
+            closed = true;
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<Request> batch = new ArrayList<>(maxBatch);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Request first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    Request next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                commit(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            // however the writer stops, nobody is left waiting: later submits are refused and whatever
+            // was taken or still queued fails, since it was never committed
+            synchronized (enqueueLock) {
+                closed = true;
+            }
+            queue.drainTo(batch);
+            RejectedExecutionException stopped = new RejectedExecutionException("check-in writer stopped");
+            for (Request r : batch) {
+                r.future().completeExceptionally(stopped);
+            }
+        }
+    }
+
+    private void commit(List<Request> batch) {
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (Request r : batch) {
+            ids.add(r.clientId());
+        }
+        try {
+            // the oldest press in the group decides the recorded check-in time;
+            // a client pressed twice in one group is checked in once and both callers get that result
+            Map<Long, CheckInResult> results = visitDAO.checkInBatch(ids, batch.get(0).submittedAt());
+            commits.incrementAndGet();
+            for (Request r : batch) {
+                r.future().complete(results.get(r.clientId()));
+            }
+        } catch (Throwable e) {
+            for (Request r : batch) {
+                r.future().completeExceptionally(e);
+            }
+            // the callers know; an Error still stops the writer, which fails everything after it
+            if (e instanceof Error error) throw error;
+        }
+    }
+}
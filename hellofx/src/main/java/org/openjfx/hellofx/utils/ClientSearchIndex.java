@@ -0,0 +1,330 @@
+package org.openjfx.hellofx.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.openjfx.hellofx.entities.Client;
+
+// in-memory substring index over client names and emails, for the typeahead fields.
+// every client's normalized "name email" text (lower case, no diacritics) is cut into trigrams, and each
+// trigram keeps a posting list of document numbers in plain int arrays. results are ranked: a name or email
+// prefix first, then a word prefix inside the name, then any substring, and within a rank clients keep
+// insertion order (id order after a load). the first trigram of every field and of every name word is also
+// posted under a marked key, so each rank is read from its own list: prefixes from the field-start list,
+// word prefixes from the word-start list, substrings from the shortest plain list among the query's trigrams.
+// candidates are checked with a contains and the search stops once it has k, which keeps a query in
+// microseconds unless its trigrams are common and its matches rare. queries under 3 characters scan the texts.
+// loaded once at startup (ClientDAO.loadSearchIndex) and kept current by the client inserts.
+public class ClientSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final char SEPARATOR = '\u0001';
+    private static final int RANK_PREFIX = 0, RANK_WORD = 1, RANK_SUBSTRING = 2;
+    // marks on the trigram keys of the boundary lists, above the 48 bits of three chars
+    private static final long FIELD_START = 1L << 48, WORD_START = 1L << 49;
+
+    private static final ClientSearchIndex SHARED = new ClientSearchIndex();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // all guarded by lock
+    private Postings postings = new Postings(16);
+    private boolean loaded;
+    // clients added while a load is reading the database, replayed into the loaded postings
+    private List<Client> addedDuringLoad;
+
+    public static ClientSearchIndex shared() {
+        return SHARED;
+    }
+
+    // until the first load the index knows only the clients added since, so callers go to SQL
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return postings.size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // replaces the contents with the clients the source returns, which must be in id order.
+    // the new postings are built outside the lock, so searches keep answering from the old ones meanwhile
+    public void load(Supplier<List<Client>> source) {
+        lock.writeLock().lock();
+        try {
+            addedDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Postings fresh = null;
+        try {
+            List<Client> clients = source.get();
+            fresh = new Postings(clients.size());
+            for (Client c : clients) {
+                fresh.add(c);
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (fresh != null) {
+                    // the source may or may not have seen a client added while it ran
+                    for (Client c : addedDuringLoad) {
+                        if (!fresh.containsId(c.id())) fresh.add(c);
+                    }
+                    postings = fresh;
+                    loaded = true;
+                }
+                addedDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void add(Client client) {
+        addAll(List.of(client));
+    }
+
+    public void addAll(Collection<Client> clients) {
+        lock.writeLock().lock();
+        try {
+            for (Client c : clients) {
+                postings.add(c);
+                if (addedDuringLoad != null) addedDuringLoad.add(c);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // forgets every client, for tests switching to another database
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings = new Postings(16);
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // at most limit clients whose name or email contains the query, best ranked first
+    public List<Client> search(String query, int limit) {
+        String q = normalize(query).strip();
+        if (q.isEmpty() || limit <= 0) return List.of();
+        lock.readLock().lock();
+        try {
+            Postings p = postings;
+            List<Client> result = new ArrayList<>(Math.min(limit, 16));
+            if (q.length() < GRAM) {
+                // no trigram to look up: one pass over the texts, ranks kept apart until the end
+                int[][] hits = new int[3][limit];
+                int[] counts = new int[3];
+                for (int doc = 0; doc < p.size && counts[RANK_PREFIX] < limit; doc++) {
+                    int rank = rankOf(p, doc, q);
+                    if (rank >= 0 && counts[rank] < limit) hits[rank][counts[rank]++] = doc;
+                }
+                for (int rank = 0; rank < 3; rank++) {
+                    for (int i = 0; i < counts[rank] && result.size() < limit; i++) {
+                        result.add(p.clients[hits[rank][i]]);
+                    }
+                }
+                return result;
+            }
+            int driver = -1;
+            for (int i = 0; i + GRAM <= q.length(); i++) {
+                int slot = p.slot(gram(q, i));
+                if (slot < 0) return result;
+                if (driver < 0 || p.lengths[slot] < p.lengths[driver]) driver = slot;
+            }
+            // a boundary list can be longer than the rarest trigram's ("cli" starts every clientN@ email),
+            // then the rank is filtered out of that one instead; both are in document order
+            long first = gram(q, 0);
+            collect(p, shorter(p, p.slot(first | FIELD_START), driver), q, RANK_PREFIX, result, limit);
+            collect(p, shorter(p, p.slot(first | WORD_START), driver), q, RANK_WORD, result, limit);
+            collect(p, driver, q, RANK_SUBSTRING, result, limit);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int shorter(Postings p, int boundary, int driver) {
+        return boundary < 0 || p.lengths[boundary] <= p.lengths[driver] ? boundary : driver;
+    }
+
+    // adds the clients of one posting list that match q with the given rank, until there are limit results
+    private static void collect(Postings p, int slot, String q, int rank, List<Client> result, int limit) {
+        if (slot < 0) return;
+        int[] docs = p.lists[slot];
+        int n = p.lengths[slot];
+        for (int i = 0; i < n && result.size() < limit; i++) {
+            if (rankOf(p, docs[i], q) == rank) result.add(p.clients[docs[i]]);
+        }
+    }
+
+    // rank of the document for q, -1 when it doesn't contain q
+    private static int rankOf(Postings p, int doc, String q) {
+        String text = p.texts[doc];
+        int at = text.indexOf(q);
+        return at < 0 ? -1 : rank(text, p.nameLengths[doc], q, at);
+    }
+
+    // first is the first occurrence of q in text
+    private static int rank(String text, int nameLength, String q, int first) {
+        if (first == 0 || text.startsWith(q, nameLength + 1)) return RANK_PREFIX;
+        for (int at = first; at >= 0 && at < nameLength; at = text.indexOf(q, at + 1)) {
+            char before = text.charAt(at - 1);
+            if (before == ' ' || before == '-') return RANK_WORD;
+        }
+        return RANK_SUBSTRING;
+    }
+
+    // lower case without diacritics, so "sime" finds "Šimek" like the database's accent-insensitive LIKE
+    static String normalize(String s) {
+        if (s == null) return "";
+        String decomposed = Normalizer.normalize(s, Normalizer.Form.NFD);
+        StringBuilder b = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char ch = decomposed.charAt(i);
+            if (Character.getType(ch) == Character.NON_SPACING_MARK) continue;
+            b.append(Character.toLowerCase(ch));
+        }
+        return b.toString();
+    }
+
+    private static long gram(String s, int i) {
+        return (long) s.charAt(i) << 32 | (long) s.charAt(i + 1) << 16 | s.charAt(i + 2);
+    }
+
+    // documents in insertion order plus an open-addressing table from trigram to posting list.
+    // not thread-safe, the index guards it
+    private static final class Postings {
+        private Client[] clients;
+        private String[] texts;
+        private int[] nameLengths;
+        private int size;
+
+        private long[] grams;
+        private int[][] lists;
+        private int[] lengths;
+        private int gramCount;
+
+        Postings(int expectedClients) {
+            int capacity = Math.max(16, expectedClients);
+            clients = new Client[capacity];
+            texts = new String[capacity];
+            nameLengths = new int[capacity];
+            grams = new long[1024];
+            lists = new int[1024][];
+            lengths = new int[1024];
+        }
+
+        void add(Client c) {
+            if (size == clients.length) {
+                int capacity = size * 2;
+                clients = Arrays.copyOf(clients, capacity);
+                texts = Arrays.copyOf(texts, capacity);
+                nameLengths = Arrays.copyOf(nameLengths, capacity);
+            }
+            String name = normalize(c.name());
+            String text = name + SEPARATOR + normalize(c.email());
+            int doc = size++;
+            clients[doc] = c;
+            texts[doc] = text;
+            nameLengths[doc] = name.length();
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                long gram = gram(text, i);
+                append(gram, doc);
+                if (i == 0 || i == name.length() + 1) {
+                    append(gram | FIELD_START, doc);
+                } else if (i < name.length() && (text.charAt(i - 1) == ' ' || text.charAt(i - 1) == '-')) {
+                    append(gram | WORD_START, doc);
+                }
+            }
+        }
+
+        // client ids arrive in ascending order from a load and from inserts
+        boolean containsId(Long id) {
+            int lo = 0, hi = size - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = clients[mid].id().compareTo(id);
+                if (cmp == 0) return true;
+                if (cmp < 0) lo = mid + 1; else hi = mid - 1;
+            }
+            return false;
+        }
+
+        // slot of the trigram's posting list, -1 when no client has it
+        int slot(long gram) {
+            int mask = grams.length - 1;
+            for (int i = hash(gram) & mask; ; i = (i + 1) & mask) {
+                if (lists[i] == null) return -1;
+                if (grams[i] == gram) return i;
+            }
+        }
+
+        private void append(long gram, int doc) {
+            int mask = grams.length - 1;
+            int i = hash(gram) & mask;
+            while (lists[i] != null && grams[i] != gram) {
+                i = (i + 1) & mask;
+            }
+            if (lists[i] == null) {
+                grams[i] = gram;
+                lists[i] = new int[4];
+                if (++gramCount * 2 > grams.length) {
+                    rehash();
+                    append(gram, doc);
+                    return;
+                }
+            }
+            int n = lengths[i];
+            // a trigram repeated within one text is posted once
+            if (n > 0 && lists[i][n - 1] == doc) return;
+            if (n == lists[i].length) lists[i] = Arrays.copyOf(lists[i], n * 2);
+            lists[i][n] = doc;
+            lengths[i] = n + 1;
+        }
+
+        private void rehash() {
+            long[] oldGrams = grams;
+            int[][] oldLists = lists;
+            int[] oldLengths = lengths;
+            grams = new long[oldGrams.length * 2];
+            lists = new int[grams.length][];
+            lengths = new int[grams.length];
+            int mask = grams.length - 1;
+            for (int j = 0; j < oldGrams.length; j++) {
+                if (oldLists[j] == null) continue;
+                int i = hash(oldGrams[j]) & mask;
+                while (lists[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                grams[i] = oldGrams[j];
+                lists[i] = oldLists[j];
+                lengths[i] = oldLengths[j];
+            }
+        }
+
+        private static int hash(long gram) {
+            long h = gram * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
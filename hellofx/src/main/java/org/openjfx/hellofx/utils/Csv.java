@@ -0,0 +1,124 @@
+package org.openjfx.hellofx.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// the CSV dialect of the visit export and the client import: comma separated, fields with a comma,
+// quote or line break are quoted and quotes inside them are doubled
+public final class Csv {
+
+    private Csv() {
+    }
+
+    public static void appendField(StringBuilder buf, String value) {
+        if (value == null) return;
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            buf.append(value);
+            return;
+        }
+        buf.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    // streaming reader, one record per next() straight from a 64K buffer, so memory doesn't grow with the file.
+    // quoted fields may span lines; blank lines are skipped. a quote inside an unquoted field is kept as is.
+    public static final class Reader implements AutoCloseable {
+
+        private final java.io.Reader in;
+        private final char[] buf = new char[64 * 1024];
+        private int pos;
+        private int len;
+        private long line = 1;
+        private long recordLine;
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+
+        public Reader(java.io.Reader in) {
+            this.in = in;
+        }
+
+        // the next record, null at the end of the input
+        public String[] next() throws IOException {
+            fields.clear();
+            field.setLength(0);
+            recordLine = line;
+            boolean quoted = false;
+            boolean empty = true;
+            while (true) {
+                int c = read();
+                if (c < 0) {
+                    if (quoted) throw new IOException("unterminated quoted field starting on line " + recordLine);
+                    if (empty) return null;
+                    return endRecord();
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            pos++;
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        field.append((char) c);
+                    }
+                    continue;
+                }
+                if (c == '\r' || c == '\n') {
+                    if (c == '\r' && peek() == '\n') pos++;
+                    line++;
+                    if (empty) {
+                        recordLine = line;
+                        continue;
+                    }
+                    return endRecord();
+                }
+                empty = false;
+                if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else {
+                    field.append((char) c);
+                }
+            }
+        }
+
+        // line the record last returned by next() starts on, counting from 1
+        public long lineNumber() {
+            return recordLine;
+        }
+
+        private String[] endRecord() {
+            fields.add(field.toString());
+            return fields.toArray(new String[0]);
+        }
+
+        private int read() throws IOException {
+            if (pos == len && !fill()) return -1;
+            return buf[pos++];
+        }
+
+        private int peek() throws IOException {
+            if (pos == len && !fill()) return -1;
+            return buf[pos];
+        }
+
+        private boolean fill() throws IOException {
+            len = in.read(buf, 0, buf.length);
+            pos = 0;
+            if (len <= 0) {
+                len = 0;
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
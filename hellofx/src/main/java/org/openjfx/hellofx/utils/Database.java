@@ -3,6 +3,8 @@ package org.openjfx.hellofx.utils;
 import java.lang.reflect.Field;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.sql.DataSource;
 
@@ -21,8 +23,9 @@ public class Database {
             ? "3306"
             : dotenv.get("DB_PORT");
 
+    // rewriteBatchedStatements turns a JDBC batch of INSERTs into multi-row INSERTs (one round trip per batch)
     private static final String URL =
-        "jdbc:mysql://127.0.0.1:" + PORT + "/gym_db?allowPublicKeyRetrieval=true&useSSL=false";
+        "jdbc:mysql://127.0.0.1:" + PORT + "/gym_db?allowPublicKeyRetrieval=true&useSSL=false&rewriteBatchedStatements=true";
 
     private static final String USER = dotenv.get("DB_USER");
     private static final String PASSWORD = dotenv.get("DB_PASSWORD");
@@ -31,6 +34,9 @@ public class Database {
     private static final HikariDataSource dataSource;
     private static final JdbcTemplate jdbcTemplate;
 
+    // caches of rows from the current database, cleared when tests swap in another one
+    private static final List<Runnable> swapListeners = new CopyOnWriteArrayList<>();
+
     static {
         HikariConfig cfg = new HikariConfig();
         cfg.setJdbcUrl(URL);
@@ -50,6 +56,17 @@ public class Database {
         return jdbcTemplate;
     }
 
+    // optional setting from .env, with a default for when it is missing or blank
+    public static String setting(String key, String fallback) {
+        String value = dotenv.get(key);
+        return (value == null || value.isBlank()) ? fallback : value;
+    }
+
+    // upper layers that cache database rows register how to forget them
+    public static void onDataSourceSwap(Runnable reset) {
+        swapListeners.add(reset);
+    }
+
     // method to prevent errors, if some code is still using manual jdbc
     public static Connection getConnection() throws SQLException {
         return dataSource.getConnection();
@@ -59,7 +76,12 @@ public class Database {
      * Test-only hook: allows Testcontainers to supply its JDBC URL/credentials.
      * Rebuilds the underlying HikariDataSource and JdbcTemplate.
      */
-    public static synchronized void overrideDataSourceForTests(String jdbcUrl, String user, String pass) {
+    public static void overrideDataSourceForTests(String jdbcUrl, String user, String pass) {
+        overrideDataSourceForTests(jdbcUrl, user, pass, 5);
+    }
+
+    // same, with a pool big enough for concurrency tests that need that many sessions at once
+    public static synchronized void overrideDataSourceForTests(String jdbcUrl, String user, String pass, int poolSize) {
         if (dataSource != null) {
             dataSource.close();
         }
@@ -67,7 +89,7 @@ public class Database {
         cfg.setJdbcUrl(jdbcUrl);
         cfg.setUsername(user);
         cfg.setPassword(pass);
-        cfg.setMaximumPoolSize(5);
+        cfg.setMaximumPoolSize(poolSize);
         cfg.setPoolName("gym_db_pool_test");
         HikariDataSource testDs = new HikariDataSource(cfg);
         try {
@@ -81,5 +103,7 @@ public class Database {
         } catch (NoSuchFieldException | IllegalAccessException e) {
             throw new IllegalStateException("Failed to override datasource for tests", e);
         }
+        // cached rows belong to the previous database
+        swapListeners.forEach(Runnable::run);
     }
 }
@@ -0,0 +1,102 @@
+package org.openjfx.hellofx.utils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.openjfx.hellofx.model.MembershipStatus;
+
+// bounded cache of membership status per client, in front of the MembershipDAO status reads.
+// entries leave on size (least recently used first) and on age; writers invalidate the holder they touched.
+// every invalidation bumps a generation, and a load that started before it is not stored,
+// so a read racing with a write can't put the old status back.
+public class MembershipStatusCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+    private static final MembershipStatusCache SHARED =
+        new MembershipStatusCache(DEFAULT_MAX_ENTRIES, DEFAULT_TTL, System::nanoTime);
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+
+        // share of lookups answered from the cache, 0 before the first one
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private record Entry(MembershipStatus status, long loadedAt) {}
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<Long, Entry> entries;
+
+    // all guarded by this
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public MembershipStatusCache(int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() <= MembershipStatusCache.this.maxEntries) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public static MembershipStatusCache shared() {
+        return SHARED;
+    }
+
+    // cached status, or null when the client has to be loaded
+    public synchronized MembershipStatus get(Long clientId) {
+        Entry e = entries.get(clientId);
+        if (e != null && nanoClock.getAsLong() - e.loadedAt() >= ttlNanos) {
+            entries.remove(clientId);
+            evictions++;
+            e = null;
+        }
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.status();
+    }
+
+    // read before loading from the database and pass to putAll
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized void putAll(Map<Long, MembershipStatus> loaded, long loadGeneration) {
+        if (loadGeneration != generation) return;
+        long now = nanoClock.getAsLong();
+        loaded.forEach((id, status) -> entries.put(id, new Entry(status, now)));
+    }
+
+    public synchronized void invalidate(Long clientId) {
+        generation++;
+        entries.remove(clientId);
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size());
+    }
+}
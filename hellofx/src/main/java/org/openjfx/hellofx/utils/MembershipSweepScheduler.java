@@ -0,0 +1,83 @@
+package org.openjfx.hellofx.utils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjfx.hellofx.dao.DaoFactory;
+import org.openjfx.hellofx.dao.MembershipDAO;
+
+// runs MembershipDAO.sweepStatuses shortly after every midnight, and on demand.
+// all sweeps run on one background thread, so a manual sweep never overlaps the nightly one.
+public class MembershipSweepScheduler implements AutoCloseable {
+
+    // a little past midnight, so the new day has started on the database clock too
+    private static final Duration AFTER_MIDNIGHT = Duration.ofMinutes(1);
+
+    private static MembershipSweepScheduler shared;
+
+    private final MembershipDAO membershipDAO;
+    private final ScheduledExecutorService executor;
+
+    public MembershipSweepScheduler(MembershipDAO membershipDAO) {
+        this.membershipDAO = membershipDAO;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "membership-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static synchronized MembershipSweepScheduler shared() {
+        if (shared == null) {
+            shared = new MembershipSweepScheduler(DaoFactory.memberships());
+        }
+        return shared;
+    }
+
+    public static synchronized void shutdownShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    // sweeps once now and then every night
+    public void start() {
+        executor.execute(this::sweep);
+        scheduleNightly();
+    }
+
+    // queues a sweep for today; the future holds how many memberships changed status, or the failure
+    public Future<Integer> sweepNow() {
+        return executor.submit(() -> membershipDAO.sweepStatuses(LocalDate.now()));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // rescheduled every night instead of a fixed 24h rate, so DST changes don't shift it off midnight
+    private void scheduleNightly() {
+        if (executor.isShutdown()) return;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().plusDays(1).atStartOfDay().plus(AFTER_MIDNIGHT);
+        executor.schedule(() -> {
+            sweep();
+            scheduleNightly();
+        }, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void sweep() {
+        try {
+            membershipDAO.sweepStatuses(LocalDate.now());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.openjfx.hellofx.utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+// live count of people in the gym, kept in memory so nobody has to scan today's visits for it.
+// check-ins and check-outs land in per-hour buckets of the current day; the buckets are
+// AtomicLongArrays, so the check-in paths never take a lock and readers only sum a few slots.
+// there is no check-out scanner yet, so occupancy counts a visit as present for STAY_HOURS
+// (the check-ins of the current and previous hour, minus the check-outs of those check-ins).
+// a check-out is booked under the hour of its check-in, so it leaves the window together with it.
+public class OccupancyTracker {
+
+    public static final int STAY_HOURS = 2;
+
+    private static final OccupancyTracker SHARED = new OccupancyTracker();
+
+    private record Day(LocalDate date, AtomicLongArray checkIns, AtomicLongArray checkOuts) {
+        Day(LocalDate date) {
+            this(date, new AtomicLongArray(24), new AtomicLongArray(24));
+        }
+    }
+
+    private final AtomicReference<Day> today = new AtomicReference<>(new Day(LocalDate.now()));
+
+    public static OccupancyTracker shared() {
+        return SHARED;
+    }
+
+    public void recordCheckIn(LocalDateTime at) {
+        Day d = day(at.toLocalDate());
+        if (d != null) d.checkIns().incrementAndGet(at.getHour());
+    }
+
+    // checkedInAt is when the leaving visit checked in
+    public void recordCheckOut(LocalDateTime checkedInAt) {
+        Day d = day(checkedInAt.toLocalDate());
+        if (d != null) d.checkOuts().incrementAndGet(checkedInAt.getHour());
+    }
+
+    public int current() {
+        return occupancyAt(LocalDateTime.now());
+    }
+
+    // reads never switch days: only today's buckets are kept, any other date has nobody in them
+    public int occupancyAt(LocalDateTime now) {
+        Day d = today.get();
+        if (!d.date().equals(now.toLocalDate())) return 0;
+        long present = 0;
+        for (int h = Math.max(0, now.getHour() - STAY_HOURS + 1); h <= now.getHour(); h++) {
+            present += d.checkIns().get(h) - d.checkOuts().get(h);
+        }
+        return (int) Math.max(0, present);
+    }
+
+    // today's check-ins per hour of the day (index 0 = 00:00-00:59)
+    public long[] hourlyCheckIns() {
+        Day d = today.get();
+        long[] copy = new long[24];
+        for (int h = 0; h < 24; h++) {
+            copy[h] = d.checkIns().get(h);
+        }
+        return copy;
+    }
+
+    // rebuilds today's buckets from the check-ins already stored (e.g. after a restart).
+    // meant to run once at startup: check-ins recorded while it runs would be overwritten.
+    public void recover(LocalDate date, long[] checkInsPerHour) {
+        Day d = new Day(date);
+        for (int h = 0; h < 24 && h < checkInsPerHour.length; h++) {
+            d.checkIns().set(h, checkInsPerHour[h]);
+        }
+        today.set(d);
+    }
+
+    // the first check-in or check-out of a new day swaps in fresh buckets; events for a day already gone are dropped
+    private Day day(LocalDate date) {
+        while (true) {
+            Day d = today.get();
+            if (d.date().equals(date)) return d;
+            if (date.isBefore(d.date())) return null;
+            Day next = new Day(date);
+            if (today.compareAndSet(d, next)) return next;
+        }
+    }
+}
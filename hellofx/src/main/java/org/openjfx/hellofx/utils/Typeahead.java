@@ -0,0 +1,116 @@
+package org.openjfx.hellofx.utils;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// debounced, cancellable lookup behind a typeahead field.
+// every text change restarts the debounce timer; when it fires, the query runs on a worker thread, and a
+// newer text change cancels both a pending timer and a query still in flight (interrupting it).
+// each submit takes a ticket and only the latest ticket's result reaches the consumer, on the executor the
+// field lives on (Platform::runLater for JavaFX), so a slow stale query can't overwrite a newer list.
+public class Typeahead<T> implements AutoCloseable {
+
+    public interface Query<T> {
+        T run(String text) throws Exception;
+    }
+
+    // shared by every field: one timer thread, and query workers that die off when typing stops
+    private static final ScheduledExecutorService TIMERS = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "typeahead-timer");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "typeahead-query");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final long debounceNanos;
+    private final Query<T> query;
+    private final Consumer<T> onResult;
+    private final Consumer<Exception> onError;
+    private final Executor resultExecutor;
+    private final AtomicLong latest = new AtomicLong();
+
+    // all guarded by this
+    private ScheduledFuture<?> pendingTimer;
+    private Future<?> inFlight;
+    private boolean closed;
+
+    public Typeahead(Duration debounce, Query<T> query, Consumer<T> onResult, Consumer<Exception> onError,
+                     Executor resultExecutor) {
+        this.debounceNanos = debounce.toNanos();
+        this.query = query;
+        this.onResult = onResult;
+        this.onError = onError;
+        this.resultExecutor = resultExecutor;
+    }
+
+    // call on every text change; the query runs once the text has been still for the debounce time
+    public void submit(String text) {
+        long ticket = latest.incrementAndGet();
+        synchronized (this) {
+            cancelRunning();
+            if (closed) return;
+            pendingTimer = TIMERS.schedule(() -> start(ticket, text), debounceNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // drops whatever is pending or running, e.g. when the field is cleared or a suggestion was picked
+    public void cancel() {
+        latest.incrementAndGet();
+        synchronized (this) {
+            cancelRunning();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        cancel();
+    }
+
+    private synchronized void start(long ticket, String text) {
+        if (closed || ticket != latest.get()) return;
+        pendingTimer = null;
+        inFlight = WORKERS.submit(() -> run(ticket, text));
+    }
+
+    private void run(long ticket, String text) {
+        T result;
+        try {
+            result = query.run(text);
+        } catch (Exception e) {
+            // a cancelled query often fails on the interrupt; nobody is waiting for it
+            deliver(ticket, () -> onError.accept(e));
+            return;
+        }
+        deliver(ticket, () -> onResult.accept(result));
+    }
+
+    // checked again on the result executor: a keystroke may have arrived while the result was queued there
+    private void deliver(long ticket, Runnable apply) {
+        if (ticket != latest.get()) return;
+        resultExecutor.execute(() -> {
+            if (ticket == latest.get()) apply.run();
+        });
+    }
+
+    private void cancelRunning() {
+        if (pendingTimer != null) pendingTimer.cancel(false);
+        if (inFlight != null) inFlight.cancel(true);
+        pendingTimer = null;
+        inFlight = null;
+    }
+}
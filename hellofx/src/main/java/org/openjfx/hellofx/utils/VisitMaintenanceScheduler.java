@@ -0,0 +1,164 @@
+package org.openjfx.hellofx.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjfx.hellofx.dao.DaoFactory;
+import org.openjfx.hellofx.dao.VisitArchiveDAO;
+
+// nightly maintenance of the visit tables, the one place partition DDL and archiving run from: adds the
+// upcoming monthly partitions, moves visits past the archive horizon into visits_archive, drops the
+// partitions that archiving emptied, then compares the visit counters with the raw visits and repairs drift.
+// every desktop client schedules it, but the run takes a MySQL named lock first, so only one client at a
+// time does the work and the others skip that night. the desk is usually closed at RUN_AT, so a client that
+// starts after a missed run does it right away. all runs go through one background thread.
+public class VisitMaintenanceScheduler implements AutoCloseable {
+
+    // well after the membership sweep, while the gym is closed
+    private static final LocalTime RUN_AT = LocalTime.of(3, 0);
+    private static final String LOCK_NAME = "gym_visit_maintenance";
+    // the row in maintenance_runs
+    private static final String JOB = "visit_maintenance";
+    // the nightly run keeps this many months of partitions ahead, so missing a few nights is harmless
+    private static final int MONTHS_AHEAD = 3;
+
+    private static VisitMaintenanceScheduler shared;
+
+    private final ScheduledExecutorService executor;
+
+    public VisitMaintenanceScheduler() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "visit-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static synchronized VisitMaintenanceScheduler shared() {
+        if (shared == null) {
+            shared = new VisitMaintenanceScheduler();
+        }
+        return shared;
+    }
+
+    public static synchronized void shutdownShared() {
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    // fills the counters of a database that predates them and catches up on a missed nightly run right
+    // away, then runs every night
+    public void start() {
+        executor.execute(() -> {
+            try {
+                DaoFactory.visitStats().backfillIfMissing();
+                runLocked(true);
+            } catch (SQLException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+        scheduleNightly();
+    }
+
+    // queues a run now; the future holds whether this client got the lock and did the work
+    public Future<Boolean> runNow() {
+        return executor.submit(() -> runLocked(false));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // rescheduled every night instead of a fixed 24h rate, so DST changes don't shift it
+    private void scheduleNightly() {
+        if (executor.isShutdown()) return;
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(RUN_AT);
+        if (!next.isAfter(now)) next = next.plusDays(1);
+        executor.schedule(() -> {
+            try {
+                runLocked(false);
+            } catch (SQLException | RuntimeException e) {
+                e.printStackTrace();
+            }
+            scheduleNightly();
+        }, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // the lock belongs to the session that took it, so that connection stays open for the whole run.
+    // onlyIfOverdue skips the work when a run already happened since the last RUN_AT, checked under the
+    // lock so two clients starting together don't both catch up
+    private boolean runLocked(boolean onlyIfOverdue) throws SQLException {
+        try (Connection lock = Database.getConnection()) {
+            if (!acquire(lock)) return false;
+            try {
+                if (onlyIfOverdue && !overdue(lock)) return false;
+                maintain();
+                recordRun(lock);
+            } finally {
+                try (PreparedStatement ps = lock.prepareStatement("DO RELEASE_LOCK(?)")) {
+                    ps.setString(1, LOCK_NAME);
+                    ps.execute();
+                }
+            }
+            return true;
+        }
+    }
+
+    private static boolean acquire(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            ps.setString(1, LOCK_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    // overdue when the last completed run is older than the latest RUN_AT that has passed
+    private static boolean overdue(Connection conn) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime due = now.toLocalDate().atTime(RUN_AT);
+        if (due.isAfter(now)) due = due.minusDays(1);
+        try (PreparedStatement ps = conn.prepareStatement("SELECT last_run_at FROM maintenance_runs WHERE job = ?")) {
+            ps.setString(1, JOB);
+            try (ResultSet rs = ps.executeQuery()) {
+                return !rs.next() || rs.getTimestamp("last_run_at").toLocalDateTime().isBefore(due);
+            }
+        }
+    }
+
+    private static void recordRun(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("""
+            INSERT INTO maintenance_runs (job, last_run_at) VALUES (?, ?) AS new
+            ON DUPLICATE KEY UPDATE last_run_at = new.last_run_at
+        """)) {
+            ps.setString(1, JOB);
+            ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+            ps.executeUpdate();
+        }
+    }
+
+    private void maintain() throws SQLException {
+        // keep a few empty monthly partitions ahead, so check-ins never land in p_future
+        DaoFactory.visitPartitions().ensureFuturePartitions(MONTHS_AHEAD);
+        int horizon = VisitArchiveDAO.horizonMonths();
+        DaoFactory.visitArchive().archiveOlderThan(horizon);
+        // the months just archived are empty now, their partitions can go
+        DaoFactory.visitPartitions().dropMonthsBefore(YearMonth.now().minusMonths(horizon));
+        DaoFactory.visitStats().verify(true);
+    }
+}
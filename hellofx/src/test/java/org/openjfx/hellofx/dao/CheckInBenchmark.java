@@ -0,0 +1,123 @@
+package org.openjfx.hellofx.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.utils.Database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// run with: mvn test -Pbenchmark -Dtest=CheckInBenchmark
+class CheckInBenchmark extends TestContainers {
+
+    private static final int CLIENTS = 200;
+    private static final int CHECK_INS = 4000;
+    private static final int THREADS = 8;
+
+    private final VisitDAO dao = new VisitDAO();
+
+    @Test
+    void compareLegacyAndProcedureCheckIn() throws Exception {
+        List<Long> clientIds = seedClients();
+
+        double legacy = measure(clientIds, this::legacyCheckIn);
+        double procedure = measure(clientIds, id -> dao.checkInClient(id));
+
+        System.out.printf("legacy check-in:    %.0f check-ins/s%n", legacy);
+        System.out.printf("procedure check-in: %.0f check-ins/s%n", procedure);
+        assertTrue(procedure > 0);
+    }
+
+    private interface CheckIn {
+        boolean run(Long clientId) throws Exception;
+    }
+
+    private double measure(List<Long> clientIds, CheckIn checkIn) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>(CHECK_INS);
+            long start = System.nanoTime();
+            for (int i = 0; i < CHECK_INS; i++) {
+                Long id = clientIds.get(i % clientIds.size());
+                futures.add(pool.submit(() -> checkIn.run(id)));
+            }
+            for (Future<Boolean> f : futures) {
+                assertTrue(f.get());
+            }
+            return CHECK_INS / ((System.nanoTime() - start) / 1_000_000_000.0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<Long> seedClients() {
+        var jdbc = Database.jdbc();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            jdbc.update("INSERT INTO clients (name, email, phone_number) VALUES (?, ?, ?)",
+                "Bench " + i, "bench" + i + "@mail.com", "000");
+            Long id = jdbc.queryForObject("SELECT id FROM clients WHERE email = ?", Long.class, "bench" + i + "@mail.com");
+            jdbc.update(
+                "INSERT INTO memberships (startDate, expiresAt, price, type, idOfHolder) VALUES (?, ?, 30, 'Monthly', ?)",
+                java.sql.Date.valueOf(LocalDate.now().minusDays(1)),
+                java.sql.Date.valueOf(LocalDate.now().plusDays(30)),
+                id
+            );
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    // the previous three round trip implementation, kept here as the baseline
+    private boolean legacyCheckIn(Long clientId) throws Exception {
+        java.sql.Date today = java.sql.Date.valueOf(LocalDate.now());
+        try (Connection conn = Database.getDataSource().getConnection()) {
+            conn.setAutoCommit(false);
+            Long membershipId = null;
+            String type = null;
+            Integer remaining = null;
+            try (PreparedStatement ps = conn.prepareStatement(
+                "SELECT id, type, visits_remaining FROM memberships WHERE idOfHolder = ? AND startDate <= ? "
+                    + "AND expiresAt >= ? ORDER BY expiresAt DESC LIMIT 1 FOR UPDATE")) {
+                ps.setLong(1, clientId);
+                ps.setDate(2, today);
+                ps.setDate(3, today);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        membershipId = rs.getLong("id");
+                        type = rs.getString("type");
+                        remaining = rs.getObject("visits_remaining", Integer.class);
+                    }
+                }
+            }
+            boolean isTen = "Ten".equalsIgnoreCase(type);
+            if (membershipId == null || (isTen && (remaining == null || remaining <= 0))) {
+                conn.rollback();
+                return false;
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT INTO visits (client_id, membership_id, check_in) VALUES (?, ?, NOW())")) {
+                ps.setLong(1, clientId);
+                ps.setLong(2, membershipId);
+                ps.executeUpdate();
+            }
+            if (isTen) {
+                try (PreparedStatement ps = conn.prepareStatement(
+                    "UPDATE memberships SET visits_remaining = visits_remaining - 1 WHERE id = ?")) {
+                    ps.setLong(1, membershipId);
+                    ps.executeUpdate();
+                }
+            }
+            conn.commit();
+            return true;
+        }
+    }
+}
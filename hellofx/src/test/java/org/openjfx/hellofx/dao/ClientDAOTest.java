@@ -2,6 +2,7 @@ package org.openjfx.hellofx.dao;
 
 import org.junit.jupiter.api.Test;
 import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.utils.ClientSearchIndex;
 
 import java.util.List;
 
@@ -27,4 +28,53 @@ class ClientDAOTest extends TestContainers {
         List<Client> found = dao.searchClients("missing");
         assertTrue(found.isEmpty());
     }
+
+    @Test
+    void findClientIdsMatchingUsesSubstringOfNameOrEmail() throws Exception {
+        dao.addClient(new Client(null, "Bartholomew", "bart@ngram.com", "123"));
+
+        List<Long> byName = dao.findClientIdsMatching("tholo", 10);
+        List<Long> byEmail = dao.findClientIdsMatching("t@ngram", 10);
+        assertEquals(1, byName.size());
+        assertEquals(byName, byEmail);
+        assertTrue(dao.findClientIdsMatching("nobody-here", 10).isEmpty());
+        assertNull(dao.findClientIdsMatching("b", 10));
+    }
+
+    @Test
+    void suggestionsComeFromSqlUntilTheIndexIsLoadedAndIncludeNewClients() throws Exception {
+        ClientSearchIndex.shared().clear();
+        dao.addClient(new Client(null, "Ľubica Typeahead", "lubica@suggest.com", "123"));
+        List<Client> fromSql = dao.suggestClients("typeahead", 10);
+        assertEquals(List.of("Ľubica Typeahead"), fromSql.stream().map(Client::name).toList());
+
+        try {
+            assertTrue(dao.loadSearchIndex() >= 1);
+            dao.addClient(new Client(null, "Lubos Typeahead", "lubos@suggest.com", "456"));
+
+            List<Client> fromIndex = dao.suggestClients("lub", 10);
+            assertEquals(List.of("Ľubica Typeahead", "Lubos Typeahead"), fromIndex.stream().map(Client::name).toList());
+            assertEquals(fromSql.get(0).id(), fromIndex.get(0).id());
+        } finally {
+            ClientSearchIndex.shared().clear();
+        }
+    }
+
+    @Test
+    void searchPagesFollowTheCursorAndEstimateTheTotal() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            dao.addClient(new Client(null, "Paged " + i, "paged" + i + "@page.com", "123"));
+        }
+
+        List<Client> first = dao.searchClientsPage("@page.com", null, 3);
+        List<Client> second = dao.searchClientsPage("@page.com", first.get(2).id(), 3);
+        List<Client> last = dao.searchClientsPage("@page.com", second.get(2).id(), 3);
+        assertEquals(List.of("Paged 0", "Paged 1", "Paged 2"), first.stream().map(Client::name).toList());
+        assertEquals(List.of("Paged 3", "Paged 4", "Paged 5"), second.stream().map(Client::name).toList());
+        assertEquals(List.of("Paged 6"), last.stream().map(Client::name).toList());
+
+        // a small table fits in the sample, so the estimate is exact
+        assertEquals(7, dao.estimateClientMatches("@PAGE.com"));
+        assertEquals(0, dao.estimateClientMatches("nobody@page"));
+    }
 }
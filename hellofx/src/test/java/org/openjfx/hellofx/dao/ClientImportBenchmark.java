@@ -0,0 +1,70 @@
+package org.openjfx.hellofx.dao;
+
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.ImportReport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// run with: mvn test -Pbenchmark -Dtest=ClientImportBenchmark
+// onboarding a 200k-client gym, every client with a membership: one addClient + addMembership pair per row
+// on a sample, against the bulk import of the whole file. the import should stay above 50k rows/s.
+class ClientImportBenchmark extends TestContainers {
+
+    private static final int ROWS = 200_000;
+    private static final int LEGACY_SAMPLE = 2_000;
+
+    @Test
+    void compareRowByRowAndBulkImport() throws Exception {
+        Path source = Files.createTempFile("import-bench", ".csv");
+        Path rejects = Files.createTempFile("import-bench", ".rejects.csv");
+        try {
+            LocalDate start = LocalDate.now().withDayOfMonth(1);
+            try (BufferedWriter out = Files.newBufferedWriter(source, StandardCharsets.UTF_8)) {
+                out.write("name,email,phone_number,membership_type,start_date,price\n");
+                for (int i = 0; i < ROWS; i++) {
+                    String type = i % 4 == 0 ? "Ten" : "Monthly";
+                    out.write("Imported " + i + ",client" + i + "@import.bench,0900" + i + "," + type + ","
+                        + start.plusDays(i % 28) + "," + (20 + i % 3 * 5) + "\n");
+                }
+            }
+
+            double legacyPerRow = legacy(start);
+
+            ImportReport report = new ClientImportDAO().importCsv(source, rejects, rows -> { });
+            assertEquals(ROWS, report.clients());
+            assertEquals(ROWS, report.memberships());
+            assertEquals(0, report.rejected());
+
+            System.out.printf("row by row:  %.2f ms per row, ~%.0f s for %d%n",
+                legacyPerRow, legacyPerRow * ROWS / 1000, ROWS);
+            System.out.printf("bulk import: %d rows in %d ms, %.0f rows/s (target 50000)%n",
+                report.rows(), report.millis(), report.rowsPerSecond());
+        } finally {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(rejects);
+        }
+    }
+
+    // what registering each client and assigning a membership by hand does, minus the clicking
+    private double legacy(LocalDate start) throws Exception {
+        ClientDAO clients = new ClientDAO();
+        MembershipDAO memberships = new MembershipDAO();
+        long begin = System.nanoTime();
+        for (int i = 0; i < LEGACY_SAMPLE; i++) {
+            String email = "legacy" + i + "@import.bench";
+            clients.addClient(new Client(null, "Legacy " + i, email, "000"));
+            Long id = clients.searchClients(email).get(0).id();
+            memberships.addMembership(new Membership(null, start, start.plusMonths(1), 25.0,
+                Membership.MembershipType.Monthly, id, 0));
+        }
+        return (System.nanoTime() - begin) / 1_000_000.0 / LEGACY_SAMPLE;
+    }
+}
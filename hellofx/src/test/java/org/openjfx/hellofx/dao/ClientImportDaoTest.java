@@ -0,0 +1,108 @@
+package org.openjfx.hellofx.dao;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.model.ImportReport;
+import org.openjfx.hellofx.model.RevenueRow;
+import org.openjfx.hellofx.utils.Database;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientImportDaoTest extends TestContainers {
+
+    private final ClientImportDAO dao = new ClientImportDAO();
+    private final ClientDAO clientDao = new ClientDAO();
+
+    @Test
+    void importsValidRowsAndReportsTheRest() throws Exception {
+        String tag = "imp" + System.nanoTime();
+        LocalDate start = LocalDate.now().plusYears(9);
+        clientDao.addClient(new Client(null, "Registered", "registered@" + tag + ".com", "111"));
+        Path source = write("""
+            email,name,phone_number,membership_type,start_date,price
+            ann@%1$s.com,Ann,111,Monthly,%2$s,30
+            "bob@%1$s.com","Bob, Jr.",222,,,
+            ANN@%1$s.com,Ann again,333,,,
+            REGISTERED@%1$s.com,Registered,444,,,
+            carl@%1$s.com,,555,,,
+            dora@%1$s.com,Dora,666,Daily,%2$s,30
+            eve@%1$s.com,Eve,777,Ten,not-a-date,30
+            """.formatted(tag, start));
+        Path rejects = Files.createTempFile("import", ".rejects.csv");
+        try {
+            ImportReport report = dao.importCsv(source, rejects, rows -> { });
+
+            assertEquals(7, report.rows());
+            assertEquals(2, report.clients());
+            assertEquals(1, report.memberships());
+            assertEquals(5, report.rejected());
+
+            List<String> rejected = Files.readAllLines(rejects);
+            assertEquals("line,reason,email,name,phone_number,membership_type,start_date,price", rejected.get(0));
+            assertEquals(6, rejected.size());
+            assertTrue(rejected.contains("4,duplicate email in file,ANN@%s.com,Ann again,333,,,".formatted(tag)));
+            assertTrue(rejected.contains("5,email already registered,REGISTERED@%s.com,Registered,444,,,".formatted(tag)));
+            assertTrue(rejected.stream().anyMatch(l -> l.startsWith("6,missing name,")));
+            assertTrue(rejected.stream().anyMatch(l -> l.startsWith("7,unknown membership type,")));
+            assertTrue(rejected.stream().anyMatch(l -> l.startsWith("8,invalid date")));
+
+            Client bob = clientDao.searchClients("bob@" + tag).get(0);
+            assertEquals("Bob, Jr.", bob.name());
+            Long ann = clientDao.searchClients("ann@" + tag).get(0).id();
+            assertEquals("PENDING", Database.jdbc().queryForObject(
+                "SELECT status FROM memberships WHERE idOfHolder = ?", String.class, ann));
+            assertEquals(start.plusMonths(1), Database.jdbc().queryForObject(
+                "SELECT expiresAt FROM memberships WHERE idOfHolder = ?", java.sql.Date.class, ann).toLocalDate());
+            assertEquals(List.of(new RevenueRow(start, "Monthly", 0, 1, 30.0)), new RevenueRollupDAO().findDaily(start, start));
+        } finally {
+            Files.deleteIfExists(source);
+            Files.deleteIfExists(rejects);
+        }
+    }
+
+    @Test
+    void importingTheSameFileAgainAddsNothing() throws Exception {
+        String tag = "again" + System.nanoTime();
+        StringBuilder csv = new StringBuilder("name,email,phone_number\n");
+        int rows = ClientImportDAO.CHUNK + 10;
+        for (int i = 0; i < rows; i++) {
+            csv.append("Client ").append(i).append(',').append(i).append('@').append(tag).append(".com,000\n");
+        }
+        Path source = write(csv.toString());
+        try {
+            ImportReport first = dao.importCsv(source, null, n -> { });
+            ImportReport second = dao.importCsv(source, null, n -> { });
+
+            assertEquals(rows, first.clients());
+            assertEquals(0, first.rejected());
+            assertEquals(0, second.clients());
+            assertEquals(rows, second.rejected());
+            assertEquals(rows, Database.jdbc().queryForObject(
+                "SELECT COUNT(*) FROM clients WHERE email LIKE ?", Integer.class, "%@" + tag + ".com"));
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    @Test
+    void fileWithoutRequiredColumnsIsRefused() throws Exception {
+        Path source = write("name,phone_number\nAnn,111\n");
+        try {
+            assertThrows(java.io.IOException.class, () -> dao.importCsv(source, null, n -> { }));
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    private Path write(String content) throws Exception {
+        Path file = Files.createTempFile("import", ".csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+}
@@ -0,0 +1,81 @@
+package org.openjfx.hellofx.dao;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.utils.ClientSearchIndex;
+import org.openjfx.hellofx.utils.Database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// run with: mvn test -Pbenchmark -Dtest=ClientSearchBenchmark
+// what the booking dialog's client field costs per keystroke at 100k and 1M clients: the SQL substring
+// search it used to run against the in-memory trigram index, top 10 suggestions, median per query.
+class ClientSearchBenchmark extends TestContainers {
+
+    private static final String[] QUERIES = {"a", "an", "nov", "peter kov", "client12345", "@gym", "zzz"};
+    private static final int SQL_RUNS = 5;
+    private static final int INDEX_RUNS = 2_000;
+
+    private final ClientDAO clientDao = new ClientDAO();
+
+    private interface Search {
+        Object run(String query) throws Exception;
+    }
+
+    @Test
+    void compareSqlAndIndex() throws Exception {
+        int seeded = 0;
+        for (int size : new int[] {100_000, 1_000_000}) {
+            seed(seeded, size);
+            seeded = size;
+
+            long start = System.nanoTime();
+            ClientSearchIndex.shared().clear();
+            int indexed = clientDao.loadSearchIndex();
+            long loadMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(indexed >= size);
+            System.out.printf("%,d clients: index loaded in %d ms%n", size, loadMillis);
+
+            for (String q : QUERIES) {
+                double sql = medianMicros(q, SQL_RUNS, clientDao::searchClients);
+                double index = medianMicros(q, INDEX_RUNS, query -> ClientSearchIndex.shared().search(query, 10));
+                System.out.printf("  %-12s sql %,10.0f us   index %8.1f us%n", "\"" + q + "\"", sql, index);
+            }
+            List<String> names = clientDao.suggestClients("client12345@", 10).stream().map(c -> c.name()).toList();
+            assertTrue(names.contains("Peter Novakova 12345"), names.toString());
+        }
+    }
+
+    private double medianMicros(String query, int runs, Search search) throws Exception {
+        double[] times = new double[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            search.run(query);
+            times[i] = (System.nanoTime() - start) / 1_000.0;
+        }
+        Arrays.sort(times);
+        return times[runs / 2];
+    }
+
+    // clients from+1 .. to, names drawn from a few first names and surnames so queries match realistic shares
+    private void seed(int from, int to) throws Exception {
+        try (Connection conn = Database.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("SET SESSION cte_max_recursion_depth = 1000000");
+            st.execute("""
+                INSERT INTO clients (name, email, phone_number)
+                WITH RECURSIVE seq(n) AS (SELECT %d UNION ALL SELECT n + 1 FROM seq WHERE n < %d)
+                SELECT CONCAT(ELT(1 + MOD(n, 8), 'Anna', 'Peter', 'Jana', 'Martin', 'Eva', 'Tomas', 'Zuzana', 'Michal'),
+                              ' ',
+                              ELT(1 + MOD(n DIV 8, 6), 'Kovac', 'Novakova', 'Horvath', 'Varga', 'Toth', 'Balaz'),
+                              ' ', n),
+                       CONCAT('client', n, '@', ELT(1 + MOD(n, 4), 'gmail.com', 'gym.sk', 'mail.com', 'post.sk')),
+                       '000'
+                FROM seq
+            """.formatted(from + 1, to));
+        }
+    }
+}
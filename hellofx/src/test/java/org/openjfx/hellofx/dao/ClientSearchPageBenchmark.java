@@ -0,0 +1,71 @@
+package org.openjfx.hellofx.dao;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.utils.Database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// run with: mvn test -Pbenchmark -Dtest=ClientSearchPageBenchmark
+// what the membership screen's client search costs on 1M clients: the unbounded search it used to run
+// against the first page (51 rows through the keyset query) plus the approximate total, median per query.
+class ClientSearchPageBenchmark extends TestContainers {
+
+    private static final String[] QUERIES = {"a", "e", "nov", "peter kov", "@gym"};
+    private static final int PAGE = 50;
+    private static final int RUNS = 7;
+
+    private final ClientDAO clientDao = new ClientDAO();
+
+    private interface Search {
+        Object run(String query) throws Exception;
+    }
+
+    @Test
+    void firstPageOfABroadSearch() throws Exception {
+        seed(1_000_000);
+        System.out.printf("%-12s %12s %12s %10s %12s%n", "query", "unbounded ms", "page ms", "estimate", "estimate ms");
+        for (String q : QUERIES) {
+            double unbounded = medianMillis(q, 3, clientDao::searchClients);
+            double page = medianMillis(q, RUNS, query -> {
+                List<Client> rows = clientDao.searchClientsPage(query, null, PAGE + 1);
+                return rows.size() > PAGE ? clientDao.estimateClientMatches(query) : rows.size();
+            });
+            long estimate = clientDao.estimateClientMatches(q);
+            double estimating = medianMillis(q, RUNS, clientDao::estimateClientMatches);
+            System.out.printf("%-12s %12.1f %12.1f %10d %12.1f%n", q, unbounded, page, estimate, estimating);
+            if (q.length() == 1) assertTrue(page < 50, "first page of '" + q + "' took " + page + " ms");
+        }
+    }
+
+    private double medianMillis(String query, int runs, Search search) throws Exception {
+        search.run(query);
+        double[] times = new double[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            search.run(query);
+            times[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(times);
+        return times[runs / 2];
+    }
+
+    private void seed(int size) throws Exception {
+        try (Connection conn = Database.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("SET SESSION cte_max_recursion_depth = " + size);
+            st.execute("""
+                INSERT INTO clients (name, email, phone_number)
+                WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < %d)
+                SELECT CONCAT(ELT(1 + MOD(n, 4), 'Anna', 'Peter', 'Jana', 'Martin'), ' ',
+                              ELT(1 + MOD(n DIV 4, 3), 'Kovac', 'Novakova', 'Horvath'), ' ', n),
+                       CONCAT('client', n, '@gym.sk'), '000'
+                FROM seq
+            """.formatted(size));
+        }
+    }
+}
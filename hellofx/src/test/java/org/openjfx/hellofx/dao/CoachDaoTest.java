@@ -1,15 +1,20 @@
 package org.openjfx.hellofx.dao;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.openjfx.hellofx.entities.Coach;
+import org.openjfx.hellofx.entities.Specialization;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class CoachDaoTest extends TestContainers {
 
     private final CoachDAO dao = new CoachDAO();
+    private final SpecializationDAO specializationDao = new SpecializationDAO();
 
     @Test
     void addCoachAndResolveByEmailOrName() throws Exception {
@@ -19,4 +24,54 @@ class CoachDaoTest extends TestContainers {
         assertEquals(id, dao.findCoachIdForUser("coach1@mail.com"));
         assertEquals(id, dao.findCoachIdForUser("Coach One"));
     }
+
+    @Test
+    void searchCoachesAttachesSpecializations() throws Exception {
+        Long both = dao.addCoach(new Coach(null, "Attach Both", "both@attach.com", "1", null));
+        Long none = dao.addCoach(new Coach(null, "Attach None", "none@attach.com", "2", null));
+        specializationDao.setSpecializationsForCoach(both, Set.of("Yoga", "Boxing"));
+
+        List<Coach> found = dao.searchCoaches("attach");
+        assertEquals(List.of(both, none), found.stream().map(Coach::id).toList());
+        assertEquals(Set.of("Yoga", "Boxing"),
+            found.get(0).specializations().stream().map(Specialization::name).collect(Collectors.toSet()));
+        assertTrue(found.get(1).specializations().isEmpty());
+    }
+
+    @Test
+    void searchCoachesRunsTheSameNumberOfStatementsForAnyResultSize() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            Long id = dao.addCoach(new Coach(null, "Many " + i, "many" + i + "@count.com", "0", null));
+            specializationDao.setSpecializationsForCoach(id, Set.of("Spin", "Spec " + i));
+        }
+        dao.addCoach(new Coach(null, "Single", "single@count.com", "0", null));
+
+        long forOne = statementsRunBy(() -> assertEquals(1, dao.searchCoaches("single@count").size()));
+        long forMany = statementsRunBy(() -> assertEquals(41, dao.searchCoaches("@count.com").size()));
+
+        assertEquals(1, forOne);
+        assertEquals(forOne, forMany);
+    }
+
+    @Test
+    void searchCoachesPageLimitsCoachesNotSpecializationRows() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            Long id = dao.addCoach(new Coach(null, "Paged " + i, "paged" + i + "@coachpage.com", "0", null));
+            specializationDao.setSpecializationsForCoach(id, Set.of("Yoga", "Boxing", "Spin"));
+        }
+
+        List<Coach> first = dao.searchCoachesPage("@coachpage", null, 2);
+        List<Coach> rest = dao.searchCoachesPage("@coachpage", first.get(1).id(), 10);
+        assertEquals(List.of("Paged 0", "Paged 1"), first.stream().map(Coach::name).toList());
+        assertEquals(List.of("Paged 2", "Paged 3", "Paged 4"), rest.stream().map(Coach::name).toList());
+        assertTrue(rest.stream().allMatch(c -> c.specializations().size() == 3));
+        assertEquals(5, dao.estimateCoachMatches("@coachpage"));
+    }
+
+    // statements about coaches the application's user sent while work ran
+    private long statementsRunBy(GeneralLog.Work work) throws Exception {
+        return GeneralLog.statementsRunBy(mysql, work).stream()
+            .filter(sql -> sql.toLowerCase(Locale.ROOT).contains("coach"))
+            .count();
+    }
 }
@@ -1,8 +1,15 @@
 package org.openjfx.hellofx.dao;
 
 import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
 import org.openjfx.hellofx.entities.DiscountRule;
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.DiscountRuleSet;
+import org.openjfx.hellofx.model.DiscountTiers;
+import org.openjfx.hellofx.utils.Database;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,7 +20,7 @@ class DiscountRuleDaoTest extends TestContainers {
     private final DiscountRuleDAO dao = new DiscountRuleDAO();
 
     @Test
-    void replaceAllAndFindOrdered() {
+    void replaceAllAndFindOrdered() throws Exception {
         List<DiscountRule> rules = List.of(
             new DiscountRule(0L, 5, 10),
             new DiscountRule(0L, 10, 20)
@@ -29,4 +36,97 @@ class DiscountRuleDaoTest extends TestContainers {
         assertTrue(best.isPresent());
         assertEquals(10, best.get().discountPercent());
     }
+
+    @Test
+    void replaceAllSwapsTheInMemoryTiers() throws Exception {
+        dao.replaceAll(List.of(new DiscountRule(0L, 5, 10)));
+        DiscountTiers before = dao.tiers();
+        assertEquals(10, before.percentFor(7));
+
+        dao.replaceAll(List.of(new DiscountRule(0L, 5, 15), new DiscountRule(0L, 50, 30)));
+
+        DiscountTiers after = dao.tiers();
+        assertTrue(after.version() > before.version());
+        assertEquals(15, after.percentFor(7));
+        assertEquals(30, dao.bestRuleForVisits(80).orElseThrow().discountPercent());
+        // a reader holding the old snapshot still sees a consistent rule set
+        assertEquals(10, before.percentFor(80));
+    }
+
+    @Test
+    void everyInstanceSeesASaveMadeThroughAnother() throws Exception {
+        DiscountRuleDAO reader = DaoFactory.discountRules();
+        dao.replaceAll(List.of(new DiscountRule(0L, 5, 10)));
+        assertEquals(10, reader.tiers().percentFor(7));
+
+        new DiscountRuleDAO().replaceAll(List.of(new DiscountRule(0L, 5, 25)));
+
+        assertEquals(25, reader.tiers().percentFor(7));
+        assertEquals(25, dao.tiers().percentFor(7));
+    }
+
+    @Test
+    void saveFromAnotherClientIsPickedUpAfterTheRecheckInterval() throws Exception {
+        dao.replaceAll(List.of(new DiscountRule(0L, 5, 10)));
+        assertEquals(10, dao.tiers().percentFor(7));
+
+        // what another desktop client's save does, without going through this JVM's snapshot
+        Database.jdbc().update("INSERT INTO discount_rule_sets (activates_at) VALUES (NOW())");
+        Long ruleSetId = Database.jdbc().queryForObject("SELECT MAX(id) FROM discount_rule_sets", Long.class);
+        Database.jdbc().update(
+            "INSERT INTO discount_rules (rule_set_id, visits_threshold, discount_percent) VALUES (?, 5, 35)", ruleSetId);
+        Database.jdbc().update(
+            "UPDATE discount_active_rule_set SET rule_set_id = ?, version = version + 1, activated_at = NOW() WHERE id = 1",
+            ruleSetId);
+
+        Thread.sleep(DiscountRuleDAO.RECHECK_MILLIS + 100);
+        assertEquals(35, dao.tiers().percentFor(7));
+    }
+
+    @Test
+    void scheduledRuleSetTakesOverWhenDue() throws Exception {
+        dao.replaceAll(List.of(new DiscountRule(0L, 5, 10)));
+        LocalDateTime at = LocalDateTime.now().plusSeconds(2);
+
+        long scheduled = dao.createRuleSet(List.of(new DiscountRule(0L, 5, 25)), at);
+
+        assertEquals(10, dao.tiers().percentFor(5));
+        assertFalse(dao.findRuleSets().stream().filter(s -> s.id() == scheduled).findFirst().orElseThrow().active());
+        while (LocalDateTime.now().isBefore(at)) {
+            Thread.sleep(100);
+        }
+        assertEquals(25, dao.tiers().percentFor(5));
+        assertTrue(dao.findRuleSets().stream().filter(s -> s.id() == scheduled).findFirst().orElseThrow().active());
+    }
+
+    @Test
+    void oldRuleSetsStayQueryableForTheMembershipsTheyPriced() throws Exception {
+        long first = dao.replaceAll(List.of(new DiscountRule(0L, 5, 10)));
+        DiscountRule applied = dao.bestRuleForVisits(5).orElseThrow();
+        ClientDAO clients = new ClientDAO();
+        String email = "audit" + System.nanoTime() + "@discount.com";
+        clients.addClient(new Client(null, "Audit", email, "111"));
+        Long clientId = clients.searchClients(email).get(0).id();
+        new MembershipDAO().addMembership(new Membership(
+            null, LocalDate.now(), LocalDate.now().plusMonths(1), 45.0, Membership.MembershipType.Monthly, clientId, 0
+        ), applied);
+        Long membershipId = Database.jdbc().queryForObject(
+            "SELECT id FROM memberships WHERE idOfHolder = ?", Long.class, clientId);
+
+        dao.replaceAll(List.of(new DiscountRule(0L, 5, 20)));
+
+        DiscountRuleSet used = dao.findRuleSetForMembership(membershipId).orElseThrow();
+        assertEquals(first, used.id());
+        assertFalse(used.active());
+        assertEquals(10, dao.findRules(first).get(0).discountPercent());
+        assertEquals(20, dao.bestRuleForVisits(5).orElseThrow().discountPercent());
+    }
+
+    @Test
+    void emptyRuleSetMeansNoDiscount() throws Exception {
+        dao.replaceAll(List.of());
+
+        assertTrue(dao.bestRuleForVisits(1000).isEmpty());
+        assertEquals(0, dao.findAllOrdered().size());
+    }
 }
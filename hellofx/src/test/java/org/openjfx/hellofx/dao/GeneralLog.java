@@ -0,0 +1,48 @@
+package org.openjfx.hellofx.dao;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testcontainers.containers.MySQLContainer;
+
+// the statements the application's user sends while some work runs, read back from the server's general log.
+// switching the log on takes the container's root account
+final class GeneralLog {
+
+    interface Work {
+        void run() throws Exception;
+    }
+
+    private GeneralLog() {}
+
+    // every statement testuser sent while work ran, in the order the server received them
+    static List<String> statementsRunBy(MySQLContainer<?> mysql, Work work) throws Exception {
+        try (Connection root = DriverManager.getConnection(mysql.getJdbcUrl(), "root", mysql.getPassword());
+             Statement st = root.createStatement()) {
+            st.execute("SET GLOBAL log_output = 'TABLE'");
+            st.execute("TRUNCATE TABLE mysql.general_log");
+            st.execute("SET GLOBAL general_log = 'ON'");
+            try {
+                work.run();
+            } finally {
+                st.execute("SET GLOBAL general_log = 'OFF'");
+            }
+            List<String> statements = new ArrayList<>();
+            try (ResultSet rs = st.executeQuery("""
+                SELECT CONVERT(argument USING utf8mb4) AS stmt
+                FROM mysql.general_log
+                WHERE command_type = 'Query' AND user_host LIKE 'testuser%'
+                ORDER BY event_time
+            """)) {
+                while (rs.next()) {
+                    statements.add(rs.getString("stmt").trim());
+                }
+            }
+            return statements;
+        }
+    }
+}
@@ -4,8 +4,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.openjfx.hellofx.entities.Client;
 import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.MembershipStatus;
+import org.openjfx.hellofx.model.MembershipTimelineEntry;
+import org.openjfx.hellofx.utils.Database;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,7 +23,7 @@ class MembershipDaoTest extends TestContainers {
 
     @BeforeEach
     void seedClient() throws Exception {
-        clientDao.addClient(new Client(null, "Member", "member@test.com", "111"));
+        clientDao.addClient(new Client(null, "Member", "member" + System.nanoTime() + "@test.com", "111"));
         clientId = clientDao.searchClients("member").get(0).id();
     }
 
@@ -54,4 +60,133 @@ class MembershipDaoTest extends TestContainers {
         Integer remaining = dao.getRemainingVisits(clientId);
         assertEquals(5, remaining);
     }
+
+    @Test
+    void statusForClientsMatchesSingleLookups() throws Exception {
+        clientDao.addClient(new Client(null, "Bulk Ten", "bulk-ten@status.com", "222"));
+        clientDao.addClient(new Client(null, "Bulk Used", "bulk-used@status.com", "333"));
+        clientDao.addClient(new Client(null, "Bulk None", "bulk-none@status.com", "444"));
+        Long ten = clientDao.searchClients("bulk-ten@status.com").get(0).id();
+        Long used = clientDao.searchClients("bulk-used@status.com").get(0).id();
+        Long none = clientDao.searchClients("bulk-none@status.com").get(0).id();
+        dao.addMembership(new Membership(
+            null, LocalDate.now().minusDays(1), LocalDate.now().plusDays(10), 20.0, Membership.MembershipType.Ten, ten, 3
+        ));
+        dao.addMembership(new Membership(
+            null, LocalDate.now().minusDays(1), LocalDate.now().plusDays(10), 20.0, Membership.MembershipType.Ten, used, 0
+        ));
+
+        Map<Long, MembershipStatus> statuses = dao.getStatusForClients(List.of(ten, used, none));
+
+        assertEquals(List.of(ten, used, none), List.copyOf(statuses.keySet()));
+        for (Long id : List.of(ten, used, none)) {
+            MembershipStatus status = statuses.get(id);
+            assertEquals(dao.getCurrentMembershipType(id), status.type());
+            assertEquals(dao.hasActiveMembership(id), status.active());
+            if (status.hasMembership()) {
+                assertEquals(dao.getRemainingVisits(id), status.visitsRemaining());
+            }
+        }
+        assertEquals(new MembershipStatus("Ten", 3, true), statuses.get(ten));
+        assertSame(MembershipStatus.NONE, statuses.get(used));
+    }
+
+    @Test
+    void cachedStatusFollowsWrites() throws Exception {
+        clientDao.addClient(new Client(null, "Cached", "cached@status.com", "555"));
+        Long id = clientDao.searchClients("cached@status.com").get(0).id();
+
+        assertNull(dao.getCurrentMembershipType(id));
+        dao.addMembership(new Membership(
+            null, LocalDate.now().minusDays(1), LocalDate.now().plusDays(10), 20.0, Membership.MembershipType.Ten, id, 1
+        ));
+        assertEquals(Integer.valueOf(1), dao.getRemainingVisits(id));
+
+        new VisitDAO().checkInClient(id);
+        assertNull(dao.getCurrentMembershipType(id));
+
+        dao.addMembership(new Membership(
+            null, LocalDate.now().minusDays(1), LocalDate.now().plusDays(10), 20.0, Membership.MembershipType.Monthly, id, 0
+        ));
+        assertTrue(dao.hasActiveMembership(id));
+        dao.removeByHolderId(id);
+        assertFalse(dao.hasActiveMembership(id));
+    }
+
+    @Test
+    void sweepMovesMembershipsBetweenStatuses() throws Exception {
+        LocalDate today = LocalDate.now();
+        dao.addMembership(new Membership(
+            null, today.plusDays(1), today.plusDays(30), 49.9, Membership.MembershipType.Monthly, clientId, 0
+        ));
+        assertFalse(dao.hasActiveMembership(clientId));
+        assertEquals("PENDING", statusOf(clientId));
+
+        // the next day it starts, a month later it is over
+        try {
+            assertTrue(dao.sweepStatuses(today.plusDays(1)) >= 1);
+            assertTrue(dao.hasActiveMembership(clientId));
+            assertEquals("ACTIVE", statusOf(clientId));
+            assertEquals(0, dao.sweepStatuses(today.plusDays(1)));
+
+            dao.sweepStatuses(today.plusDays(31));
+            assertFalse(dao.hasActiveMembership(clientId));
+            assertEquals("EXPIRED", statusOf(clientId));
+        } finally {
+            // the sweep covers every membership in the shared container, put the others back to today
+            dao.sweepStatuses(today);
+        }
+    }
+
+    @Test
+    void lastVisitOfATenPassMarksItExhausted() throws Exception {
+        dao.addMembership(new Membership(
+            null, LocalDate.now(), LocalDate.now().plusDays(10), 20.0, Membership.MembershipType.Ten, clientId, 1
+        ));
+        assertEquals("ACTIVE", statusOf(clientId));
+
+        assertTrue(new VisitDAO().checkInClient(clientId));
+
+        assertEquals("EXHAUSTED", statusOf(clientId));
+        assertFalse(dao.hasActiveMembership(clientId));
+    }
+
+    @Test
+    void timelineListsEveryMembershipNewestFirstWithItsVisits() throws Exception {
+        String email = "timeline" + System.nanoTime() + "@test.com";
+        clientDao.addClient(new Client(null, "Timeline", email, "111"));
+        Long holder = clientDao.searchClients(email).get(0).id();
+        LocalDate today = LocalDate.now();
+        VisitDAO visits = new VisitDAO();
+        dao.addMembership(new Membership(
+            null, today.minusYears(2), today.minusYears(2).plusMonths(1), 30.0, Membership.MembershipType.Monthly, holder, 0
+        ));
+        dao.addMembership(new Membership(
+            null, today.minusDays(1), today.plusDays(10), 20.0, Membership.MembershipType.Ten, holder, 5
+        ));
+        visits.checkInClient(holder);
+        visits.checkInBatch(List.of(holder), Instant.now());
+        // expires last, so the next check-ins go to it instead of the pass
+        dao.addMembership(new Membership(
+            null, today, today.plusDays(30), 40.0, Membership.MembershipType.Monthly, holder, 0
+        ));
+        visits.checkInClient(holder);
+        visits.checkInBatch(List.of(holder), Instant.now());
+
+        List<MembershipTimelineEntry> timeline = dao.findTimeline(holder);
+
+        assertEquals(List.of(today, today.minusDays(1), today.minusYears(2)),
+            timeline.stream().map(MembershipTimelineEntry::startDate).toList());
+        assertEquals(List.of(2, 2, 0), timeline.stream().map(MembershipTimelineEntry::visits).toList());
+        assertEquals(3, timeline.get(1).visitsRemaining());
+        assertNull(timeline.get(0).visitsRemaining());
+        assertEquals("Ten", timeline.get(1).type());
+        assertEquals(40.0, timeline.get(0).price());
+        assertTrue(dao.findTimeline(null).isEmpty());
+    }
+
+    private String statusOf(Long holderId) {
+        return Database.jdbc().queryForObject(
+            "SELECT status FROM memberships WHERE idOfHolder = ?", String.class, holderId);
+    }
 }
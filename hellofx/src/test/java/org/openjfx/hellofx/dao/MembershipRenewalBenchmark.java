@@ -0,0 +1,93 @@
+package org.openjfx.hellofx.dao;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.DiscountRule;
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.RenewalReport;
+import org.openjfx.hellofx.utils.Database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// run with: mvn test -Pbenchmark -Dtest=MembershipRenewalBenchmark
+// month-end renewal of 50k monthly memberships: the per-client path AssignMembershipController takes
+// (visit count, discount lookup, insert) on a sample, against one bulk run over all of them.
+class MembershipRenewalBenchmark extends TestContainers {
+
+    private static final int MEMBERSHIPS = 50_000;
+    private static final int LEGACY_SAMPLE = 2_000;
+
+    private final MembershipRenewalDAO dao = new MembershipRenewalDAO();
+
+    @Test
+    void compareLegacyAndBulkRenewal() throws Exception {
+        LocalDate windowStart = LocalDate.now().plusYears(10);
+        LocalDate windowEnd = windowStart.plusDays(30);
+        new DiscountRuleDAO().replaceAll(List.of(
+            new DiscountRule(0, 5, 5), new DiscountRule(0, 20, 10), new DiscountRule(0, 50, 15)
+        ));
+        seed(windowStart);
+
+        long start = System.nanoTime();
+        RenewalReport preview = dao.renew(windowStart, windowEnd, Membership.MembershipType.Monthly, 40.0, true);
+        double dryRunMillis = (System.nanoTime() - start) / 1_000_000.0;
+        assertEquals(MEMBERSHIPS, preview.count());
+
+        double legacyPerMembership = legacy(preview, LEGACY_SAMPLE);
+
+        // the legacy sample already renewed its holders, so the bulk run does the rest
+        start = System.nanoTime();
+        RenewalReport bulk = dao.renew(windowStart, windowEnd, Membership.MembershipType.Monthly, 40.0, false);
+        double bulkMillis = (System.nanoTime() - start) / 1_000_000.0;
+        assertEquals(MEMBERSHIPS - LEGACY_SAMPLE, bulk.count());
+
+        System.out.printf("dry run, %d memberships:  %.0f ms%n", preview.count(), dryRunMillis);
+        System.out.printf("per-client renewal:       %.2f ms each, ~%.0f s for %d%n",
+            legacyPerMembership, legacyPerMembership * MEMBERSHIPS / 1000, MEMBERSHIPS);
+        System.out.printf("bulk renewal, %d memberships: %.0f ms%n", bulk.count(), bulkMillis);
+    }
+
+    // what the assign dialog does for each client, minus the clicking
+    private double legacy(RenewalReport plan, int sample) throws Exception {
+        MembershipDAO memberships = new MembershipDAO();
+        VisitDAO visits = new VisitDAO();
+        DiscountRuleDAO discounts = new DiscountRuleDAO();
+        long start = System.nanoTime();
+        for (int i = 0; i < sample; i++) {
+            Membership next = plan.renewals().get(i).membership();
+            int visitCount = visits.countVisitsForClient(next.idOfHolder());
+            Optional<DiscountRule> rule = discounts.bestRuleForVisits(visitCount);
+            double price = rule.map(r -> r.applyTo(40.0)).orElse(40.0);
+            memberships.addMembership(new Membership(null, next.startDate(), next.expiresAt(), price,
+                next.type(), next.idOfHolder(), next.visitsRemaining()));
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / sample;
+    }
+
+    private void seed(LocalDate windowStart) throws Exception {
+        try (Connection conn = Database.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("SET SESSION cte_max_recursion_depth = " + MEMBERSHIPS);
+            st.execute("""
+                INSERT INTO clients (name, email, phone_number)
+                WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < %d)
+                SELECT CONCAT('Renewal ', n), CONCAT('client', n, '@renewal.bench'), '000' FROM seq
+            """.formatted(MEMBERSHIPS));
+            st.execute("""
+                INSERT INTO memberships (startDate, expiresAt, price, type, idOfHolder, status)
+                SELECT DATE '%1$s' - INTERVAL 1 MONTH, DATE '%1$s' + INTERVAL MOD(id, 30) DAY, 40, 'Monthly', id, 'PENDING'
+                FROM clients
+                WHERE email LIKE '%%@renewal.bench'
+            """.formatted(windowStart));
+            st.execute("""
+                INSERT INTO client_visit_stats (client_id, visit_count)
+                SELECT id, MOD(id, 80) FROM clients WHERE email LIKE '%@renewal.bench'
+                ON DUPLICATE KEY UPDATE visit_count = VALUES(visit_count)
+            """);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.openjfx.hellofx.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.entities.DiscountRule;
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.MembershipRenewal;
+import org.openjfx.hellofx.model.RenewalReport;
+import org.openjfx.hellofx.utils.Database;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MembershipRenewalDaoTest extends TestContainers {
+
+    private final MembershipRenewalDAO dao = new MembershipRenewalDAO();
+    private final MembershipDAO membershipDao = new MembershipDAO();
+    private final ClientDAO clientDao = new ClientDAO();
+
+    // a window far in the future, so memberships of other tests never fall into it
+    private final LocalDate windowStart = LocalDate.now().plusYears(5);
+    private final LocalDate windowEnd = windowStart.plusDays(30);
+    private Long regular;
+    private Long loyal;
+
+    @BeforeEach
+    void seed() throws Exception {
+        Database.jdbc().update("DELETE FROM memberships WHERE expiresAt >= ?", java.sql.Date.valueOf(windowStart));
+        new DiscountRuleDAO().replaceAll(List.of(new DiscountRule(0, 10, 20)));
+        regular = addClient("renew-regular");
+        loyal = addClient("renew-loyal");
+        Database.jdbc().update("INSERT INTO client_visit_stats (client_id, visit_count) VALUES (?, 12)", loyal);
+        for (Long id : List.of(regular, loyal)) {
+            membershipDao.addMembership(new Membership(
+                null, windowStart.minusMonths(1), windowStart.plusDays(10), 40.0, Membership.MembershipType.Monthly, id, 0
+            ));
+        }
+    }
+
+    @Test
+    void dryRunReportsWithoutInserting() throws Exception {
+        RenewalReport report = dao.renew(windowStart, windowEnd, Membership.MembershipType.Monthly, 50.0, true);
+
+        assertTrue(report.dryRun());
+        assertEquals(2, report.count());
+        assertEquals(1, report.discountedCount());
+        assertEquals(50.0 + 40.0, report.totalPrice(), 0.001);
+        assertEquals(1, countMemberships(regular));
+        assertEquals(1, countMemberships(loyal));
+    }
+
+    @Test
+    void renewalStartsAfterTheOldPeriodWithTheDiscount() throws Exception {
+        RenewalReport report = dao.renew(windowStart, windowEnd, Membership.MembershipType.Monthly, 50.0, false);
+
+        assertEquals(2, report.count());
+        Map<String, Object> row = Database.jdbc().queryForMap("""
+            SELECT startDate, expiresAt, price, status, discount_percent_applied, discount_threshold_used
+            FROM memberships WHERE idOfHolder = ? ORDER BY expiresAt DESC LIMIT 1
+        """, loyal);
+        LocalDate start = windowStart.plusDays(11);
+        assertEquals(java.sql.Date.valueOf(start), row.get("startDate"));
+        assertEquals(java.sql.Date.valueOf(start.plusMonths(1)), row.get("expiresAt"));
+        assertEquals(40.0, ((Number) row.get("price")).doubleValue(), 0.001);
+        assertEquals("PENDING", row.get("status"));
+        assertEquals(20, ((Number) row.get("discount_percent_applied")).intValue());
+        assertEquals(10, ((Number) row.get("discount_threshold_used")).intValue());
+
+        MembershipRenewal plain = report.renewals().stream()
+            .filter(r -> r.membership().idOfHolder().equals(regular)).findFirst().orElseThrow();
+        assertFalse(plain.discounted());
+        assertNull(plain.discountThreshold());
+    }
+
+    @Test
+    void renewedHoldersAreSkippedNextTime() throws Exception {
+        dao.renew(windowStart, windowEnd, Membership.MembershipType.Monthly, 50.0, false);
+
+        RenewalReport again = dao.renew(windowStart, windowEnd, Membership.MembershipType.Monthly, 50.0, false);
+
+        assertEquals(0, again.count());
+        assertEquals(2, countMemberships(regular));
+    }
+
+    @Test
+    void holderRenewedAfterPlanningIsNotRenewedAgain() throws Exception {
+        List<MembershipRenewal> plan = dao.plan(windowStart, windowEnd, Membership.MembershipType.Monthly, 50.0);
+        assertEquals(2, plan.size());
+        // the front desk renews one holder by hand while the run is still planning
+        membershipDao.addMembership(new Membership(
+            null, windowStart.plusDays(11), windowStart.plusDays(41), 40.0, Membership.MembershipType.Monthly, loyal, 0
+        ));
+
+        List<MembershipRenewal> renewed = dao.apply(plan);
+
+        assertEquals(List.of(regular), renewed.stream().map(r -> r.membership().idOfHolder()).toList());
+        assertEquals(2, countMemberships(loyal));
+        assertEquals(2, countMemberships(regular));
+    }
+
+    @Test
+    void holderWithTwoMembershipsEndingTheSameDayIsRenewedOnce() throws Exception {
+        membershipDao.addMembership(new Membership(
+            null, windowStart.minusMonths(1), windowStart.plusDays(10), 40.0, Membership.MembershipType.Monthly, regular, 0
+        ));
+
+        RenewalReport report = dao.renew(windowStart, windowEnd, Membership.MembershipType.Monthly, 50.0, false);
+
+        assertEquals(2, report.count());
+        assertEquals(3, countMemberships(regular));
+        assertEquals(2, countMemberships(loyal));
+    }
+
+    @Test
+    void otherTypesAreLeftAlone() throws Exception {
+        RenewalReport report = dao.renew(windowStart, windowEnd, Membership.MembershipType.Yearly, 500.0, true);
+
+        assertEquals(0, report.count());
+    }
+
+    private Long addClient(String name) throws Exception {
+        String email = name + System.nanoTime() + "@renew.com";
+        clientDao.addClient(new Client(null, name, email, "111"));
+        return clientDao.searchClients(email).get(0).id();
+    }
+
+    private int countMemberships(Long holderId) {
+        Integer n = Database.jdbc().queryForObject(
+            "SELECT COUNT(*) FROM memberships WHERE idOfHolder = ?", Integer.class, holderId);
+        return n == null ? 0 : n;
+    }
+}
@@ -0,0 +1,79 @@
+package org.openjfx.hellofx.dao;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.utils.Database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// run with: mvn test -Pbenchmark -Dtest=MembershipStatusBenchmark
+// measures what the membership search blocks the FX thread on before rendering its rows:
+// the client search plus the membership state of every result, per-client lookups vs one bulk query.
+class MembershipStatusBenchmark extends TestContainers {
+
+    private static final int RUNS = 15;
+
+    private final ClientDAO clientDao = new ClientDAO();
+    private final MembershipDAO membershipDao = new MembershipDAO();
+
+    private interface Search {
+        void run(String query) throws Exception;
+    }
+
+    @Test
+    void compareLegacyAndBulkStatusLookup() throws Exception {
+        for (int size : new int[] {10, 100, 1000}) {
+            seed(size);
+            String query = "@status" + size + ".bench";
+            assertEquals(size, clientDao.searchClients(query).size());
+
+            double legacy = medianMillis(query, q -> {
+                for (Client c : clientDao.searchClients(q)) {
+                    String type = membershipDao.getCurrentMembershipType(c.id());
+                    if (type != null) membershipDao.getRemainingVisits(c.id());
+                    membershipDao.hasActiveMembership(c.id());
+                }
+            });
+            double bulk = medianMillis(query, q -> {
+                List<Client> found = clientDao.searchClients(q);
+                membershipDao.getStatusForClients(found.stream().map(Client::id).toList());
+            });
+            System.out.printf("%4d results: per-client %.1f ms, bulk %.1f ms%n", size, legacy, bulk);
+        }
+    }
+
+    private double medianMillis(String query, Search search) throws Exception {
+        double[] times = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            search.run(query);
+            times[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    // every result client gets a membership; a third of them a Ten pass
+    private void seed(int size) throws Exception {
+        try (Connection conn = Database.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("SET SESSION cte_max_recursion_depth = " + Math.max(size, 1000));
+            st.execute("""
+                INSERT INTO clients (name, email, phone_number)
+                WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < %d)
+                SELECT CONCAT('Status ', n), CONCAT('client', n, '@status%d.bench'), '000' FROM seq
+            """.formatted(size, size));
+            st.execute("""
+                INSERT INTO memberships (startDate, expiresAt, price, type, idOfHolder, visits_remaining)
+                SELECT CURDATE() - INTERVAL 1 DAY, CURDATE() + INTERVAL 30 DAY, 30,
+                       IF(MOD(id, 3) = 0, 'Ten', 'Monthly'), id, IF(MOD(id, 3) = 0, 5, NULL)
+                FROM clients
+                WHERE email LIKE '%%@status%d.bench'
+            """.formatted(size));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.openjfx.hellofx.dao;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.model.MembershipTimelineEntry;
+import org.openjfx.hellofx.utils.Database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// run with: mvn test -Pbenchmark -Dtest=MembershipTimelineBenchmark
+// a client with 15 years of monthly memberships and three visits a week, among 20k other members.
+// the timeline panel blocks the FX thread on findTimeline, which should stay under 20 ms;
+// counting each membership's visits from the visit tables is printed next to it for comparison.
+class MembershipTimelineBenchmark extends TestContainers {
+
+    private static final int RUNS = 25;
+    private static final int MONTHS = 15 * 12;
+
+    private final MembershipDAO membershipDao = new MembershipDAO();
+
+    @Test
+    void timelineOfALongTimeMember() throws Exception {
+        ClientDAO clients = new ClientDAO();
+        clients.addClient(new Client(null, "Veteran", "veteran@timeline.bench", "000"));
+        Long veteran = clients.searchClients("veteran@timeline.bench").get(0).id();
+        seed(veteran);
+        assertEquals(MONTHS, membershipDao.findTimeline(veteran).size());
+
+        double timeline = medianMillis(() -> membershipDao.findTimeline(veteran));
+        double counted = medianMillis(() -> Database.jdbc().queryForList("""
+            SELECT m.id, m.startDate, m.expiresAt, m.type, m.status, m.price, m.visits_remaining,
+                   (SELECT COUNT(*) FROM visits v WHERE v.membership_id = m.id)
+                 + (SELECT COUNT(*) FROM visits_archive a WHERE a.membership_id = m.id) AS visit_count
+            FROM memberships m
+            WHERE m.idOfHolder = ?
+            ORDER BY m.startDate DESC, m.id DESC
+        """, veteran));
+        List<MembershipTimelineEntry> entries = membershipDao.findTimeline(veteran);
+        int visits = entries.stream().mapToInt(MembershipTimelineEntry::visits).sum();
+
+        System.out.printf("%d memberships, %d visits: timeline %.2f ms, counting visits %.2f ms (target 20 ms)%n",
+            entries.size(), visits, timeline, counted);
+        assertTrue(timeline < 20, "timeline took " + timeline + " ms");
+    }
+
+    private double medianMillis(Runnable query) {
+        double[] times = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            times[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    private void seed(Long veteran) throws Exception {
+        try (Connection conn = Database.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("SET SESSION cte_max_recursion_depth = 100000");
+            st.execute("""
+                INSERT INTO clients (name, email, phone_number)
+                WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20000)
+                SELECT CONCAT('Member ', n), CONCAT('member', n, '@timeline.bench'), '000' FROM seq
+            """);
+            st.execute("""
+                INSERT INTO memberships (startDate, expiresAt, price, type, idOfHolder, visits_remaining)
+                SELECT CURDATE() - INTERVAL MOD(id, 365) DAY, CURDATE() + INTERVAL 30 - MOD(id, 365) DAY, 30,
+                       'Monthly', id, NULL
+                FROM clients
+                WHERE email LIKE '%@timeline.bench' AND id <> """ + veteran);
+            st.execute("""
+                INSERT INTO memberships (startDate, expiresAt, price, type, idOfHolder, visits_remaining, status)
+                WITH RECURSIVE seq(n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < %d)
+                SELECT CURDATE() - INTERVAL n MONTH, CURDATE() - INTERVAL n MONTH + INTERVAL 1 MONTH, 30,
+                       'Monthly', %d, NULL, IF(n = 0, 'ACTIVE', 'EXPIRED')
+                FROM seq
+            """.formatted(MONTHS - 1, veteran));
+            // three visits a week on every membership the veteran had
+            st.execute("""
+                INSERT INTO visits (client_id, membership_id, check_in)
+                WITH RECURSIVE day(d) AS (SELECT 0 UNION ALL SELECT d + 1 FROM day WHERE d < 29)
+                SELECT m.idOfHolder, m.id, m.startDate + INTERVAL day.d DAY + INTERVAL 18 HOUR
+                FROM memberships m JOIN day ON MOD(day.d, 7) IN (0, 2, 4)
+                WHERE m.idOfHolder = %d
+            """.formatted(veteran));
+            st.execute("ANALYZE TABLE clients, memberships, visits");
+        }
+        new VisitStatsDAO().backfillMemberships();
+    }
+}
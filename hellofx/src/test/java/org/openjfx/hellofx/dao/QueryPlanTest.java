@@ -0,0 +1,314 @@
+package org.openjfx.hellofx.dao;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.entities.Coach;
+import org.openjfx.hellofx.entities.DiscountRule;
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.AvailabilitySlot;
+import org.openjfx.hellofx.model.VisitCursor;
+import org.openjfx.hellofx.model.VisitRow;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// query-plan regression test: runs the DAO methods against a seeded database, collects every statement
+// they send from the server's general log, and EXPLAINs each one. a full table scan or a filesort fails
+// the test unless the statement is listed in ALLOWED with the reason it is acceptable.
+// statements inside the check_in_client procedure don't reach the general log; its membership lookup
+// is the same one checkInBatch runs. REQUIRED names statements the workload must reach, so a workload
+// change can't silently drop them from the check. not covered on purpose: the information_schema reads
+// of VisitPartitionDAO (metadata, not table data) and VisitMaintenanceScheduler's named lock and its
+// maintenance_runs primary key lookups, which run outside the DAOs.
+class QueryPlanTest extends TestContainers {
+
+    // a statement containing fragment may scan or sort the listed tables (the EXPLAIN table column, so
+    // aliases where the statement uses them); any other table it reads is still checked
+    private record Allowance(String fragment, Set<String> tables, String reason) {}
+
+    private static final List<Allowance> ALLOWED = List.of(
+        new Allowance("LOWER(name) LIKE '%", Set.of("clients"), "substring search with a leading wildcard can't use a b-tree index; pages walk the primary key and stop at the limit, the estimate samples the newest rows"),
+        new Allowance("LOWER(name) LIKE '%", Set.of("coaches"), "same substring search over the coaches"),
+        new Allowance("AS spec_name", Set.of("<derived2>"), "sorts one page of coaches with their specializations"),
+        new Allowance("ORDER BY coach_name, startDate", Set.of("ts"), "sorts one week of sessions by the coach's name"),
+        new Allowance("ROW_NUMBER() OVER", Set.of("memberships"), "window sort over the memberships of the requested holders only"),
+        new Allowance("UNION ALL SELECT client_id FROM visits_archive", Set.of("visits", "visits_archive"), "one-shot backfill counts every visit on purpose"),
+        new Allowance("SUM(visit_count)", Set.of("client_visit_stats"), "progress estimate reads the per-client counter table, not the visits"),
+        new Allowance("ORDER BY v.check_in, v.id", Set.of("v"), "the export streams every visit"),
+        new Allowance("ORDER BY s.id DESC", Set.of("s"), "the audit list shows every saved discount rule set"),
+        new Allowance("COUNT(*), SUM(CAST(price", Set.of("memberships"), "the revenue rebuild aggregates every membership on purpose"),
+        new Allowance("SUM(membership_count)", Set.of("revenue_daily"), "the monthly revenue rollup is rebuilt from every daily row"),
+        new Allowance("DELETE FROM revenue_", Set.of("revenue_daily", "revenue_monthly"), "the revenue rebuild empties the rollups first"),
+        new Allowance("UNION ALL SELECT membership_id FROM visits_archive", Set.of("visits", "visits_archive"), "one-shot backfill recounts the visits of every membership on purpose"),
+        new Allowance("FROM visits PARTITION (", Set.of("visits"), "EXISTS stops at the first row of the one partition it reads")
+    );
+
+    // a fragment of every statement the workload has to explain, with the DAO method it comes from
+    private static final Map<String, String> REQUIRED = Map.ofEntries(
+        Map.entry("later.expiresAt = m.expiresAt", "MembershipRenewalDAO SELECT_DUE"),
+        Map.entry("FROM memberships WHERE idOfHolder IN", "MembershipRenewalDAO lockStillDue"),
+        Map.entry("INSERT INTO visits_archive", "VisitArchiveDAO archive chunk copy"),
+        Map.entry("DELETE FROM visits WHERE check_in <", "VisitArchiveDAO archive chunk delete"),
+        Map.entry("SELECT email FROM clients WHERE email IN", "ClientImportDAO registeredEmails"),
+        Map.entry("JOIN discount_rules r ON r.id = m.discount_rule_id", "DiscountRuleDAO findRuleSetForMembership"),
+        Map.entry("(SELECT MAX(id) FROM discount_rule_sets) AS latest", "DiscountRuleDAO recheck"),
+        Map.entry("UPDATE memberships SET status", "MembershipDAO sweepStatuses"),
+        Map.entry("FROM memberships m WHERE m.id >", "VisitStatsDAO verify, memberships"),
+        Map.entry("SET visit_count = (SELECT COUNT(*) FROM visits WHERE membership_id", "VisitStatsDAO repairMembership"),
+        Map.entry("FROM maintenance_runs WHERE job", "VisitStatsDAO backfillIfMissing"),
+        Map.entry("FROM visits PARTITION (", "VisitPartitionDAO dropMonthsBefore")
+    );
+
+    private final ClientDAO clientDao = new ClientDAO();
+    private final CoachDAO coachDao = new CoachDAO();
+    private final MembershipDAO membershipDao = new MembershipDAO();
+    private final VisitDAO visitDao = new VisitDAO();
+    private final TimetableDAO timetableDao = new TimetableDAO();
+    private final CoachAvailabilityDAO availabilityDao = new CoachAvailabilityDAO();
+    private final SpecializationDAO specializationDao = new SpecializationDAO();
+    private final UserDAO userDao = new UserDAO();
+    private final DiscountRuleDAO discountDao = new DiscountRuleDAO();
+
+    @Test
+    void daoStatementsUseIndexes() throws Exception {
+        try (Connection root = DriverManager.getConnection(mysql.getJdbcUrl(), "root", mysql.getPassword());
+             Statement st = root.createStatement()) {
+            seed(st);
+            Map<String, String> statements = byShape(GeneralLog.statementsRunBy(mysql, this::runWorkload));
+            assertTrue(statements.size() > 30, "workload captured only " + statements.size() + " statements");
+            REQUIRED.forEach((fragment, origin) -> assertTrue(
+                statements.keySet().stream().anyMatch(shape -> shape.contains(fragment)),
+                "workload never ran " + origin));
+
+            List<String> problems = new ArrayList<>();
+            for (String sql : statements.values()) {
+                try (ResultSet rs = st.executeQuery("EXPLAIN " + sql)) {
+                    while (rs.next()) {
+                        String table = rs.getString("table");
+                        if (allowed(sql, table)) continue;
+                        String extra = rs.getString("Extra");
+                        boolean baseTable = table != null && !table.startsWith("<");
+                        if (baseTable && "ALL".equals(rs.getString("type"))) {
+                            problems.add("full scan of " + table + ": " + sql);
+                        }
+                        if (extra != null && extra.contains("Using filesort")) {
+                            problems.add("filesort on " + table + ": " + sql);
+                        }
+                    }
+                }
+            }
+            assertTrue(problems.isEmpty(), String.join("\n\n", problems));
+        }
+    }
+
+    private static boolean allowed(String sql, String table) {
+        return table != null && ALLOWED.stream().anyMatch(a -> sql.contains(a.fragment()) && a.tables().contains(table));
+    }
+
+    // one entry per statement shape (literals and IN lists collapsed), keeping the first sample
+    private static Map<String, String> byShape(List<String> sent) {
+        Map<String, String> byShape = new LinkedHashMap<>();
+        for (String sql : sent) {
+            if (!explainable(sql)) continue;
+            String shape = sql
+                .replaceAll("'(?:[^'\\\\]|\\\\.)*'", "?")
+                .replaceAll("\\b\\d+\\b", "?")
+                .replaceAll("IN \\(\\?(?:,\\s*\\?)*\\)", "IN (...)")
+                .replaceAll("\\s+", " ");
+            byShape.putIfAbsent(shape, sql);
+        }
+        return byShape;
+    }
+
+    private static boolean explainable(String sql) {
+        String upper = sql.toUpperCase();
+        if (upper.contains("@@") || upper.contains("INFORMATION_SCHEMA")) return false;
+        if (upper.startsWith("SELECT") || upper.startsWith("WITH") || upper.startsWith("UPDATE") || upper.startsWith("DELETE")) {
+            return true;
+        }
+        return upper.startsWith("INSERT") && upper.contains("SELECT");
+    }
+
+    private void runWorkload() throws Exception {
+        LocalDate today = LocalDate.now();
+        LocalDateTime nine = today.plusDays(1).atTime(9, 0);
+
+        clientDao.addClient(new Client(null, "Plan Client", "plan@client.com", "123"));
+        Long clientId = clientDao.searchClients("plan@client.com").get(0).id();
+        clientDao.findClientIdsMatching("client1", 50);
+        clientDao.searchClients("client1");
+        List<Client> firstPage = clientDao.searchClientsPage("a", null, 51);
+        clientDao.searchClientsPage("a", firstPage.get(firstPage.size() - 1).id(), 51);
+        clientDao.estimateClientMatches("a");
+        Path imported = Files.createTempFile("plan", ".csv");
+        try {
+            Files.writeString(imported, "name,email,phone_number,membership_type,start_date,price\n"
+                + "Plan Import,plan@import.com,123,Monthly," + today + ",30\n");
+            new ClientImportDAO().importCsv(imported, null, rows -> { });
+        } finally {
+            Files.deleteIfExists(imported);
+        }
+
+        Long coachId = coachDao.addCoach(new Coach(null, "Plan Coach", "plan@coach.com", "456", null));
+        coachDao.searchCoaches("coach");
+        coachDao.searchCoachesPage("c", 10L, 51);
+        coachDao.estimateCoachMatches("c");
+        coachDao.findCoachIdForUser("Plan Coach");
+        specializationDao.setSpecializationsForCoach(coachId, Set.of("Yoga", "Boxing"));
+        specializationDao.getSpecializationsForCoach(coachId);
+
+        userDao.createUser("plan.user", "secret", "STAFF", null);
+        Long userId = userDao.findByUsername("plan.user").orElseThrow().id();
+        userDao.findById(userId);
+        userDao.countUsers();
+        userDao.updatePassword(userId, "secret2");
+        userDao.updateCoachId(userId, coachId);
+
+        discountDao.replaceAll(List.of(new DiscountRule(0, 5, 5), new DiscountRule(0, 20, 10), new DiscountRule(0, 50, 15)));
+        discountDao.findAllOrdered();
+        discountDao.bestRuleForVisits(25);
+        long ruleSetId = discountDao.createRuleSet(List.of(new DiscountRule(0, 5, 7)), today.plusDays(1).atStartOfDay());
+        discountDao.findRuleSets();
+        discountDao.findRules(ruleSetId);
+        Thread.sleep(DiscountRuleDAO.RECHECK_MILLIS);
+        discountDao.tiers();
+
+        membershipDao.addMembership(new Membership(
+            null, today.minusDays(1), today.plusDays(30), 20.0, Membership.MembershipType.Ten, clientId, 10
+        ));
+        membershipDao.addMembership(new Membership(
+            null, today.minusDays(1), today.plusDays(30), 20.0, Membership.MembershipType.Monthly, clientId + 4, 0
+        ), discountDao.bestRuleForVisits(25).orElseThrow());
+        discountDao.findRuleSetForMembership(1L);
+        membershipDao.sweepStatuses(today);
+        new MembershipRenewalDAO().renew(today, today.plusDays(30), Membership.MembershipType.Monthly, 40.0, true);
+        new MembershipRenewalDAO().renew(today, today.plusDays(3), Membership.MembershipType.Monthly, 40.0, false);
+        RevenueRollupDAO revenue = new RevenueRollupDAO();
+        revenue.rebuild();
+        revenue.findDaily(today.minusDays(30), today);
+        revenue.findMonthly(today.minusYears(1), today);
+        membershipDao.getStatusForClients(List.of(clientId, clientId + 1, clientId + 2));
+        membershipDao.getCurrentMembershipType(clientId + 3);
+        membershipDao.findTimeline(clientId);
+        visitDao.checkInClient(clientId);
+        visitDao.checkInBatch(List.of(clientId, clientId - 1, clientId - 2), Instant.now());
+        visitDao.countVisitsForClient(clientId);
+        visitDao.countCheckInsByHour(today);
+        visitDao.estimateVisitCount();
+
+        List<VisitRow> page = visitDao.getVisitsPage(null, null, 20);
+        visitDao.getVisitsPage(null, VisitCursor.after(page.get(page.size() - 1)), 20);
+        visitDao.getVisitsPage("plan@client.com", null, 20);
+        visitDao.getVisitsPage("a", null, 20);
+        Path export = Files.createTempFile("plan", ".csv");
+        try {
+            visitDao.exportVisitsCsv(export, rows -> { }, () -> false);
+        } finally {
+            Files.deleteIfExists(export);
+        }
+
+        VisitStatsDAO stats = new VisitStatsDAO();
+        stats.getVisitCount(clientId);
+        stats.repairClient(clientId);
+        stats.verify(false);
+        stats.backfill();
+        stats.backfillMemberships();
+        stats.backfillIfMissing();
+        stats.repairMembership(membershipDao.findTimeline(clientId).get(0).membershipId());
+        // the seeded visits reach two years back, so this moves the oldest few hundred
+        new VisitArchiveDAO().archiveBefore(today.minusMonths(23).atStartOfDay());
+        new VisitArchiveDAO().countArchived();
+        new VisitPartitionDAO().dropMonthsBefore(YearMonth.from(today.minusYears(1)));
+
+        availabilityDao.addAvailability(coachId, nine, nine.plusHours(8), "Available");
+        availabilityDao.hasOverlap(coachId, nine, nine.plusHours(1));
+        availabilityDao.isWithinAvailability(coachId, nine, nine.plusHours(1));
+        AvailabilitySlot slot = availabilityDao.getAvailabilityForDate(coachId, nine.toLocalDate()).get(0);
+        availabilityDao.consumeAvailability(coachId, slot, nine.plusHours(2), nine.plusHours(3));
+        timetableDao.addTrainingSession(clientId, coachId, nine.plusHours(2), nine.plusHours(3), "Plan session");
+        timetableDao.hasConflictingSession(coachId, nine.plusHours(2), nine.plusHours(3));
+        Long sessionId = timetableDao.getWeeklySessions(nine.toLocalDate()).stream()
+            .filter(s -> "Plan session".equals(s.title())).findFirst().orElseThrow().id();
+        timetableDao.findTrainingSession(sessionId);
+        timetableDao.deleteSessionAndRestoreAvailability(sessionId);
+        availabilityDao.mergeAvailability(coachId);
+        availabilityDao.deleteExpired();
+
+        membershipDao.removeByHolderId(clientId);
+    }
+
+    // enough rows per table that the optimizer prefers indexes over scanning
+    private void seed(Statement st) throws Exception {
+        st.execute("USE gym_db");
+        st.execute("SET SESSION cte_max_recursion_depth = 100000");
+        st.execute("""
+            INSERT INTO clients (name, email, phone_number)
+            WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 5000)
+            SELECT CONCAT('Client ', n), CONCAT('client', n, '@plan.seed'), '000' FROM seq
+        """);
+        st.execute("""
+            INSERT INTO coaches (name, email, phone_number)
+            WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 200)
+            SELECT CONCAT('Coach ', n), CONCAT('coach', n, '@plan.seed'), '000' FROM seq
+        """);
+        st.execute("""
+            INSERT INTO memberships (startDate, expiresAt, price, type, idOfHolder, visits_remaining)
+            SELECT CURDATE() - INTERVAL MOD(id, 300) DAY, CURDATE() + INTERVAL MOD(id, 90) - 30 DAY, 30,
+                   IF(MOD(id, 4) = 0, 'Ten', 'Monthly'), id, IF(MOD(id, 4) = 0, MOD(id, 10), NULL)
+            FROM clients
+        """);
+        st.execute("""
+            INSERT INTO visits (client_id, membership_id, check_in)
+            WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 50000)
+            SELECT m.idOfHolder, m.id, NOW() - INTERVAL MOD(seq.n * 7919, 1051200) MINUTE
+            FROM seq JOIN memberships m ON m.id = (SELECT MIN(id) FROM memberships) + MOD(seq.n, 5000)
+        """);
+        st.execute("""
+            INSERT INTO visits_archive (id, client_id, membership_id, check_in)
+            SELECT id + 10000000, client_id, membership_id, check_in - INTERVAL 3 YEAR FROM visits WHERE MOD(id, 10) = 0
+        """);
+        st.execute("""
+            INSERT INTO client_visit_stats (client_id, visit_count)
+            SELECT client_id, COUNT(*)
+            FROM (SELECT client_id FROM visits UNION ALL SELECT client_id FROM visits_archive) AS v
+            GROUP BY client_id
+        """);
+        st.execute("""
+            INSERT INTO coach_availability (coach_id, startDate, endDate, note)
+            WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20000)
+            SELECT c.id, CURDATE() + INTERVAL MOD(seq.n, 365) DAY + INTERVAL 8 HOUR,
+                   CURDATE() + INTERVAL MOD(seq.n, 365) DAY + INTERVAL 12 HOUR, 'Available'
+            FROM seq JOIN coaches c ON c.id = (SELECT MIN(id) FROM coaches) + MOD(seq.n, 200)
+        """);
+        st.execute("""
+            INSERT INTO training_sessions (client_id, coach_id, startDate, endDate, title)
+            WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20000)
+            SELECT (SELECT MIN(id) FROM clients) + MOD(seq.n, 5000), (SELECT MIN(id) FROM coaches) + MOD(seq.n, 200),
+                   CURDATE() - INTERVAL MOD(seq.n, 730) DAY + INTERVAL 14 HOUR,
+                   CURDATE() - INTERVAL MOD(seq.n, 730) DAY + INTERVAL 15 HOUR, 'Seeded'
+            FROM seq
+        """);
+        st.execute("""
+            INSERT INTO users (username, password_hash, role)
+            WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 500)
+            SELECT CONCAT('user', n), 'x', 'STAFF' FROM seq
+        """);
+        st.execute("ANALYZE TABLE clients, coaches, memberships, visits, visits_archive, client_visit_stats, "
+            + "coach_availability, training_sessions, users, specializations, coach_specializations, discount_rules");
+    }
+}
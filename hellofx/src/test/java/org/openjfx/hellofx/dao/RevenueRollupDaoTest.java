@@ -0,0 +1,104 @@
+package org.openjfx.hellofx.dao;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.entities.DiscountRule;
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.RenewalReport;
+import org.openjfx.hellofx.model.RevenueRow;
+import org.openjfx.hellofx.utils.Database;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevenueRollupDaoTest extends TestContainers {
+
+    private final RevenueRollupDAO dao = new RevenueRollupDAO();
+    private final MembershipDAO membershipDao = new MembershipDAO();
+    private final ClientDAO clientDao = new ClientDAO();
+
+    // months far in the future, one per test, so memberships of other tests never land in them
+    private final LocalDate base = LocalDate.now().plusYears(8).withDayOfMonth(1);
+
+    @Test
+    void salesGoIntoDailyAndMonthlyRollups() throws Exception {
+        LocalDate day = base.plusDays(3);
+        Long clientId = addClient("revenue-sales");
+        DiscountRule rule = new DiscountRule(0, 10, 20);
+        membershipDao.addMembership(membership(day, 30.0, Membership.MembershipType.Monthly, clientId));
+        membershipDao.addMembership(membership(day, 30.0, Membership.MembershipType.Monthly, clientId));
+        membershipDao.addMembership(membership(day, 24.0, Membership.MembershipType.Monthly, clientId), rule);
+        membershipDao.addMembership(membership(day.plusDays(1), 100.0, Membership.MembershipType.Yearly, clientId));
+
+        List<RevenueRow> daily = dao.findDaily(day, day.plusDays(1));
+        assertEquals(3, daily.size());
+        assertEquals(new RevenueRow(day, "Monthly", 0, 2, 60.0), daily.get(0));
+        assertEquals(new RevenueRow(day, "Monthly", 20, 1, 24.0), daily.get(1));
+        assertEquals(new RevenueRow(day.plusDays(1), "Yearly", 0, 1, 100.0), daily.get(2));
+
+        List<RevenueRow> monthly = dao.findMonthly(day, day);
+        assertEquals(3, monthly.size());
+        assertEquals(new RevenueRow(base, "Monthly", 0, 2, 60.0), monthly.get(0));
+    }
+
+    @Test
+    void removingAHolderTakesTheirRevenueOut() throws Exception {
+        LocalDate day = base.plusMonths(2);
+        Long leaving = addClient("revenue-leaving");
+        Long staying = addClient("revenue-staying");
+        membershipDao.addMembership(membership(day, 30.0, Membership.MembershipType.Weekly, leaving));
+        membershipDao.addMembership(membership(day, 30.0, Membership.MembershipType.Weekly, staying));
+
+        membershipDao.removeByHolderId(leaving);
+
+        assertEquals(List.of(new RevenueRow(day, "Weekly", 0, 1, 30.0)), dao.findDaily(day, day));
+        assertEquals(List.of(new RevenueRow(day, "Weekly", 0, 1, 30.0)), dao.findMonthly(day, day));
+    }
+
+    @Test
+    void renewalsAreCounted() throws Exception {
+        LocalDate expires = base.plusMonths(4);
+        Long clientId = addClient("revenue-renewal");
+        membershipDao.addMembership(membership(expires.minusMonths(1), 40.0, Membership.MembershipType.Monthly, clientId));
+        Database.jdbc().update("UPDATE memberships SET expiresAt = ? WHERE idOfHolder = ?",
+            java.sql.Date.valueOf(expires), clientId);
+
+        RenewalReport report = new MembershipRenewalDAO().renew(expires, expires, Membership.MembershipType.Monthly, 45.0, false);
+
+        List<RevenueRow> rows = dao.findDaily(expires.plusDays(1), expires.plusDays(1));
+        assertEquals(1, rows.size());
+        assertEquals(1, rows.get(0).memberships());
+        assertEquals(report.totalPrice(), rows.get(0).revenue(), 0.001);
+    }
+
+    @Test
+    void rebuildRepairsDriftedRollups() throws Exception {
+        LocalDate day = base.plusMonths(6);
+        Long clientId = addClient("revenue-rebuild");
+        membershipDao.addMembership(membership(day, 33.333, Membership.MembershipType.Ten, clientId));
+        membershipDao.addMembership(membership(day, 33.333, Membership.MembershipType.Ten, clientId));
+        List<RevenueRow> daily = dao.findDaily(day, day);
+        List<RevenueRow> monthly = dao.findMonthly(day, day);
+        assertEquals(66.66, daily.get(0).revenue(), 0.001);
+
+        Database.jdbc().update("UPDATE revenue_daily SET membership_count = 7, revenue = 1 WHERE day = ?",
+            java.sql.Date.valueOf(day));
+        Database.jdbc().update("DELETE FROM revenue_monthly WHERE month = ?", java.sql.Date.valueOf(base.plusMonths(6)));
+
+        assertTrue(dao.rebuild() > 0);
+        assertEquals(daily, dao.findDaily(day, day));
+        assertEquals(monthly, dao.findMonthly(day, day));
+    }
+
+    private Membership membership(LocalDate start, double price, Membership.MembershipType type, Long holder) {
+        return new Membership(null, start, type.expiryFor(start), price, type, holder, type.includedVisits());
+    }
+
+    private Long addClient(String prefix) throws Exception {
+        String email = prefix + System.nanoTime() + "@mail.com";
+        clientDao.addClient(new Client(null, prefix, email, "111"));
+        return clientDao.searchClients(email).get(0).id();
+    }
+}
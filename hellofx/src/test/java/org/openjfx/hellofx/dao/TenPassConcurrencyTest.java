@@ -0,0 +1,134 @@
+package org.openjfx.hellofx.dao;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.CheckInResult;
+import org.openjfx.hellofx.utils.Database;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 64 threads check in against one Ten pass at once. the conditional decrement has to hand out exactly
+// the pass's visits: no lost updates, no visit without a decrement, and the counter never below zero.
+class TenPassConcurrencyTest extends TestContainers {
+
+    private static final int THREADS = 64;
+    private static final int CHECK_INS_PER_THREAD = 5;
+    private static final int VISITS = 100;
+
+    private final VisitDAO visitDao = new VisitDAO();
+    private final ClientDAO clientDao = new ClientDAO();
+    private final MembershipDAO membershipDao = new MembershipDAO();
+
+    @BeforeAll
+    void poolForEveryThread() {
+        Database.overrideDataSourceForTests(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword(), THREADS + 2);
+    }
+
+    @AfterAll
+    void defaultPool() {
+        Database.overrideDataSourceForTests(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword());
+    }
+
+    @Test
+    void parallelCheckInsNeverOverdrawAPass() throws Exception {
+        Long clientId = clientWithTenPass("stress-single");
+
+        int accepted = hammer(clientId, false);
+
+        assertEquals(VISITS, accepted);
+        assertPassDrained(clientId);
+    }
+
+    @Test
+    void singleAndBatchedCheckInsShareThePassCorrectly() throws Exception {
+        Long clientId = clientWithTenPass("stress-mixed");
+
+        int accepted = hammer(clientId, true);
+
+        assertEquals(VISITS, accepted);
+        assertPassDrained(clientId);
+    }
+
+    // every thread checks the client in CHECK_INS_PER_THREAD times, all threads released at once.
+    // with batches, every other thread goes through checkInBatch. a sampler watches the counter meanwhile.
+    private int hammer(Long clientId, boolean batches) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger lowest = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                Integer remaining = Database.jdbc().queryForObject(
+                    "SELECT visits_remaining FROM memberships WHERE idOfHolder = ?", Integer.class, clientId);
+                lowest.accumulateAndGet(remaining, Math::min);
+            }
+        }, "pass-sampler");
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                boolean batched = batches && t % 2 == 1;
+                futures.add(pool.submit(() -> {
+                    go.await();
+                    for (int i = 0; i < CHECK_INS_PER_THREAD; i++) {
+                        CheckInResult result = batched
+                            ? visitDao.checkInBatch(List.of(clientId), Instant.now()).get(clientId)
+                            : visitDao.checkIn(clientId);
+                        if (result.accepted()) {
+                            accepted.incrementAndGet();
+                        } else {
+                            assertEquals(CheckInResult.Status.EXHAUSTED, result.status());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            sampler.start();
+            go.countDown();
+            for (Future<?> f : futures) {
+                f.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            running.set(false);
+            sampler.join();
+            pool.shutdownNow();
+        }
+        assertTrue(lowest.get() >= 0, "visits_remaining went down to " + lowest.get());
+        return accepted.get();
+    }
+
+    private void assertPassDrained(Long clientId) {
+        assertEquals(0, Database.jdbc().queryForObject(
+            "SELECT visits_remaining FROM memberships WHERE idOfHolder = ?", Integer.class, clientId));
+        assertEquals("EXHAUSTED", Database.jdbc().queryForObject(
+            "SELECT status FROM memberships WHERE idOfHolder = ?", String.class, clientId));
+        assertEquals(VISITS, Database.jdbc().queryForObject(
+            "SELECT COUNT(*) FROM visits WHERE client_id = ?", Integer.class, clientId));
+        assertEquals(VISITS, visitDao.countVisitsForClient(clientId));
+    }
+
+    private Long clientWithTenPass(String prefix) throws Exception {
+        String email = prefix + System.nanoTime() + "@mail.com";
+        clientDao.addClient(new Client(null, prefix, email, "111"));
+        Long clientId = clientDao.searchClients(email).get(0).id();
+        LocalDate today = LocalDate.now();
+        membershipDao.addMembership(new Membership(
+            null, today.minusDays(1), today.plusMonths(1), 50.0, Membership.MembershipType.Ten, clientId, VISITS));
+        return clientId;
+    }
+}
@@ -17,6 +17,8 @@ public abstract class TestContainers {
             .withDatabaseName("gym_db")
             .withUsername("testuser")
             .withPassword("testpass")
+            // same batching as the application's own connection url
+            .withUrlParam("rewriteBatchedStatements", "true")
             .withInitScript("db/init.sql");
 
     @BeforeAll
@@ -0,0 +1,118 @@
+package org.openjfx.hellofx.dao;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.utils.Database;
+import org.openjfx.hellofx.utils.Typeahead;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// run with: mvn test -Pbenchmark -Dtest=TypeaheadBenchmark
+// scripted typing into the booking dialog's client field against 200k clients, with the SQL client search.
+// a single "fx" thread gets a 60 fps pulse and the keystrokes, like the JavaFX application thread;
+// a pulse that runs more than a frame late counts the frames it skipped as dropped.
+// before: every keystroke runs the query on the fx thread. after: keystrokes go through a Typeahead.
+class TypeaheadBenchmark extends TestContainers {
+
+    private static final String TYPED = "peter novakova 1234";
+    private static final long KEYSTROKE_MILLIS = 70;
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+    private final ClientDAO clientDao = new ClientDAO();
+
+    private interface Field {
+        void onTextChanged(String text) throws Exception;
+    }
+
+    @Test
+    void compareBlockingAndAsyncSuggestions() throws Exception {
+        seed(200_000);
+        clientDao.searchClients("warm up");
+        ExecutorService fx = Executors.newSingleThreadExecutor(r -> new Thread(r, "fx"));
+        try {
+            AtomicInteger queries = new AtomicInteger();
+            Result blocking = type(fx, text -> {
+                clientDao.searchClients(text);
+                queries.incrementAndGet();
+            });
+
+            AtomicInteger applied = new AtomicInteger();
+            Typeahead<List<Client>> typeahead = new Typeahead<>(Duration.ofMillis(150), clientDao::searchClients,
+                found -> applied.incrementAndGet(), Exception::printStackTrace, fx);
+            Result async = type(fx, typeahead::submit);
+            typeahead.close();
+
+            System.out.printf("blocking: %d dropped frames, longest stall %d ms, %d queries on the fx thread%n",
+                blocking.dropped(), blocking.longestStallMillis(), queries.get());
+            System.out.printf("async:    %d dropped frames, longest stall %d ms, %d results applied%n",
+                async.dropped(), async.longestStallMillis(), applied.get());
+            assertTrue(applied.get() >= 1);
+            assertTrue(async.dropped() <= blocking.dropped());
+        } finally {
+            fx.shutdownNow();
+        }
+    }
+
+    private record Result(long dropped, long longestStallMillis) {}
+
+    // types TYPED one character per keystroke on the fx thread, then waits a second for trailing results
+    private Result type(ExecutorService fx, Field field) throws Exception {
+        ScheduledExecutorService clock = Executors.newSingleThreadScheduledExecutor();
+        AtomicLong lastPulse = new AtomicLong(System.nanoTime());
+        AtomicLong dropped = new AtomicLong();
+        AtomicLong longest = new AtomicLong();
+        try {
+            clock.scheduleAtFixedRate(() -> fx.execute(() -> {
+                long now = System.nanoTime();
+                long gap = now - lastPulse.getAndSet(now);
+                if (gap > FRAME_NANOS * 3 / 2) dropped.addAndGet(gap / FRAME_NANOS - 1);
+                longest.accumulateAndGet(gap, Math::max);
+            }), 0, FRAME_NANOS, TimeUnit.NANOSECONDS);
+            Thread.sleep(200);
+            dropped.set(0);
+            longest.set(0);
+            for (int i = 1; i <= TYPED.length(); i++) {
+                String text = TYPED.substring(0, i);
+                fx.execute(() -> {
+                    try {
+                        field.onTextChanged(text);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                Thread.sleep(KEYSTROKE_MILLIS);
+            }
+            // the blocking field still has keystrokes queued behind its queries
+            fx.submit(() -> { }).get(2, TimeUnit.MINUTES);
+            Thread.sleep(1000);
+            return new Result(dropped.get(), longest.get() / 1_000_000);
+        } finally {
+            clock.shutdownNow();
+        }
+    }
+
+    private void seed(int size) throws Exception {
+        try (Connection conn = Database.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("SET SESSION cte_max_recursion_depth = " + size);
+            st.execute("""
+                INSERT INTO clients (name, email, phone_number)
+                WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < %d)
+                SELECT CONCAT(ELT(1 + MOD(n, 4), 'Anna', 'Peter', 'Jana', 'Martin'), ' ',
+                              ELT(1 + MOD(n DIV 4, 3), 'Kovac', 'Novakova', 'Horvath'), ' ', n),
+                       CONCAT('typing', n, '@bench.sk'), '000'
+                FROM seq
+            """.formatted(size));
+        }
+    }
+}
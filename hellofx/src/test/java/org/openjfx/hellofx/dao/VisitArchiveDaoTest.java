@@ -0,0 +1,75 @@
+package org.openjfx.hellofx.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.model.VisitCursor;
+import org.openjfx.hellofx.model.VisitRow;
+import org.openjfx.hellofx.utils.Database;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisitArchiveDaoTest extends TestContainers {
+
+    private final VisitArchiveDAO dao = new VisitArchiveDAO();
+    private final VisitDAO visitDao = new VisitDAO();
+    private final ClientDAO clientDao = new ClientDAO();
+    private String email;
+    private Long clientId;
+
+    @BeforeEach
+    void seedClient() throws Exception {
+        email = "archive" + System.nanoTime() + "@mail.com";
+        clientDao.addClient(new Client(null, "Archive", email, "111"));
+        clientId = clientDao.searchClients(email).get(0).id();
+    }
+
+    @Test
+    void archivedVisitsStayVisibleToPagingAndCounters() throws Exception {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        insertVisit(now.minusDays(1));
+        insertVisit(now.minusYears(2));
+        insertVisit(now.minusYears(3));
+        DaoFactory.visitStats().repairClient(clientId);
+
+        int moved = dao.archiveBefore(now.minusYears(1));
+
+        assertTrue(moved >= 2);
+        assertEquals(0, Database.jdbc().queryForObject(
+            "SELECT COUNT(*) FROM visits WHERE client_id = ? AND check_in < ?", Integer.class,
+            clientId, Timestamp.valueOf(now.minusYears(1))));
+
+        // one row per page, so the read path has to cross from visits into visits_archive
+        List<LocalDateTime> seen = new ArrayList<>();
+        VisitCursor cursor = null;
+        while (true) {
+            List<VisitRow> page = visitDao.getVisitsPage(email, cursor, 1);
+            if (page.isEmpty()) break;
+            seen.add(page.get(0).checkIn());
+            cursor = VisitCursor.after(page.get(0));
+        }
+        assertEquals(List.of(now.minusDays(1), now.minusYears(2), now.minusYears(3)), seen);
+
+        assertEquals(3, visitDao.countVisitsForClient(clientId));
+        DaoFactory.visitStats().repairClient(clientId);
+        assertEquals(3, visitDao.countVisitsForClient(clientId));
+    }
+
+    @Test
+    void archivingTwiceMovesNothingNew() throws Exception {
+        insertVisit(LocalDateTime.now().minusYears(5));
+        dao.archiveBefore(LocalDateTime.now().minusYears(1));
+
+        assertEquals(0, dao.archiveBefore(LocalDateTime.now().minusYears(1)));
+    }
+
+    private void insertVisit(LocalDateTime checkIn) {
+        Database.jdbc().update("INSERT INTO visits (client_id, membership_id, check_in) VALUES (?, NULL, ?)",
+            clientId, Timestamp.valueOf(checkIn));
+    }
+}
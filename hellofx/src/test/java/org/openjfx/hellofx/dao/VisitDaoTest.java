@@ -2,12 +2,22 @@ package org.openjfx.hellofx.dao;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.openjfx.hellofx.entities.Client;
 import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.model.CheckInResult;
+import org.openjfx.hellofx.model.VisitCursor;
 import org.openjfx.hellofx.model.VisitRow;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,7 +30,7 @@ class VisitDaoTest extends TestContainers {
 
     @BeforeEach
     void seedClientAndMembership() throws Exception {
-        clientDao.addClient(new Client(null, "Visitor", "visitor@mail.com", "111"));
+        clientDao.addClient(new Client(null, "Visitor", "visitor" + System.nanoTime() + "@mail.com", "111"));
         clientId = clientDao.searchClients("visitor").get(0).id();
         Membership m = new Membership(
             null,
@@ -55,4 +65,100 @@ class VisitDaoTest extends TestContainers {
         // third should fail
         assertFalse(dao.checkInClient(clientId));
     }
+
+    @Test
+    void checkInReportsStatus() throws Exception {
+        clientDao.addClient(new Client(null, "Single Pass", "single@mail.com", "222"));
+        Long singleId = clientDao.searchClients("single@mail.com").get(0).id();
+        assertEquals(CheckInResult.Status.NO_MEMBERSHIP, dao.checkIn(singleId).status());
+
+        membershipDao.addMembership(new Membership(
+            null, LocalDate.now(), LocalDate.now().plusDays(5), 5.0, Membership.MembershipType.Ten, singleId, 1
+        ));
+        CheckInResult first = dao.checkIn(singleId);
+        assertEquals(CheckInResult.Status.ACCEPTED, first.status());
+        assertEquals(0, first.visitsRemaining());
+        assertEquals(CheckInResult.Status.EXHAUSTED, dao.checkIn(singleId).status());
+        assertEquals(1, dao.countVisitsForClient(singleId));
+    }
+
+    @Test
+    void checkInBatchKeepsScanTimeAndReportsPerClient() throws Exception {
+        clientDao.addClient(new Client(null, "Batch Pass", "batch-pass@mail.com", "333"));
+        clientDao.addClient(new Client(null, "Batch None", "batch-none@mail.com", "444"));
+        Long passId = clientDao.searchClients("batch-pass@mail.com").get(0).id();
+        Long noneId = clientDao.searchClients("batch-none@mail.com").get(0).id();
+        membershipDao.addMembership(new Membership(
+            null, LocalDate.now().minusDays(2), LocalDate.now().plusDays(5), 5.0, Membership.MembershipType.Ten, passId, 1
+        ));
+
+        Instant scannedAt = Instant.now().minus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.SECONDS);
+        Map<Long, CheckInResult> results = dao.checkInBatch(List.of(passId, noneId, passId), scannedAt);
+
+        assertEquals(2, results.size());
+        assertEquals(CheckInResult.Status.ACCEPTED, results.get(passId).status());
+        assertEquals(0, results.get(passId).visitsRemaining());
+        assertEquals(CheckInResult.Status.NO_MEMBERSHIP, results.get(noneId).status());
+        assertEquals(1, dao.countVisitsForClient(passId));
+
+        LocalDateTime stored = dao.getRecentVisitsForClient("batch-pass@mail.com", 1).get(0).checkIn();
+        assertEquals(LocalDateTime.ofInstant(scannedAt, java.time.ZoneId.systemDefault()), stored);
+
+        Map<Long, CheckInResult> again = dao.checkInBatch(List.of(passId), scannedAt);
+        assertEquals(CheckInResult.Status.EXHAUSTED, again.get(passId).status());
+    }
+
+    @Test
+    void keysetPagesDoNotSkipOrRepeatRowsWithSameCheckIn() throws Exception {
+        List<Long> ids = new java.util.ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String email = "page" + i + "@keyset.com";
+            clientDao.addClient(new Client(null, "Pager " + i, email, "555"));
+            Long id = clientDao.searchClients(email).get(0).id();
+            membershipDao.addMembership(new Membership(
+                null, LocalDate.now().minusDays(1), LocalDate.now().plusDays(5), 5.0, Membership.MembershipType.Monthly, id, 0
+            ));
+            ids.add(id);
+        }
+        dao.checkInBatch(ids, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+        List<VisitRow> first = dao.getVisitsPage("@keyset.com", null, 2);
+        assertEquals(2, first.size());
+        List<VisitRow> second = dao.getVisitsPage("@keyset.com", VisitCursor.after(first.get(1)), 2);
+        assertEquals(1, second.size());
+
+        java.util.Set<Long> seen = new java.util.HashSet<>();
+        first.forEach(v -> seen.add(v.id()));
+        second.forEach(v -> seen.add(v.id()));
+        assertEquals(3, seen.size());
+    }
+
+    @Test
+    void exportStreamsEveryVisitAsCsv(@TempDir Path dir) throws Exception {
+        clientDao.addClient(new Client(null, "Export, Quoted", "export@csv.com", "777"));
+        Long id = clientDao.searchClients("export@csv.com").get(0).id();
+        membershipDao.addMembership(new Membership(
+            null, LocalDate.now().minusDays(1), LocalDate.now().plusDays(5), 5.0, Membership.MembershipType.Monthly, id, 0
+        ));
+        dao.checkInClient(id);
+
+        Path file = dir.resolve("visits.csv");
+        List<Long> progress = new java.util.ArrayList<>();
+        long rows = dao.exportVisitsCsv(file, progress::add, () -> false);
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(rows + 1, lines.size());
+        assertTrue(lines.get(0).startsWith("id,client_id,"));
+        assertTrue(lines.stream().anyMatch(l -> l.contains("\"Export, Quoted\",export@csv.com,Monthly")));
+        assertEquals(rows, progress.get(progress.size() - 1));
+    }
+
+    @Test
+    void cancelledExportLeavesNoFile(@TempDir Path dir) throws Exception {
+        dao.checkInClient(clientId);
+        Path file = dir.resolve("cancelled.csv");
+
+        assertThrows(CancellationException.class, () -> dao.exportVisitsCsv(file, rows -> { }, () -> true));
+        assertFalse(Files.exists(file));
+    }
 }
@@ -0,0 +1,73 @@
+package org.openjfx.hellofx.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.utils.Database;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisitPartitionDaoTest extends TestContainers {
+
+    private final VisitPartitionDAO dao = new VisitPartitionDAO();
+    private final ClientDAO clientDao = new ClientDAO();
+    private Long clientId;
+
+    @BeforeEach
+    void seedClient() throws Exception {
+        String email = "partition" + System.nanoTime() + "@mail.com";
+        clientDao.addClient(new Client(null, "Partition", email, "111"));
+        clientId = clientDao.searchClients(email).get(0).id();
+    }
+
+    @Test
+    void ensureFuturePartitionsAddsUpcomingMonthsOnce() {
+        dao.ensureFuturePartitions(2);
+        List<String> names = dao.partitionNames();
+
+        DateTimeFormatter format = DateTimeFormatter.ofPattern("'p'yyyyMM");
+        for (int i = 0; i <= 2; i++) {
+            assertTrue(names.contains(YearMonth.now().plusMonths(i).format(format)));
+        }
+        assertEquals("p_future", names.get(names.size() - 1));
+        assertEquals(0, dao.ensureFuturePartitions(2));
+    }
+
+    @Test
+    void dropMonthsBeforeRemovesArchivedMonthsOnly() throws Exception {
+        dao.ensureFuturePartitions(1);
+        insertVisit(LocalDateTime.of(2024, 6, 1, 10, 0));
+        insertVisit(LocalDateTime.now());
+
+        // p_start still holds a visit that isn't archived, so it stays
+        assertTrue(dao.dropMonthsBefore(YearMonth.of(2025, 1)).isEmpty());
+        assertTrue(dao.partitionNames().contains("p_start"));
+
+        DaoFactory.visitArchive().archiveBefore(LocalDateTime.of(2025, 1, 1, 0, 0));
+        List<String> dropped = dao.dropMonthsBefore(YearMonth.of(2025, 1));
+
+        assertTrue(dropped.contains("p_start"));
+        assertFalse(dao.partitionNames().contains("p_start"));
+        assertEquals(List.of(LocalDateTime.now().getYear()), yearsIn("visits"));
+        assertEquals(List.of(2024), yearsIn("visits_archive"));
+    }
+
+    private List<Integer> yearsIn(String table) {
+        return Database.jdbc().query(
+            "SELECT YEAR(check_in) AS y FROM " + table + " WHERE client_id = ?",
+            ps -> ps.setLong(1, clientId),
+            (rs, i) -> rs.getInt("y")
+        );
+    }
+
+    private void insertVisit(LocalDateTime checkIn) {
+        Database.jdbc().update("INSERT INTO visits (client_id, membership_id, check_in) VALUES (?, NULL, ?)",
+            clientId, Timestamp.valueOf(checkIn));
+    }
+}
@@ -0,0 +1,91 @@
+package org.openjfx.hellofx.dao;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.model.VisitRow;
+import org.openjfx.hellofx.utils.Database;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// run with: mvn test -Pbenchmark -Dtest=VisitSearchBenchmark
+// sizes can be lowered with -Dbench.clients=... -Dbench.visits=... (visits are seeded in millions)
+class VisitSearchBenchmark extends TestContainers {
+
+    private static final int CLIENTS = Integer.getInteger("bench.clients", 200_000);
+    private static final int VISITS = Integer.getInteger("bench.visits", 10_000_000);
+    private static final int RUNS = 15;
+
+    private static final String LEGACY_SQL = """
+        SELECT v.id, c.name AS client_name, c.email AS client_email, m.type AS membership_type, v.check_in
+        FROM visits v
+        JOIN clients c ON c.id = v.client_id
+        LEFT JOIN memberships m ON m.id = v.membership_id
+        WHERE LOWER(c.name) LIKE ? OR LOWER(c.email) LIKE ?
+        ORDER BY v.check_in DESC
+        LIMIT ?
+    """;
+
+    private final VisitDAO dao = new VisitDAO();
+
+    @Test
+    void compareLikeScanWithIndexedSearch() throws Exception {
+        seed();
+        for (String term : List.of("client12345@", "client9999", "bench.com")) {
+            String pattern = "%" + term + "%";
+            double legacy = medianMillis(() -> Database.jdbc().query(LEGACY_SQL, ps -> {
+                ps.setString(1, pattern);
+                ps.setString(2, pattern);
+                ps.setInt(3, 200);
+            }, (rs, i) -> rs.getLong("id")));
+            double indexed = medianMillis(() -> dao.getVisitsPage(term, null, 200));
+            System.out.printf("'%s': LIKE join %.1f ms, indexed %.1f ms%n", term, legacy, indexed);
+        }
+        List<VisitRow> rows = dao.getVisitsPage("client12345@", null, 200);
+        assertFalse(rows.isEmpty());
+    }
+
+    private double medianMillis(Runnable query) {
+        double[] times = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            times[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    // bulk seeding in SQL; a JDBC loop would take far longer than the measurement itself
+    private void seed() throws Exception {
+        try (Connection conn = Database.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("SET SESSION cte_max_recursion_depth = " + Math.max(CLIENTS, 1000));
+            st.execute("""
+                INSERT INTO clients (name, email, phone_number)
+                WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < %d)
+                SELECT CONCAT('Client ', n), CONCAT('client', n, '@bench.com'), '000' FROM seq
+            """.formatted(CLIENTS));
+            st.execute("CREATE TEMPORARY TABLE bench_seq (n INT PRIMARY KEY)");
+            st.execute("""
+                INSERT INTO bench_seq
+                WITH RECURSIVE seq(n) AS (SELECT 0 UNION ALL SELECT n + 1 FROM seq WHERE n < 999)
+                SELECT n FROM seq
+            """);
+            st.execute("SELECT MIN(id) INTO @first_client FROM clients WHERE email LIKE 'client%@bench.com'");
+            // visits spread over clients and over the last ~3 years
+            int rounds = Math.max(1, VISITS / 1_000_000);
+            for (int r = 0; r < rounds; r++) {
+                st.execute("""
+                    INSERT INTO visits (client_id, membership_id, check_in)
+                    SELECT @first_client + MOD(a.n * 1000 + b.n + %d, %d), NULL,
+                           NOW() - INTERVAL MOD(a.n * 7919 + b.n * 104729 + %d, 1576800) MINUTE
+                    FROM bench_seq a CROSS JOIN bench_seq b
+                """.formatted(r * 1_000_000, CLIENTS, r * 31));
+            }
+            st.execute("ANALYZE TABLE clients, visits");
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.openjfx.hellofx.dao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+import org.openjfx.hellofx.entities.Membership;
+import org.openjfx.hellofx.utils.Database;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisitStatsDaoTest extends TestContainers {
+
+    private final VisitStatsDAO dao = new VisitStatsDAO();
+    private final VisitDAO visitDao = new VisitDAO();
+    private final ClientDAO clientDao = new ClientDAO();
+    private final MembershipDAO membershipDao = new MembershipDAO();
+    private Long clientId;
+
+    @BeforeEach
+    void seedMember() throws Exception {
+        String email = "stats" + System.nanoTime() + "@mail.com";
+        clientDao.addClient(new Client(null, "Stats", email, "111"));
+        clientId = clientDao.searchClients(email).get(0).id();
+        membershipDao.addMembership(new Membership(
+            null, LocalDate.now().minusDays(1), LocalDate.now().plusDays(30), 30.0, Membership.MembershipType.Monthly, clientId, 0
+        ));
+    }
+
+    @Test
+    void checkInPathsMaintainCounter() throws Exception {
+        assertEquals(0, dao.getVisitCount(clientId));
+        assertTrue(visitDao.checkInClient(clientId));
+        visitDao.checkInBatch(List.of(clientId), Instant.now());
+
+        assertEquals(2, dao.getVisitCount(clientId));
+        assertEquals(2, visitDao.countVisitsForClient(clientId));
+    }
+
+    @Test
+    void verifyFindsAndRepairsDrift() throws Exception {
+        visitDao.checkInClient(clientId);
+        Database.jdbc().update("UPDATE client_visit_stats SET visit_count = 42 WHERE client_id = ?", clientId);
+
+        assertTrue(dao.verify(true) >= 1);
+        assertEquals(1, dao.getVisitCount(clientId));
+        assertEquals(0, dao.verify(false));
+    }
+
+    @Test
+    void backfillRecountsMembershipCounters() throws Exception {
+        visitDao.checkInClient(clientId);
+        visitDao.checkInBatch(List.of(clientId), Instant.now());
+        Database.jdbc().update("UPDATE memberships SET visit_count = 0 WHERE idOfHolder = ?", clientId);
+
+        assertTrue(dao.backfillMemberships() >= 1);
+        assertEquals(2, membershipDao.findTimeline(clientId).get(0).visits());
+    }
+
+    @Test
+    void verifyRepairsMembershipCounters() throws Exception {
+        visitDao.checkInClient(clientId);
+        Database.jdbc().update("UPDATE memberships SET visit_count = 0 WHERE idOfHolder = ?", clientId);
+
+        assertTrue(dao.verify(true) >= 1);
+        assertEquals(1, membershipDao.findTimeline(clientId).get(0).visits());
+        assertEquals(0, dao.verify(false));
+    }
+
+    @Test
+    void backfillIfMissingRecountsMembershipsOnce() throws Exception {
+        Database.jdbc().update("DELETE FROM maintenance_runs WHERE job = 'membership_visit_backfill'");
+        visitDao.checkInClient(clientId);
+        Database.jdbc().update("UPDATE memberships SET visit_count = 0 WHERE idOfHolder = ?", clientId);
+
+        assertTrue(dao.backfillIfMissing() >= 1);
+        assertEquals(1, membershipDao.findTimeline(clientId).get(0).visits());
+
+        Database.jdbc().update("UPDATE memberships SET visit_count = 0 WHERE idOfHolder = ?", clientId);
+        dao.backfillIfMissing();
+        assertEquals(0, membershipDao.findTimeline(clientId).get(0).visits());
+    }
+
+    @Test
+    void removingMembershipRecountsCascadedVisits() throws Exception {
+        visitDao.checkInClient(clientId);
+        membershipDao.removeByHolderId(clientId);
+
+        assertEquals(0, dao.getVisitCount(clientId));
+    }
+}
@@ -0,0 +1,42 @@
+package org.openjfx.hellofx.model;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.DiscountRule;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscountTiersTest {
+
+    private final DiscountTiers tiers = DiscountTiers.of(1, List.of(
+        new DiscountRule(3L, 50, 15),
+        new DiscountRule(1L, 5, 5),
+        new DiscountRule(2L, 20, 10)
+    ));
+
+    @Test
+    void looksUpTheHighestReachedThreshold() {
+        assertTrue(tiers.ruleFor(4).isEmpty());
+        assertEquals(0, tiers.percentFor(4));
+        assertEquals(5, tiers.percentFor(5));
+        assertEquals(5, tiers.percentFor(19));
+        assertEquals(10, tiers.percentFor(20));
+        assertEquals(15, tiers.percentFor(Integer.MAX_VALUE));
+        assertEquals(2L, tiers.ruleFor(49).orElseThrow().id());
+    }
+
+    @Test
+    void duplicateThresholdsKeepTheLargerDiscount() {
+        DiscountTiers dup = DiscountTiers.of(1, List.of(new DiscountRule(1L, 10, 30), new DiscountRule(2L, 10, 20)));
+
+        assertEquals(1, dup.size());
+        assertEquals(30, dup.percentFor(10));
+    }
+
+    @Test
+    void emptyTableNeverDiscounts() {
+        assertEquals(0, DiscountTiers.EMPTY.percentFor(1000));
+        assertTrue(DiscountTiers.of(2, List.of()).ruleFor(1000).isEmpty());
+    }
+}
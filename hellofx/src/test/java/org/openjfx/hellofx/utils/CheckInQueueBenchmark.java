@@ -0,0 +1,95 @@
+package org.openjfx.hellofx.utils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.dao.DaoFactory;
+import org.openjfx.hellofx.dao.TestContainers;
+
+// run with: mvn test -Pbenchmark -Dtest=CheckInQueueBenchmark
+// every scanner is a closed loop: submit a check-in, wait for its group commit, repeat.
+class CheckInQueueBenchmark extends TestContainers {
+
+    private static final long RUN_MILLIS = 10_000;
+    // 10 µs latency buckets up to 5 s
+    private static final long BUCKET_NANOS = 10_000;
+    private static final int BUCKETS = 500_000;
+
+    @Test
+    void groupCommitUnderConcurrentScanners() throws Exception {
+        List<Long> clientIds = seedClients(1000);
+        for (int scanners : new int[] {10, 100, 1000}) {
+            run(scanners, clientIds);
+        }
+    }
+
+    private void run(int scanners, List<Long> clientIds) throws Exception {
+        try (CheckInQueue queue = new CheckInQueue(DaoFactory.visits(), 10_000, 5, 500)) {
+            // one histogram shared by every scanner: BUCKET_NANOS wide buckets, the last one takes the rest
+            AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+            CountDownLatch done = new CountDownLatch(scanners);
+            long stopAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+
+            for (int s = 0; s < scanners; s++) {
+                Long clientId = clientIds.get(s % clientIds.size());
+                Thread t = new Thread(() -> {
+                    try {
+                        while (System.nanoTime() < stopAt) {
+                            long start = System.nanoTime();
+                            queue.submit(clientId).get();
+                            long bucket = (System.nanoTime() - start) / BUCKET_NANOS;
+                            histogram.incrementAndGet((int) Math.min(bucket, BUCKETS - 1));
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+                t.setDaemon(true);
+                t.start();
+            }
+            done.await();
+
+            long total = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                total += histogram.get(b);
+            }
+            long p99Bucket = 0;
+            long rank = (long) Math.ceil(total * 0.99), seen = 0;
+            for (int b = 0; b < BUCKETS && total > 0; b++) {
+                seen += histogram.get(b);
+                if (seen >= rank) {
+                    p99Bucket = b + 1;
+                    break;
+                }
+            }
+            double seconds = RUN_MILLIS / 1000.0;
+            System.out.printf("%4d scanners: %7.0f check-ins/s, %6.0f commits/s, p99 %.2f ms%n",
+                scanners, total / seconds, queue.commitCount() / seconds, p99Bucket * BUCKET_NANOS / 1_000_000.0);
+        }
+    }
+
+    private List<Long> seedClients(int count) {
+        var jdbc = Database.jdbc();
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String email = "scanner" + i + "@mail.com";
+            jdbc.update("INSERT INTO clients (name, email, phone_number) VALUES (?, ?, ?)", "Scanner " + i, email, "000");
+            Long id = jdbc.queryForObject("SELECT id FROM clients WHERE email = ?", Long.class, email);
+            jdbc.update(
+                "INSERT INTO memberships (startDate, expiresAt, price, type, idOfHolder) VALUES (?, ?, 30, 'Yearly', ?)",
+                java.sql.Date.valueOf(LocalDate.now().minusDays(1)),
+                java.sql.Date.valueOf(LocalDate.now().plusYears(1)),
+                id
+            );
+            ids.add(id);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,115 @@
+package org.openjfx.hellofx.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openjfx.hellofx.dao.VisitDAO;
+import org.openjfx.hellofx.model.CheckInResult;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CheckInQueueTest {
+
+    @Mock
+    private VisitDAO visitDAO;
+
+    @Test
+    void coalescesPendingCheckInsIntoOneCommit() throws Exception {
+        when(visitDAO.checkInBatch(anyCollection(), any())).thenAnswer(inv -> accepted(inv.getArgument(0)));
+
+        try (CheckInQueue queue = new CheckInQueue(visitDAO, 100, 200, 100)) {
+            List<CompletableFuture<CheckInResult>> futures = List.of(
+                queue.submit(1L), queue.submit(2L), queue.submit(3L)
+            );
+            for (CompletableFuture<CheckInResult> f : futures) {
+                assertTrue(f.get(5, TimeUnit.SECONDS).accepted());
+            }
+            assertEquals(1, queue.commitCount());
+        }
+        verify(visitDAO, times(1)).checkInBatch(anyCollection(), any());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        when(visitDAO.checkInBatch(anyCollection(), any())).thenAnswer(inv -> {
+            writerBusy.countDown();
+            release.await();
+            return accepted(inv.getArgument(0));
+        });
+
+        try (CheckInQueue queue = new CheckInQueue(visitDAO, 1, 0, 1)) {
+            CompletableFuture<CheckInResult> inFlight = queue.submit(1L);
+            assertTrue(writerBusy.await(5, TimeUnit.SECONDS));
+            CompletableFuture<CheckInResult> queued = queue.submit(2L);
+            CompletableFuture<CheckInResult> rejected = queue.submit(3L);
+
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, ex.getCause());
+
+            release.countDown();
+            assertTrue(inFlight.get(5, TimeUnit.SECONDS).accepted());
+            assertTrue(queued.get(5, TimeUnit.SECONDS).accepted());
+        }
+    }
+
+    @Test
+    void failsEveryRequestInGroupWhenCommitFails() throws Exception {
+        when(visitDAO.checkInBatch(anyCollection(), any())).thenThrow(new SQLException("db down"));
+
+        try (CheckInQueue queue = new CheckInQueue(visitDAO, 10, 0, 10)) {
+            ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> queue.submit(7L).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(SQLException.class, ex.getCause());
+        }
+    }
+
+    @Test
+    void errorInCommitFailsTheGroupAndStopsTheQueue() throws Exception {
+        when(visitDAO.checkInBatch(anyCollection(), any())).thenThrow(new StackOverflowError());
+
+        try (CheckInQueue queue = new CheckInQueue(visitDAO, 10, 0, 10)) {
+            ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> queue.submit(7L).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, ex.getCause());
+
+            // the writer is gone, so a later check-in is refused instead of waiting forever
+            ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> queue.submit(8L).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, rejected.getCause());
+        }
+    }
+
+    @Test
+    void submitAfterCloseIsRejected() throws Exception {
+        CheckInQueue queue = new CheckInQueue(visitDAO, 10, 0, 10);
+        queue.close();
+        ExecutionException ex = assertThrows(ExecutionException.class,
+            () -> queue.submit(1L).get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, ex.getCause());
+    }
+
+    private static Map<Long, CheckInResult> accepted(Collection<Long> ids) {
+        Map<Long, CheckInResult> res = new LinkedHashMap<>();
+        for (Long id : ids) {
+            res.put(id, new CheckInResult(CheckInResult.Status.ACCEPTED, id, null));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,128 @@
+package org.openjfx.hellofx.utils;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.entities.Client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientSearchIndexTest {
+
+    private static Client client(long id, String name, String email) {
+        return new Client(id, name, email, "000");
+    }
+
+    private static List<Long> ids(List<Client> clients) {
+        return clients.stream().map(Client::id).toList();
+    }
+
+    private ClientSearchIndex loaded(Client... clients) {
+        ClientSearchIndex index = new ClientSearchIndex();
+        index.load(() -> List.of(clients));
+        return index;
+    }
+
+    @Test
+    void findsSubstringsOfNameAndEmailIgnoringCaseAndDiacritics() {
+        ClientSearchIndex index = loaded(
+            client(1, "Ján Šimek", "jan@mail.sk"),
+            client(2, "Anna Nováková", "anna.n@gym.com"),
+            client(3, "Peter Kováč", "pkovac@mail.sk"));
+
+        assertEquals(List.of(1L), ids(index.search("SIME", 10)));
+        assertEquals(List.of(2L, 3L), ids(index.search("ova", 10)));
+        assertEquals(List.of(1L, 3L), ids(index.search("mail.sk", 10)));
+        assertEquals(List.of(3L), ids(index.search("  kováč ", 10)));
+        assertTrue(index.search("xyz", 10).isEmpty());
+        assertTrue(index.search("", 10).isEmpty());
+        assertTrue(index.search(null, 10).isEmpty());
+    }
+
+    @Test
+    void ranksPrefixesBeforeWordPrefixesBeforeSubstrings() {
+        ClientSearchIndex index = loaded(
+            client(1, "Rosa Mart", "r@x.com"),
+            client(2, "Martin Hruby", "h@x.com"),
+            client(3, "Eva Martinkova", "e@x.com"),
+            client(4, "Zoe Z", "martina@x.com"));
+
+        assertEquals(List.of(2L, 4L, 1L, 3L), ids(index.search("mart", 10)));
+        assertEquals(List.of(2L, 4L), ids(index.search("mart", 2)));
+    }
+
+    @Test
+    void shortQueriesScanAndStopAtTheLimit() {
+        ClientSearchIndex index = loaded(
+            client(1, "Bob", "bob@x.com"),
+            client(2, "Abby", "abby@x.com"),
+            client(3, "Bea", "bea@x.com"));
+
+        assertEquals(List.of(1L, 3L, 2L), ids(index.search("b", 10)));
+        assertEquals(List.of(1L, 3L), ids(index.search("b", 2)));
+        assertEquals(List.of(2L), ids(index.search("ab", 10)));
+    }
+
+    @Test
+    void addedClientsAreSearchableAndRepeatedTrigramsArePostedOnce() {
+        ClientSearchIndex index = loaded(client(1, "Lola", "lolala@x.com"));
+        index.add(client(2, "Lolita", "l@x.com"));
+
+        assertEquals(List.of(1L, 2L), ids(index.search("lol", 10)));
+        assertEquals(List.of(1L), ids(index.search("lala", 10)));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void notLoadedUntilTheFirstLoadAndAgainAfterClear() {
+        ClientSearchIndex index = new ClientSearchIndex();
+        assertFalse(index.isLoaded());
+        index.load(List::of);
+        assertTrue(index.isLoaded());
+        index.clear();
+        assertFalse(index.isLoaded());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void clientAddedWhileLoadingIsKept() throws Exception {
+        ClientSearchIndex index = new ClientSearchIndex();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch added = new CountDownLatch(1);
+        Thread loader = new Thread(() -> index.load(() -> {
+            reading.countDown();
+            try {
+                added.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // the source saw client 2 but not client 3
+            return List.of(client(1, "First", "f@x.com"), client(2, "Second", "s@x.com"));
+        }));
+        loader.start();
+        reading.await();
+        index.add(client(2, "Second", "s@x.com"));
+        index.add(client(3, "Third", "t@x.com"));
+        added.countDown();
+        loader.join();
+
+        assertEquals(3, index.size());
+        assertEquals(List.of(2L), ids(index.search("second", 10)));
+        assertEquals(List.of(3L), ids(index.search("third", 10)));
+    }
+
+    @Test
+    void manyClientsGrowTheTables() {
+        List<Client> clients = new ArrayList<>();
+        LongStream.rangeClosed(1, 20_000).forEach(i -> clients.add(client(i, "Client " + i, "c" + i + "@bulk.test")));
+        ClientSearchIndex index = new ClientSearchIndex();
+        index.load(() -> clients);
+
+        assertEquals(List.of(12345L), ids(index.search("c12345@", 10)));
+        assertEquals(10, index.search("bulk", 10).size());
+        assertEquals(List.of(1999L, 11999L), ids(index.search("1999@", 10)));
+    }
+}
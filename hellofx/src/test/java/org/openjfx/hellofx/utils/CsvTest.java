@@ -0,0 +1,75 @@
+package org.openjfx.hellofx.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTest {
+
+    @Test
+    void readsPlainAndQuotedFields() throws IOException {
+        Csv.Reader reader = new Csv.Reader(new StringReader(
+            "name,email\r\n\"Doe, Jane\",\"say \"\"hi\"\"\"\n\"two\nlines\",x\n,\n"));
+
+        assertArrayEquals(new String[] {"name", "email"}, reader.next());
+        assertEquals(1, reader.lineNumber());
+        assertArrayEquals(new String[] {"Doe, Jane", "say \"hi\""}, reader.next());
+        assertEquals(2, reader.lineNumber());
+        assertArrayEquals(new String[] {"two\nlines", "x"}, reader.next());
+        assertEquals(3, reader.lineNumber());
+        assertArrayEquals(new String[] {"", ""}, reader.next());
+        assertEquals(5, reader.lineNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void skipsBlankLinesAndReadsALastLineWithoutNewline() throws IOException {
+        Csv.Reader reader = new Csv.Reader(new StringReader("a\n\n\r\nb,c"));
+
+        assertArrayEquals(new String[] {"a"}, reader.next());
+        assertArrayEquals(new String[] {"b", "c"}, reader.next());
+        assertEquals(4, reader.lineNumber());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void keepsAQuoteInsideAnUnquotedField() throws IOException {
+        Csv.Reader reader = new Csv.Reader(new StringReader("5\" screen,ok\n"));
+
+        assertArrayEquals(new String[] {"5\" screen", "ok"}, reader.next());
+    }
+
+    @Test
+    void unterminatedQuoteIsAnError() {
+        Csv.Reader reader = new Csv.Reader(new StringReader("a\n\"open,b\n"));
+
+        assertThrows(IOException.class, () -> {
+            reader.next();
+            reader.next();
+        });
+    }
+
+    @Test
+    void appendedFieldsReadBackUnchanged() throws IOException {
+        String[] values = {"plain", "with,comma", "with \"quotes\"", "multi\nline", ""};
+        StringBuilder buf = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) buf.append(',');
+            Csv.appendField(buf, values[i]);
+        }
+
+        assertArrayEquals(values, new Csv.Reader(new StringReader(buf.toString())).next());
+    }
+
+    @Test
+    void recordsLongerThanTheBufferAreRead() throws IOException {
+        String longField = "x".repeat(200_000);
+        Csv.Reader reader = new Csv.Reader(new StringReader(longField + ",\"" + longField + "\"\nend\n"));
+
+        assertArrayEquals(new String[] {longField, longField}, reader.next());
+        assertArrayEquals(new String[] {"end"}, reader.next());
+    }
+}
@@ -0,0 +1,63 @@
+package org.openjfx.hellofx.utils;
+
+import org.junit.jupiter.api.Test;
+import org.openjfx.hellofx.model.MembershipStatus;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MembershipStatusCacheTest {
+
+    private static final MembershipStatus MONTHLY = new MembershipStatus("Monthly", null, true);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void countsHitsAndMisses() {
+        MembershipStatusCache cache = new MembershipStatusCache(10, Duration.ofMinutes(1), clock::get);
+
+        assertNull(cache.get(1L));
+        cache.putAll(Map.of(1L, MONTHLY), cache.generation());
+        assertEquals(MONTHLY, cache.get(1L));
+
+        assertEquals(new MembershipStatusCache.Stats(1, 1, 0, 1), cache.stats());
+        assertEquals(0.5, cache.stats().hitRate(), 1e-9);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxEntries() {
+        MembershipStatusCache cache = new MembershipStatusCache(2, Duration.ofMinutes(1), clock::get);
+        cache.putAll(Map.of(1L, MONTHLY, 2L, MembershipStatus.NONE), cache.generation());
+        cache.get(1L);
+        cache.putAll(Map.of(3L, MONTHLY), cache.generation());
+
+        assertNull(cache.get(2L));
+        assertEquals(MONTHLY, cache.get(1L));
+        assertEquals(1, cache.stats().evictions());
+        assertEquals(2, cache.stats().size());
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+        MembershipStatusCache cache = new MembershipStatusCache(10, Duration.ofSeconds(30), clock::get);
+        cache.putAll(Map.of(1L, MONTHLY), cache.generation());
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        assertNull(cache.get(1L));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotStored() {
+        MembershipStatusCache cache = new MembershipStatusCache(10, Duration.ofMinutes(1), clock::get);
+        long generation = cache.generation();
+        cache.invalidate(1L);
+        cache.putAll(Map.of(1L, MONTHLY), generation);
+
+        assertNull(cache.get(1L));
+    }
+}
@@ -0,0 +1,105 @@
+package org.openjfx.hellofx.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyTrackerTest {
+
+    private final LocalDateTime noon = LocalDate.now().atTime(12, 30);
+
+    @Test
+    void countsCheckInsOfTheLastHoursMinusCheckOuts() {
+        OccupancyTracker tracker = new OccupancyTracker();
+        tracker.recordCheckIn(noon.minusHours(3));
+        tracker.recordCheckIn(noon.minusHours(1));
+        tracker.recordCheckIn(noon);
+        tracker.recordCheckIn(noon);
+        tracker.recordCheckOut(noon);
+
+        assertEquals(2, tracker.occupancyAt(noon));
+        assertEquals(4, tracker.hourlyCheckIns()[9] + tracker.hourlyCheckIns()[11] + tracker.hourlyCheckIns()[12]);
+    }
+
+    @Test
+    void newDayStartsFromZeroAndIgnoresLateEventsOfThePreviousDay() {
+        OccupancyTracker tracker = new OccupancyTracker();
+        tracker.recordCheckIn(noon);
+        LocalDateTime tomorrow = noon.plusDays(1);
+
+        assertEquals(0, tracker.occupancyAt(tomorrow));
+        tracker.recordCheckIn(tomorrow);
+        tracker.recordCheckIn(noon);
+        assertEquals(1, tracker.occupancyAt(tomorrow));
+        assertEquals(0, tracker.occupancyAt(noon));
+    }
+
+    @Test
+    void readingAnotherDayKeepsTodaysBuckets() {
+        OccupancyTracker tracker = new OccupancyTracker();
+        tracker.recordCheckIn(noon);
+
+        assertEquals(0, tracker.occupancyAt(noon.plusDays(1)));
+        assertEquals(1, tracker.occupancyAt(noon));
+    }
+
+    @Test
+    void checkOutLeavesTheWindowWithItsCheckIn() {
+        OccupancyTracker tracker = new OccupancyTracker();
+        LocalDateTime earlier = noon.minusHours(1);
+        tracker.recordCheckIn(earlier);
+        tracker.recordCheckIn(noon);
+        // the early visitor leaves at noon
+        tracker.recordCheckOut(earlier);
+
+        assertEquals(1, tracker.occupancyAt(noon));
+        // an hour later the early check-in is out of the window, and so is its check-out
+        assertEquals(1, tracker.occupancyAt(noon.plusHours(1)));
+    }
+
+    @Test
+    void recoverRestoresStoredCheckIns() {
+        OccupancyTracker tracker = new OccupancyTracker();
+        long[] perHour = new long[24];
+        perHour[11] = 4;
+        perHour[12] = 3;
+        tracker.recover(noon.toLocalDate(), perHour);
+
+        assertEquals(7, tracker.occupancyAt(noon));
+    }
+
+    @Test
+    void concurrentCheckInsAreNotLost() throws Exception {
+        OccupancyTracker tracker = new OccupancyTracker();
+        int threads = 16;
+        int perThread = 10_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread w = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    tracker.recordCheckIn(noon);
+                }
+            });
+            w.start();
+            workers.add(w);
+        }
+        start.countDown();
+        for (Thread w : workers) {
+            w.join();
+        }
+
+        assertEquals(threads * perThread, tracker.occupancyAt(noon));
+    }
+}
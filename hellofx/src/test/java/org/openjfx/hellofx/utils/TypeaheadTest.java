@@ -0,0 +1,131 @@
+package org.openjfx.hellofx.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeaheadTest {
+
+    private static final Duration DEBOUNCE = Duration.ofMillis(40);
+
+    private final List<String> queried = new CopyOnWriteArrayList<>();
+    private final List<String> applied = new CopyOnWriteArrayList<>();
+    private final List<Exception> failed = new CopyOnWriteArrayList<>();
+
+    private Typeahead<String> typeahead(Typeahead.Query<String> query) {
+        return new Typeahead<>(DEBOUNCE, text -> {
+            queried.add(text);
+            return query.run(text);
+        }, applied::add, failed::add, Runnable::run);
+    }
+
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void burstOfKeystrokesRunsOneQueryForTheLastText() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        Typeahead<String> t = typeahead(text -> {
+            done.countDown();
+            return text.toUpperCase();
+        });
+
+        for (String text : List.of("p", "pe", "pet", "pete", "peter")) {
+            t.submit(text);
+        }
+        await(done);
+        Thread.sleep(DEBOUNCE.toMillis() * 3);
+
+        assertEquals(List.of("peter"), queried);
+        assertEquals(List.of("PETER"), applied);
+    }
+
+    @Test
+    void newerKeystrokeCancelsTheQueryInFlight() throws Exception {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch slowInterrupted = new CountDownLatch(1);
+        CountDownLatch fastDone = new CountDownLatch(1);
+        Typeahead<String> t = typeahead(text -> {
+            if (text.equals("slow")) {
+                slowStarted.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    slowInterrupted.countDown();
+                    // a query that ignores the interrupt still returns, its result must not show
+                    return "stale";
+                }
+            }
+            fastDone.countDown();
+            return text;
+        });
+
+        t.submit("slow");
+        await(slowStarted);
+        t.submit("fast");
+        await(slowInterrupted);
+        await(fastDone);
+        Thread.sleep(DEBOUNCE.toMillis());
+
+        assertEquals(List.of("slow", "fast"), queried);
+        assertEquals(List.of("fast"), applied);
+    }
+
+    @Test
+    void resultQueuedBehindANewerKeystrokeIsDropped() throws Exception {
+        List<Runnable> uiQueue = new CopyOnWriteArrayList<>();
+        CountDownLatch delivered = new CountDownLatch(1);
+        Typeahead<String> t = new Typeahead<>(DEBOUNCE, text -> text, applied::add, failed::add, r -> {
+            uiQueue.add(r);
+            delivered.countDown();
+        });
+
+        t.submit("first");
+        await(delivered);
+        // the FX thread is busy handling the next keystroke before it gets to the queued result
+        t.submit("second");
+        uiQueue.forEach(Runnable::run);
+
+        assertTrue(applied.isEmpty());
+        t.cancel();
+    }
+
+    @Test
+    void cancelAndCloseDropPendingQueries() throws Exception {
+        Typeahead<String> t = typeahead(text -> text);
+
+        t.submit("cancelled");
+        t.cancel();
+        Typeahead<String> closed = typeahead(text -> text);
+        closed.close();
+        closed.submit("after close");
+        Thread.sleep(DEBOUNCE.toMillis() * 3);
+
+        assertTrue(queried.isEmpty());
+        assertTrue(applied.isEmpty());
+    }
+
+    @Test
+    void failureOfTheLatestQueryIsReported() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        Typeahead<String> t = new Typeahead<>(DEBOUNCE, text -> {
+            throw new IllegalStateException("database down");
+        }, applied::add, e -> {
+            failed.add(e);
+            done.countDown();
+        }, Runnable::run);
+
+        t.submit("x");
+        await(done);
+
+        assertEquals("database down", failed.get(0).getMessage());
+        assertTrue(applied.isEmpty());
+    }
+}
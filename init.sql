@@ -2,12 +2,19 @@ DROP DATABASE IF EXISTS gym_db;
 CREATE DATABASE IF NOT EXISTS gym_db;
 USE gym_db;
 
+-- ngram full-text index lets client search match substrings without scanning the table;
+-- stopwords are disabled so bigrams like "in" or "at" stay searchable
+SET SESSION innodb_ft_enable_stopword = OFF;
+
 CREATE TABLE clients (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(100) NOT NULL,
     email VARCHAR(100) NOT NULL,
     phone_number VARCHAR(20) NOT NULL,
-    last_discount_threshold_used INT NOT NULL DEFAULT 0
+    last_discount_threshold_used INT NOT NULL DEFAULT 0,
+    FULLTEXT INDEX ft_clients_name_email (name, email) WITH PARSER ngram,
+    -- one client per email, the bulk import deduplicates on it
+    UNIQUE INDEX idx_clients_email (email)
 );
 
 
@@ -15,7 +22,9 @@ CREATE TABLE coaches (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     name VARCHAR(100) NOT NULL,
     email VARCHAR(100) NOT NULL UNIQUE,
-    phone_number VARCHAR(20) NOT NULL
+    phone_number VARCHAR(20) NOT NULL,
+    -- functional index for the case-insensitive name lookup that links users to coaches
+    INDEX idx_coaches_lower_name ((LOWER(name)))
 );
 
 CREATE TABLE memberships (
@@ -26,8 +35,25 @@ CREATE TABLE memberships (
     type ENUM('Monthly', 'Yearly', 'Weekly', 'Ten') NOT NULL,
     discount_percent_applied INT NOT NULL DEFAULT 0,
     discount_threshold_used INT NULL,
+    -- the discount_rules row that priced the membership, rule sets are kept for this audit trail
+    discount_rule_id INT NULL,
     visits_remaining INT NULL,
+    -- visits checked in on this membership, bumped by the check-in paths (archived visits still count)
+    visit_count INT NOT NULL DEFAULT 0,
     idOfHolder BIGINT  NOT NULL,
+    -- materialized by the status sweep (MembershipDAO.sweepStatuses) and by the writes that change it,
+    -- so reads filter on status instead of recomputing it from the dates and the remaining visits
+    status ENUM('PENDING', 'ACTIVE', 'EXPIRED', 'EXHAUSTED') NOT NULL DEFAULT 'ACTIVE',
+    -- covering indexes for the per-holder lookups: status reads filter on the status column,
+    -- check-ins take the membership that expires last (descending, so no sort is needed)
+    INDEX idx_memberships_holder_status (idOfHolder, status, startDate, type, visits_remaining),
+    INDEX idx_memberships_holder_expires (idOfHolder, expiresAt DESC, startDate, type, visits_remaining),
+    -- the client's membership timeline, newest first by a backward scan. keys only: the other columns
+    -- change on every check-in and sweep, and a client's few hundred rows are cheap primary key lookups
+    INDEX idx_memberships_holder_timeline (idOfHolder, startDate, id),
+    -- bulk renewal picks the memberships of one type that run out in a date window
+    INDEX idx_memberships_type_expires (type, expiresAt, idOfHolder),
+    INDEX idx_memberships_discount_rule (discount_rule_id),
     FOREIGN KEY (idOfHolder) REFERENCES clients(id)
 		ON DELETE CASCADE
 );
@@ -39,6 +65,9 @@ CREATE TABLE training_sessions (
     startDate DATETIME NOT NULL,
     endDate DATETIME NOT NULL,
     title VARCHAR(200) NOT NULL,
+    -- conflict checks per coach, and the weekly timetable by start time
+    INDEX idx_training_sessions_coach_start (coach_id, startDate, endDate),
+    INDEX idx_training_sessions_start (startDate),
     FOREIGN KEY (client_id) REFERENCES clients(id),
     FOREIGN KEY (coach_id) REFERENCES coaches(id)
 );
@@ -57,15 +86,72 @@ CREATE TABLE coach_specializations (
 );
 
 
+-- visits are range-partitioned by month on check_in (see VisitPartitionDAO, which adds the monthly
+-- partitions ahead of time and drops old ones for retention). partitioned InnoDB tables can't take part
+-- in foreign keys, so the primary key includes check_in and the cascades are done by the DAOs.
 CREATE TABLE visits (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT AUTO_INCREMENT,
     client_id BIGINT NOT NULL,
     membership_id BIGINT,
     check_in DATETIME NOT NULL,
+    PRIMARY KEY (id, check_in),
+    INDEX idx_visits_check_in (check_in, id),
+    INDEX idx_visits_client_check_in (client_id, check_in, id),
+    INDEX idx_visits_membership (membership_id)
+)
+PARTITION BY RANGE COLUMNS (check_in) (
+    PARTITION p_start VALUES LESS THAN ('2025-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
+
+
+-- visits older than the archive horizon are moved here by VisitArchiveDAO, so the hot visits table
+-- stays small enough for the buffer pool. compressed pages: the archive is large and rarely read.
+CREATE TABLE visits_archive (
+    id BIGINT PRIMARY KEY,
+    client_id BIGINT NOT NULL,
+    membership_id BIGINT,
+    check_in DATETIME NOT NULL,
+    INDEX idx_visits_archive_check_in (check_in, id),
+    INDEX idx_visits_archive_client_check_in (client_id, check_in, id),
     FOREIGN KEY (client_id) REFERENCES clients(id) ON DELETE CASCADE,
     FOREIGN KEY (membership_id) REFERENCES memberships(id) ON DELETE CASCADE
+) ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8;
+
+-- per-client visit counter, maintained in the same transaction as every visit insert
+CREATE TABLE client_visit_stats (
+    client_id BIGINT PRIMARY KEY,
+    visit_count BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (client_id) REFERENCES clients(id) ON DELETE CASCADE
+);
+
+-- when each maintenance job last completed, so a client that was closed at the job's hour catches up at startup
+CREATE TABLE maintenance_runs (
+    job VARCHAR(50) PRIMARY KEY,
+    last_run_at DATETIME NOT NULL
+);
+
+-- revenue rollups by the day (and the month) memberships start, by type and applied discount percent.
+-- maintained in the same transaction as every membership insert and delete, RevenueRollupDAO.rebuild
+-- recomputes them from memberships
+CREATE TABLE revenue_daily (
+    day DATE NOT NULL,
+    type ENUM('Monthly', 'Yearly', 'Weekly', 'Ten') NOT NULL,
+    discount_percent INT NOT NULL,
+    membership_count INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (day, type, discount_percent)
 );
 
+-- month is the first day of the month
+CREATE TABLE revenue_monthly (
+    month DATE NOT NULL,
+    type ENUM('Monthly', 'Yearly', 'Weekly', 'Ten') NOT NULL,
+    discount_percent INT NOT NULL,
+    membership_count INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (month, type, discount_percent)
+);
 
 CREATE TABLE users (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -83,13 +169,102 @@ CREATE TABLE coach_availability (
     startDate DATETIME NOT NULL,
     endDate DATETIME NOT NULL,
     note VARCHAR(200),
+    -- slots of one coach in start order (overlap checks, merging, daily view), endDate for the expiry cleanup
+    INDEX idx_coach_availability_coach_start (coach_id, startDate, endDate),
+    INDEX idx_coach_availability_end (endDate),
     FOREIGN KEY (coach_id) REFERENCES coaches(id) ON DELETE CASCADE
 );
 
+-- every save of the discount rules creates a new rule set, and rule sets are never changed afterwards.
+-- a rule set takes effect at activates_at, which is the save time unless it was scheduled
+CREATE TABLE discount_rule_sets (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    activates_at DATETIME NOT NULL,
+    INDEX idx_discount_rule_sets_activates (activates_at)
+);
+
 CREATE TABLE discount_rules(
      id INT AUTO_INCREMENT PRIMARY KEY,
-     visits_threshold INT NOT NULL UNIQUE, 
-     discount_percent INT NOT NULL
+     rule_set_id BIGINT NOT NULL,
+     visits_threshold INT NOT NULL,
+     discount_percent INT NOT NULL,
+     UNIQUE INDEX idx_discount_rules_set_threshold (rule_set_id, visits_threshold),
+     FOREIGN KEY (rule_set_id) REFERENCES discount_rule_sets(id)
     );
 
+-- single row naming the rule set sales use right now, version goes up on every switch
+CREATE TABLE discount_active_rule_set (
+    id TINYINT PRIMARY KEY,
+    rule_set_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    activated_at DATETIME NOT NULL,
+    CHECK (id = 1),
+    FOREIGN KEY (rule_set_id) REFERENCES discount_rule_sets(id)
+);
+
+INSERT INTO discount_rule_sets (id, activates_at) VALUES (1, '2000-01-01 00:00:00');
+INSERT INTO discount_active_rule_set (id, rule_set_id, version, activated_at) VALUES (1, 1, 1, '2000-01-01 00:00:00');
+
+-- resolves the active membership, records the visit, bumps the visit counter and consumes a Ten pass in one call.
+-- the lookup is a plain read, nothing is locked until the conditional decrement: its affected-row count decides
+-- whether the pass still had a visit. CONFLICT means the pass had visits when it was read but lost them to a
+-- concurrent check-in before the decrement, nothing was written and the caller retries with a fresh read
+DELIMITER $$
+CREATE PROCEDURE check_in_client(IN p_client_id BIGINT, IN p_check_in DATETIME)
+BEGIN
+    DECLARE v_membership_id BIGINT DEFAULT NULL;
+    DECLARE v_type VARCHAR(10) DEFAULT NULL;
+    DECLARE v_remaining INT DEFAULT NULL;
+    DECLARE v_accepted BOOLEAN DEFAULT FALSE;
+    DECLARE v_conflict BOOLEAN DEFAULT FALSE;
+    DECLARE EXIT HANDLER FOR SQLEXCEPTION
+    BEGIN
+        ROLLBACK;
+        RESIGNAL;
+    END;
+
+    START TRANSACTION;
+
+    SELECT id, type, visits_remaining INTO v_membership_id, v_type, v_remaining
+    FROM memberships
+    WHERE idOfHolder = p_client_id
+      AND startDate <= DATE(p_check_in)
+      AND expiresAt >= DATE(p_check_in)
+    ORDER BY expiresAt DESC
+    LIMIT 1;
+
+    UPDATE memberships
+    SET visits_remaining = visits_remaining - 1,
+        status = IF(visits_remaining <= 0, 'EXHAUSTED', status),
+        visit_count = visit_count + 1
+    WHERE id = v_membership_id
+      AND type = 'Ten'
+      AND visits_remaining > 0;
+
+    SET v_accepted = v_membership_id IS NOT NULL AND (v_type <> 'Ten' OR ROW_COUNT() > 0);
+    SET v_conflict = v_membership_id IS NOT NULL AND NOT v_accepted AND v_remaining > 0;
+
+    UPDATE memberships
+    SET visit_count = visit_count + 1
+    WHERE id = v_membership_id
+      AND v_type <> 'Ten';
+    INSERT INTO visits (client_id, membership_id, check_in)
+    SELECT p_client_id, v_membership_id, p_check_in
+    FROM DUAL
+    WHERE v_accepted;
+
+    INSERT INTO client_visit_stats (client_id, visit_count)
+    SELECT p_client_id, 1
+    FROM DUAL
+    WHERE v_accepted
+    ON DUPLICATE KEY UPDATE visit_count = visit_count + 1;
+
+    COMMIT;
 
+    SELECT IF(v_membership_id IS NULL, 'NO_MEMBERSHIP',
+              IF(v_accepted, 'ACCEPTED', IF(v_conflict, 'CONFLICT', 'EXHAUSTED'))) AS status,
+           v_membership_id AS membership_id,
+           (SELECT visits_remaining FROM memberships WHERE id = v_membership_id) AS visits_remaining;
+END$$
+DELIMITER ;